@@ -2,4 +2,4 @@
 CLS
 
 @REM MAVEN WAY
-mvn compile exec:java -Dexec.mainClass="com.example.App"
+mvn compile exec:java -Dexec.mainClass="com.example.App" -Dexec.args="%*"
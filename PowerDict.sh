@@ -1,3 +1,3 @@
 #!/bin/bash
 
-mvn compile exec:java -Dexec.mainClass="com.example.App"
+mvn compile exec:java -Dexec.mainClass="com.example.App" -Dexec.args="$*"
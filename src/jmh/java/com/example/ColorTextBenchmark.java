@@ -0,0 +1,67 @@
+package com.example;
+
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering colored text, and a whole word as a search prints it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Dpowerdict.headless=true" })
+public class ColorTextBenchmark {
+    private StringBuilder builder;
+    private ByteBuffer buffer;
+    private byte[] label;
+    private Vocab vocab;
+    private AppIO appIO;
+
+    @Setup
+    public void setUp() {
+        this.builder = new StringBuilder(64);
+        this.buffer = ByteBuffer.allocate(64);
+        this.label = "INFO".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        this.vocab = Fixtures.vocab("run");
+        this.appIO = AppIO.getInstance();
+    }
+
+    @Benchmark
+    public String text() {
+        return ColorText.text("INFO", Color.BLUE);
+    }
+
+    @Benchmark
+    public StringBuilder appendToBuilder() {
+        this.builder.setLength(0);
+        return ColorText.append(this.builder, "INFO", Color.BLUE);
+    }
+
+    @Benchmark
+    public ByteBuffer putToBuffer() {
+        this.buffer.clear();
+        return ColorText.put(this.buffer, this.label, Color.BLUE, TextMode.NORMAL, false);
+    }
+
+    @Benchmark
+    public Object printVocab() {
+        return this.appIO.withOutput(Writer.nullWriter(), () -> {
+            this.vocab.print();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Wordnik responses in src/test/resources/wordnik, shared by the benchmarks.
+ */
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * The body of a response
+     *
+     * @param word     the word, a folder of src/test/resources/wordnik
+     * @param endpoint "definitions" or "relatedWords"
+     * @return the body
+     */
+    static String response(String word, String endpoint) {
+        String path = "wordnik/" + word + "/" + endpoint + ".json";
+
+        try (InputStream in = Fixtures.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No fixture " + path);
+            }
+
+            return new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
+        }
+
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The vocab Wordnik would give for a word
+     *
+     * @param word the word, a folder of src/test/resources/wordnik
+     * @return the vocab
+     */
+    static Vocab vocab(String word) {
+        return new Vocab(word, Wordnik.parseDefinitions(response(word, "definitions")),
+                Wordnik.parseSynonyms(response(word, "relatedWords")));
+    }
+}
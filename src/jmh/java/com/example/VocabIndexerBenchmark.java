@@ -0,0 +1,110 @@
+package com.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading, searching and adding to history of several sizes. Each size runs in
+ * its own JVM, on a history built from scratch in the working directory, with
+ * the offline dictionary as the only provider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Dpowerdict.headless=true", "-Dpowerdict.fsync=false",
+        "-Dpowerdict.providers=local", "-Dpowerdict.compactor.interval=0" })
+public class VocabIndexerBenchmark {
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private VocabIndexer indexer;
+    private AppIO appIO;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        for (String name : new String[] { "index", "index.journal", "posindex", "strings" }) {
+            new File(name).delete();
+        }
+
+        File[] cached = new File("history").listFiles();
+
+        for (int i = 0; cached != null && i < cached.length; i++) {
+            cached[i].delete();
+        }
+
+        // words in history, and words only the offline dictionary knows
+        writeWords(new File("bench-history.ndjson"), "word", this.size);
+        writeWords(new File(AppConfig.get("powerdict.local.file", "dictionary.ndjson")), "fresh", 1000);
+
+        this.appIO = AppIO.getInstance();
+        this.indexer = this.appIO.withOutput(Writer.nullWriter(), () -> {
+            VocabIndexer vi = VocabIndexer.getInstance();
+            new HistoryTransfer(vi).importFrom(new File("bench-history.ndjson"));
+            return vi;
+        });
+    }
+
+    private static void writeWords(File file, String prefix, int count) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            for (int i = 0; i < count; i++) {
+                out.printf("{\"word\":\"%s%d\",\"definition\":[\"the %d-th %s\",\"a second meaning\"],"
+                        + "\"partOfSpeech\":[\"noun\",\"verb\"],\"synonyms\":\"one, two, three\"}%n", prefix, i, i,
+                        prefix);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object loadIndex() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new ByteArrayInputStream(RecordFile.read(new File("index"))))) {
+            return ois.readObject();
+        }
+    }
+
+    @Benchmark
+    public boolean loadPosIndex() {
+        return new PosIndex(new File("posindex")).read();
+    }
+
+    @Benchmark
+    public Object searchCached() {
+        String word = "word" + (this.next++ % this.size);
+
+        return this.appIO.withOutput(Writer.nullWriter(), () -> {
+            this.indexer.search(word);
+            return null;
+        });
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        String word = "fresh" + (this.next++ % 1000);
+
+        // the search adds the word found in the offline dictionary
+        return this.appIO.withOutput(Writer.nullWriter(), () -> {
+            this.indexer.search(word);
+            return this.indexer.remove(word);
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.example;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Caching the results of a word to history and reading them back. Writes are
+ * not forced to the disk, which would measure the disk rather than the code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Dpowerdict.headless=true", "-Dpowerdict.fsync=false" })
+public class VocabStorageBenchmark {
+    @Param({ "serendipity", "run" })
+    public String word;
+
+    private Vocab vocab;
+
+    @Setup
+    public void setUp() {
+        new File("history").mkdirs();
+
+        this.vocab = Fixtures.vocab(this.word);
+        Vocab.write(this.vocab, "bench-read-" + this.word);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Vocab.remove("bench-read-" + this.word);
+        Vocab.remove("bench-write-" + this.word);
+    }
+
+    @Benchmark
+    public boolean write() {
+        return Vocab.write(this.vocab, "bench-write-" + this.word);
+    }
+
+    @Benchmark
+    public Vocab read() {
+        return Vocab.read("bench-read-" + this.word);
+    }
+
+    @Benchmark
+    public String[] readAndDecodeDefinitions() {
+        return Vocab.read("bench-read-" + this.word).getDefinitions();
+    }
+}
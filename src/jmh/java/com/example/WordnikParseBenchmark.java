@@ -0,0 +1,49 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing Wordnik responses with Gson, for a word with one definition and a
+ * word with a hundred.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Dpowerdict.headless=true" })
+public class WordnikParseBenchmark {
+    @Param({ "serendipity", "run" })
+    public String word;
+
+    private String definitions;
+    private String relatedWords;
+
+    @Setup
+    public void setUp() {
+        this.definitions = Fixtures.response(this.word, "definitions");
+        this.relatedWords = Fixtures.response(this.word, "relatedWords");
+    }
+
+    @Benchmark
+    public WordnikDef[] parseDefinitions() {
+        return Wordnik.parseDefinitions(this.definitions);
+    }
+
+    @Benchmark
+    public String parseSynonyms() {
+        return Wordnik.parseSynonyms(this.relatedWords);
+    }
+}
@@ -0,0 +1,482 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compact binary log of the searches, recording when each word was asked for,
+ * whether it was cached and how long the search took, so that real traffic can
+ * be studied and replayed by {@link AccessLogReplay}.
+ *
+ * Searches only append a few bytes to a block in memory. Full blocks, and the
+ * block in progress every "powerdict.accesslog.flush" milliseconds, are written
+ * by a background thread, which also rotates the log once it grows beyond
+ * "powerdict.accesslog.maxBytes", keeping "powerdict.accesslog.keep" older logs
+ * as log.1, log.2 and so on. A search never waits for the disk.
+ *
+ * The log is a sequence of blocks, so that a block torn by a crash is cut off
+ * when the log is read:
+ *
+ * <pre>
+ * int      MAGIC
+ * int      length of the records
+ * long     time of the first record, in milliseconds since the epoch
+ * records  one after the other:
+ *   varint   milliseconds since the previous record, zigzag encoded
+ *   varint   latency in microseconds
+ *   byte     outcome, see {@link Outcome}
+ *   varint   length of the word
+ *   bytes    word, trimmed and in lower case, in UTF-8
+ * </pre>
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class AccessLog {
+    /**
+     * How a search was answered
+     */
+    public enum Outcome {
+        MISS, HISTORY, BUNDLE;
+
+        public boolean isHit() {
+            return this != MISS;
+        }
+    }
+
+    /**
+     * A search recorded in the log
+     */
+    public static class Entry {
+        private long timeMillis;
+        private String word;
+        private Outcome outcome;
+        private long latencyMicros;
+
+        Entry(long timeMillis, String word, Outcome outcome, long latencyMicros) {
+            this.timeMillis = timeMillis;
+            this.word = word;
+            this.outcome = outcome;
+            this.latencyMicros = latencyMicros;
+        }
+
+        public long getTimeMillis() {
+            return this.timeMillis;
+        }
+
+        public String getWord() {
+            return this.word;
+        }
+
+        public Outcome getOutcome() {
+            return this.outcome;
+        }
+
+        public long getLatencyMicros() {
+            return this.latencyMicros;
+        }
+    }
+
+    /**
+     * "PDAL" in ASCII
+     */
+    static final int MAGIC = 0x5044414C;
+    static final int BLOCK_HEADER_LENGTH = 16;
+
+    /**
+     * bytes of a block, records included
+     */
+    private static final int BLOCK_LENGTH = 64 * 1024;
+
+    /**
+     * the most bytes a record takes besides its word, three varints of at most 10
+     * bytes and the outcome
+     */
+    private static final int RECORD_OVERHEAD = 31;
+
+    private static Charset charset = java.nio.charset.StandardCharsets.UTF_8;
+
+    private AppIO appIO;
+    private File logFile;
+    private long maxBytes;
+    private int keep;
+
+    /**
+     * the block being filled by the searches, guarded by this
+     */
+    private ByteBuffer block;
+    private long blockStart;
+    private long previous;
+    private volatile boolean closed;
+
+    /**
+     * writes and rotates the log, the only thread touching the channel
+     */
+    private ScheduledExecutorService writer;
+    private FileChannel channel;
+    private long written;
+
+    /**
+     * Start logging the searches to a file
+     *
+     * @param logFile the file
+     */
+    public AccessLog(File logFile) {
+        this.appIO = AppIO.getInstance();
+        this.logFile = logFile;
+        this.maxBytes = Math.max(BLOCK_LENGTH, AppConfig.getLong("powerdict.accesslog.maxBytes", 64L << 20));
+        this.keep = Math.max(0, AppConfig.getInt("powerdict.accesslog.keep", 4));
+        this.block = ByteBuffer.allocate(BLOCK_LENGTH);
+        this.block.position(BLOCK_HEADER_LENGTH);
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "access-log");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long flushMillis = AppConfig.getLong("powerdict.accesslog.flush", 1000);
+
+        if (flushMillis > 0) {
+            this.writer.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Record a search
+     *
+     * @param word    the word searched
+     * @param outcome how the search was answered
+     * @param nanos   how long the search took, in nanoseconds
+     */
+    public void record(String word, Outcome outcome, long nanos) {
+        byte[] utf8 = normalize(word).getBytes(charset);
+
+        // the search is logged when it was asked for, not when it completed
+        long time = System.currentTimeMillis() - nanos / 1000000;
+
+        if (utf8.length + RECORD_OVERHEAD > BLOCK_LENGTH - BLOCK_HEADER_LENGTH) {
+            return;
+        }
+
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            if (this.block.remaining() < utf8.length + RECORD_OVERHEAD) {
+                this.handOff();
+            }
+
+            if (this.block.position() == BLOCK_HEADER_LENGTH) {
+                this.blockStart = time;
+                this.previous = time;
+            }
+
+            long delta = time - this.previous;
+            this.previous = time;
+
+            putVarint(this.block, (delta << 1) ^ (delta >> 63));
+            putVarint(this.block, Math.max(0, nanos / 1000));
+            this.block.put((byte) outcome.ordinal());
+            putVarint(this.block, utf8.length);
+            this.block.put(utf8);
+        }
+    }
+
+    /**
+     * Hand the block in progress to the writer, unless it is empty
+     */
+    public synchronized void flush() {
+        if (this.block.position() > BLOCK_HEADER_LENGTH) {
+            this.handOff();
+        }
+    }
+
+    /**
+     * Write what is left of the log and stop, waiting a few seconds at most
+     */
+    public void close() {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            this.flush();
+        }
+
+        // the writer closes the log after the last block
+        try {
+            this.writer.execute(this::closeChannel);
+        }
+
+        catch (RejectedExecutionException e) {
+            // the writer already stopped
+        }
+
+        this.writer.shutdown();
+
+        try {
+            this.writer.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Seal the block in progress, queue it for the writer and start a new one.
+     * Called holding the lock.
+     */
+    private void handOff() {
+        int length = this.block.position() - BLOCK_HEADER_LENGTH;
+
+        this.block.putInt(0, MAGIC);
+        this.block.putInt(4, length);
+        this.block.putLong(8, this.blockStart);
+
+        byte[] sealed = Arrays.copyOf(this.block.array(), this.block.position());
+
+        this.block.clear();
+        this.block.position(BLOCK_HEADER_LENGTH);
+
+        try {
+            this.writer.execute(() -> this.write(sealed));
+        }
+
+        catch (RejectedExecutionException e) {
+            // closed, the last block was already handed off
+        }
+    }
+
+    /**
+     * Append a sealed block to the log, rotating it first if it would grow
+     * too big. Runs on the writer.
+     *
+     * @param sealed the block
+     */
+    private void write(byte[] sealed) {
+        try {
+            if (this.channel != null && this.written + sealed.length > this.maxBytes) {
+                this.rotate();
+            }
+
+            if (this.channel == null) {
+                this.channel = FileChannel.open(this.logFile.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                this.written = this.channel.size();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(sealed);
+
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+
+            this.written = this.written + sealed.length;
+        }
+
+        catch (IOException e) {
+            this.appIO.printf("%n%n[%s] Unable to write the access log to \"%s\": %s",
+                    ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(this.logFile), e.getMessage());
+            this.closeChannel();
+        }
+    }
+
+    /**
+     * Move the log to log.1, log.1 to log.2 and so on, dropping the oldest.
+     * Runs on the writer.
+     *
+     * @throws IOException if a log cannot be moved
+     */
+    private void rotate() throws IOException {
+        this.closeChannel();
+
+        if (this.keep == 0) {
+            Files.deleteIfExists(this.logFile.toPath());
+            return;
+        }
+
+        Files.deleteIfExists(rotated(this.logFile, this.keep).toPath());
+
+        for (int i = this.keep - 1; i >= 1; i--) {
+            File older = rotated(this.logFile, i);
+
+            if (older.isFile()) {
+                Files.move(older.toPath(), rotated(this.logFile, i + 1).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        Files.move(this.logFile.toPath(), rotated(this.logFile, 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void closeChannel() {
+        try {
+            if (this.channel != null) {
+                this.channel.close();
+            }
+        }
+
+        catch (IOException e) {
+            // nothing left to write to it
+        }
+
+        this.channel = null;
+    }
+
+    /**
+     * The file a log is moved to by its n-th rotation
+     *
+     * @param logFile the log
+     * @param n       the rotation, 1 for the latest
+     * @return the file
+     */
+    static File rotated(File logFile, int n) {
+        return new File(logFile.getPath() + "." + n);
+    }
+
+    /**
+     * The form a word is logged in, trimmed and in lower case
+     *
+     * @param word the word
+     * @return the normalized word
+     */
+    static String normalize(String word) {
+        return word.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value = value >>> 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift = shift + 7) {
+            byte b = buffer.get();
+            value = value | ((long) (b & 0x7F) << shift);
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Reads the entries of a log one at a time, up to the size the log had when
+     * it was opened, so that a log still being written can be read too. A torn or
+     * corrupted block ends the log.
+     */
+    public static class Reader implements AutoCloseable {
+        private DataInputStream in;
+        private long remaining;
+        private ByteBuffer records = ByteBuffer.allocate(0);
+        private long time;
+
+        /**
+         * Open a log
+         *
+         * @param logFile the log
+         * @throws IOException if the log cannot be opened
+         */
+        public Reader(File logFile) throws IOException {
+            this.remaining = logFile.length();
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile), BLOCK_LENGTH));
+        }
+
+        /**
+         * The next entry of the log
+         *
+         * @return the entry, or <code>null</code> at the end of the log
+         * @throws IOException if the log cannot be read
+         */
+        public Entry next() throws IOException {
+            while (!this.records.hasRemaining()) {
+                if (!this.nextBlock()) {
+                    return null;
+                }
+            }
+
+            try {
+                long zigzag = getVarint(this.records);
+                this.time = this.time + ((zigzag >>> 1) ^ -(zigzag & 1));
+
+                long latency = getVarint(this.records);
+                Outcome outcome = Outcome.values()[this.records.get()];
+                byte[] word = new byte[(int) getVarint(this.records)];
+                this.records.get(word);
+
+                return new Entry(this.time, new String(word, charset), outcome, latency);
+            }
+
+            catch (RuntimeException e) {
+                // records of a block are never torn, unless it's corrupted
+                this.remaining = 0;
+                this.records = ByteBuffer.allocate(0);
+                return null;
+            }
+        }
+
+        private boolean nextBlock() throws IOException {
+            if (this.remaining < BLOCK_HEADER_LENGTH) {
+                return false;
+            }
+
+            try {
+                int magic = this.in.readInt();
+                int length = this.in.readInt();
+                long start = this.in.readLong();
+
+                if (magic != MAGIC || length < 0 || length > this.remaining - BLOCK_HEADER_LENGTH) {
+                    this.remaining = 0;
+                    return false;
+                }
+
+                byte[] bytes = new byte[length];
+                this.in.readFully(bytes);
+
+                this.remaining = this.remaining - BLOCK_HEADER_LENGTH - length;
+                this.records = ByteBuffer.wrap(bytes);
+                this.time = start;
+                return true;
+            }
+
+            catch (EOFException e) {
+                this.remaining = 0;
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+}
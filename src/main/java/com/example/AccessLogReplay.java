@@ -0,0 +1,244 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator replaying the searches of an {@link AccessLog} against a
+ * running {@link PowerDictDaemon}, at the pace they were recorded, a multiple
+ * of it, or as fast as the daemon answers.
+ *
+ * At most "powerdict.replay.threads" searches are in flight at a time. When the
+ * daemon cannot keep up, the replay falls behind the recorded pace instead of
+ * queueing searches, and reports by how much. At the end, the throughput, the
+ * latency percentiles and the hit ratio of the replay are printed next to those
+ * of the recorded traffic.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class AccessLogReplay {
+    private AppIO appIO;
+    private File logFile;
+    private Path socketPath;
+
+    /**
+     * multiple of the recorded pace, 0 for as fast as possible
+     */
+    private double speed;
+    private int threads;
+
+    private LatencyHistogram replayed = new LatencyHistogram();
+    private LatencyHistogram recorded = new LatencyHistogram();
+    private LongAdder hits = new LongAdder();
+    private LongAdder errors = new LongAdder();
+
+    /**
+     * Prepare a replay
+     *
+     * @param logFile    the access log
+     * @param speed      multiple of the recorded pace, 0 for as fast as possible
+     * @param socketPath the socket of the daemon
+     */
+    public AccessLogReplay(File logFile, double speed, Path socketPath) {
+        this.appIO = AppIO.getInstance();
+        this.logFile = logFile;
+        this.speed = speed;
+        this.socketPath = socketPath;
+        this.threads = Math.max(1, AppConfig.getInt("powerdict.replay.threads", 16));
+    }
+
+    /**
+     * The speed asked for on the command line, "1x", "10x", "0.5x" or "max"
+     *
+     * @param text the speed
+     * @return the multiple of the recorded pace, 0 for "max", or -1 if the speed
+     *         is not understood
+     */
+    public static double parseSpeed(String text) {
+        if (text.equalsIgnoreCase("max")) {
+            return 0;
+        }
+
+        try {
+            double speed = Double.parseDouble(text.endsWith("x") ? text.substring(0, text.length() - 1) : text);
+            return (speed > 0) ? speed : -1;
+        }
+
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Replay the log and print the report
+     *
+     * @return <code>true</code> if the log was replayed, <code>false</code>
+     *         otherwise
+     */
+    public boolean run() {
+        if (!this.logFile.isFile()) {
+            this.appIO.printf("%n%n[%s] \"%s\" is not an access log", ColorText.text("FAIL", Color.RED),
+                    this.appIO.fetchCanonical(this.logFile));
+            return false;
+        }
+
+        if (!PowerDictClient.isAlive(this.socketPath)) {
+            this.appIO.printf("%n%n[%s] The daemon is not running. Please start it with --daemon first",
+                    ColorText.text("FAIL", Color.RED));
+            return false;
+        }
+
+        this.appIO.printf("%n[%s] Replaying \"%s\" at %s with %d threads", ColorText.text("INFO", Color.BLUE),
+                this.appIO.fetchCanonical(this.logFile), (this.speed == 0) ? "full speed"
+                        : java.math.BigDecimal.valueOf(this.speed).stripTrailingZeros().toPlainString() + "x",
+                this.threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "replay");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Semaphore inFlight = new Semaphore(this.threads);
+
+        long searches = 0;
+        long recordedHits = 0;
+        long firstMillis = 0;
+        long lastMillis = 0;
+        long maxLagNanos = 0;
+        long start = System.nanoTime();
+
+        try (AccessLog.Reader reader = new AccessLog.Reader(this.logFile)) {
+            AccessLog.Entry entry;
+
+            while ((entry = reader.next()) != null) {
+                if (searches == 0) {
+                    firstMillis = entry.getTimeMillis();
+                }
+
+                lastMillis = Math.max(lastMillis, entry.getTimeMillis());
+
+                if (this.speed > 0) {
+                    long due = start + (long) ((entry.getTimeMillis() - firstMillis) * 1000000 / this.speed);
+
+                    for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+
+                    inFlight.acquire();
+                    maxLagNanos = Math.max(maxLagNanos, System.nanoTime() - due);
+                }
+
+                else {
+                    inFlight.acquire();
+                }
+
+                searches++;
+                recordedHits = recordedHits + (entry.getOutcome().isHit() ? 1 : 0);
+                this.recorded.record(entry.getLatencyMicros() * 1000);
+
+                String word = entry.getWord();
+
+                pool.execute(() -> {
+                    try {
+                        this.search(word);
+                    }
+
+                    finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        catch (IOException e) {
+            this.appIO.printf("%n%n[%s] Unable to read \"%s\": %s", ColorText.text("FAIL", Color.RED),
+                    this.appIO.fetchCanonical(this.logFile), e.getMessage());
+            pool.shutdownNow();
+            return false;
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            return false;
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1000000);
+        long recordedMillis = Math.max(1, lastMillis - firstMillis);
+
+        this.report(searches, recordedHits, elapsedMillis, recordedMillis, maxLagNanos / 1000000);
+        return true;
+    }
+
+    /**
+     * Send one search to the daemon and measure it
+     *
+     * @param word the word
+     */
+    private void search(String word) {
+        long start = System.nanoTime();
+
+        try {
+            String response = PowerDictClient.send(this.socketPath, "LOOKUP " + word);
+            this.replayed.record(System.nanoTime() - start);
+
+            if (response.contains(VocabIndexer.CACHED_RESULTS)) {
+                this.hits.increment();
+            }
+        }
+
+        catch (IOException e) {
+            this.errors.increment();
+        }
+    }
+
+    private void report(long searches, long recordedHits, long elapsedMillis, long recordedMillis, long lagMillis) {
+        LatencyHistogram.Snapshot now = this.replayed.snapshot();
+        LatencyHistogram.Snapshot then = this.recorded.snapshot();
+        long answered = now.getCount();
+
+        try (AppIO.Block out = this.appIO.block()) {
+            out.printf("%n%n[%s] Replayed %d searches in %d ms, %.1f searches/s (recorded at %.1f searches/s)",
+                    ColorText.text("DONE", Color.GREEN), searches, elapsedMillis, 1000.0 * searches / elapsedMillis,
+                    1000.0 * searches / recordedMillis);
+
+            out.printf("%n%n%s%n", ColorText.text("Latencies (microseconds) -", Color.MAGENTA));
+            out.printf("%n  %-16s %8s %8s %8s %8s %8s %8s %9s", "", "count", "mean", "p50", "p90", "p99", "p99.9",
+                    "max");
+
+            for (Object[] row : new Object[][] { { "replayed", now }, { "recorded", then } }) {
+                LatencyHistogram.Snapshot s = (LatencyHistogram.Snapshot) row[1];
+
+                out.printf("%n- %-16s %8d %8d %8d %8d %8d %8d %9d", row[0], s.getCount(), s.getMeanMicros(),
+                        s.getP50Micros(), s.getP90Micros(), s.getP99Micros(), s.getP999Micros(), s.getMaxMicros());
+            }
+
+            out.printf("%n%n%s%n", ColorText.text("Counters -", Color.MAGENTA));
+            out.printf("%n- Hit ratio        : %.1f%% replayed, %.1f%% recorded",
+                    (answered == 0) ? 0.0 : 100.0 * this.hits.sum() / answered,
+                    (searches == 0) ? 0.0 : 100.0 * recordedHits / searches);
+
+            if (this.speed > 0) {
+                out.printf("%n- Behind the pace  : %d ms at most", lagMillis);
+            }
+
+            if (this.errors.sum() > 0) {
+                out.printf("%n%n[%s] %d searches could not reach the daemon", ColorText.text("FAIL", Color.RED),
+                        this.errors.sum());
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example;
+
+import java.io.Serializable;
+
+/**
+ * An API key along with its daily quota and usage, as stored by
+ * {@link ManageKey}
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class ApiKey implements Serializable {
+    private static final long serialVersionUID = 6427093985312281554L;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * the key sent to the API
+     */
+    private String key;
+
+    /**
+     * number of requests allowed per day (UTC), 0 for no limit
+     */
+    private int dailyQuota;
+
+    /**
+     * number of requests sent on usageDay
+     */
+    private int usedToday;
+
+    /**
+     * the day (days since epoch, UTC) usedToday belongs to
+     */
+    private long usageDay;
+
+    /**
+     * number of requests sent since the key was added
+     */
+    private long usedTotal;
+
+    /**
+     * time (millis since epoch) until which the key must not be used
+     */
+    private long benchedUntil;
+
+    /**
+     * Construct a key that has not been used yet
+     *
+     * @param key        the key sent to the API
+     * @param dailyQuota number of requests allowed per day, 0 for no limit
+     */
+    public ApiKey(String key, int dailyQuota) {
+        this.key = key;
+        this.dailyQuota = dailyQuota;
+    }
+
+    /**
+     * Start counting afresh if the day has changed since the last use
+     *
+     * @param now current time in millis since epoch
+     */
+    private void rollOver(long now) {
+        long today = now / MILLIS_PER_DAY;
+
+        if (today != this.usageDay) {
+            this.usageDay = today;
+            this.usedToday = 0;
+        }
+    }
+
+    /**
+     * Check if the key may be used now
+     *
+     * @param now current time in millis since epoch
+     * @return <code>true</code> if the key is neither benched nor out of quota,
+     *         <code>false</code> otherwise
+     */
+    public boolean isAvailable(long now) {
+        this.rollOver(now);
+
+        return now >= this.benchedUntil && (this.dailyQuota <= 0 || this.usedToday < this.dailyQuota);
+    }
+
+    /**
+     * Count one request sent with this key
+     *
+     * @param now current time in millis since epoch
+     */
+    public void use(long now) {
+        this.rollOver(now);
+
+        this.usedToday++;
+        this.usedTotal++;
+    }
+
+    /**
+     * Keep the key out of use for some time
+     *
+     * @param until time in millis since epoch until which the key must not be used
+     */
+    public void bench(long until) {
+        this.benchedUntil = Math.max(this.benchedUntil, until);
+    }
+
+    public String getKey() {
+        return this.key;
+    }
+
+    public int getDailyQuota() {
+        return this.dailyQuota;
+    }
+
+    public void setDailyQuota(int dailyQuota) {
+        this.dailyQuota = dailyQuota;
+    }
+
+    /**
+     * Number of requests sent with this key today
+     *
+     * @param now current time in millis since epoch
+     * @return the usage of the day
+     */
+    public int getUsedToday(long now) {
+        this.rollOver(now);
+
+        return this.usedToday;
+    }
+
+    public long getUsedTotal() {
+        return this.usedTotal;
+    }
+
+    public long getBenchedUntil() {
+        return this.benchedUntil;
+    }
+}
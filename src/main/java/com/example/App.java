@@ -18,10 +18,26 @@ public class App {
      */
     public App() {
         this.appIO = AppIO.getInstance();
-        this.vi = VocabIndexer.getInstance();
+        this.vi = openHistory();
         AnsiConsole.systemInstall();
     }
 
+    /**
+     * Take history for this process. A daemon started by a lookup is asked to
+     * hand it over first, rather than locking the user out.
+     *
+     * @return the VocabIndexer, or <code>null</code> if history is in use by
+     *         another process
+     */
+    private static VocabIndexer openHistory() {
+        if (PowerDictClient.handOver()) {
+            AppIO.getInstance().printf("%n[%s] Stopped the daemon started by --lookup, to use history here",
+                    ColorText.text("INFO", Color.BLUE));
+        }
+
+        return VocabIndexer.getInstance();
+    }
+
     /**
      * Power-Dict menu
      */
@@ -39,6 +55,10 @@ public class App {
             this.appIO.printf("%n%n[3] Remove a word from history");
             this.appIO.printf("%n%n[4] Clear all history");
             this.appIO.printf("%n%n[5] Configure API key");
+            this.appIO.printf("%n%n[6] Show cache statistics");
+            this.appIO.printf("%n%n[7] Filter by part of speech");
+            this.appIO.printf("%n%n[8] Export history");
+            this.appIO.printf("%n%n[9] Import history");
             this.appIO.printf("%n%n[0] Exit");
 
             try {
@@ -169,6 +189,80 @@ public class App {
                     }
                         break;
 
+                    // show statistics
+                    case 6: {
+                        this.appIO.clearConsole();
+
+                        this.vi.printStats();
+
+                        this.appIO.readLine("%n%n%nPress enter to return to the menu ");
+                    }
+                        break;
+
+                    // words or senses of one part of speech
+                    case 7: {
+                        this.appIO.clearConsole();
+
+                        String name = this.appIO.readLine(
+                                "%n%n[%s] Enter the part of speech (noun, verb, adjective, ...): ",
+                                ColorText.text("QUES", Color.YELLOW));
+                        PartOfSpeech pos = (name == null) ? null : PartOfSpeech.parse(name);
+
+                        if (pos == null) {
+                            this.appIO.printf("%n%n[%s] Unknown part of speech. Please try again later.",
+                                    ColorText.text("FAIL", Color.RED));
+                        }
+
+                        else {
+                            String word = this.appIO.readLine(
+                                    "%n%n[%s] Enter a word to show only its %s senses, or nothing to list the words having them: ",
+                                    ColorText.text("QUES", Color.YELLOW), pos);
+                            word = (word == null) ? "" : word.trim();
+
+                            this.appIO.clearConsole();
+
+                            if (word.equals("")) {
+                                this.vi.printWordsWith(pos);
+                            }
+
+                            else if (!this.vi.printSenses(word, pos)) {
+                                this.appIO.printf("%n%n[%s] \'%s\' is not in history. Please search it first",
+                                        ColorText.text("FAIL", Color.RED), word);
+                            }
+                        }
+
+                        this.appIO.readLine("%n%n%nPress enter to return to the menu ");
+                    }
+                        break;
+
+                    // export or import the history as one JSON object per line
+                    case 8:
+                    case 9: {
+                        this.appIO.clearConsole();
+
+                        String path = this.appIO.readLine("%n%n[%s] Enter the file to %s: ",
+                                ColorText.text("QUES", Color.YELLOW), (choice == 8) ? "export to" : "import from");
+
+                        // trim to remove spaces
+                        path = path.trim();
+
+                        if (path.equals("")) {
+                            this.appIO.printf("%n%n[%s] No file given. Please try again later.",
+                                    ColorText.text("FAIL", Color.RED));
+                        }
+
+                        else if (choice == 8) {
+                            new HistoryTransfer(this.vi).exportTo(new java.io.File(path));
+                        }
+
+                        else {
+                            new HistoryTransfer(this.vi).importFrom(new java.io.File(path));
+                        }
+
+                        this.appIO.readLine("%n%n%nPress enter to return to the menu ");
+                    }
+                        break;
+
                     // exit by changing choice
                     case 0: {
                         choice = 0;
@@ -193,8 +287,131 @@ public class App {
         }
     }
 
+    /**
+     * Run Power-Dict without the menu, as asked by the command line arguments
+     *
+     * @param args the command line arguments
+     * @return the exit status
+     */
+    private static int runCommand(String[] args) {
+        switch (args[0]) {
+            case "--daemon": {
+                // --auto is given by a client starting the daemon for a lookup
+                boolean auto = args.length == 2 && args[1].equals("--auto");
+
+                if (args.length > 2 || (args.length == 2 && !auto)) {
+                    break;
+                }
+
+                // a daemon started in the background has no console
+                System.setProperty("powerdict.headless", "true");
+                AnsiConsole.systemInstall();
+
+                return new PowerDictDaemon(PowerDictDaemon.getSocketPath(), auto).run() ? 0 : 1;
+            }
+
+            case "-l":
+            case "--lookup": {
+                if (args.length < 2) {
+                    break;
+                }
+
+                AnsiConsole.systemInstall();
+
+                String word = String.join(" ", java.util.Arrays.copyOfRange(args, 1, args.length)).trim();
+
+                return PowerDictClient.lookup(word) ? 0 : 1;
+            }
+
+            case "--stop-daemon": {
+                return PowerDictClient.stop() ? 0 : 1;
+            }
+
+            case "--metrics": {
+                AnsiConsole.systemInstall();
+
+                return PowerDictClient.metrics() ? 0 : 1;
+            }
+
+            case "--replay": {
+                double speed = (args.length == 3) ? AccessLogReplay.parseSpeed(args[2]) : 1;
+
+                if (args.length < 2 || args.length > 3 || speed < 0) {
+                    break;
+                }
+
+                AnsiConsole.systemInstall();
+
+                boolean replayed = new AccessLogReplay(new java.io.File(args[1]), speed,
+                        PowerDictDaemon.getSocketPath()).run();
+
+                AppIO.getInstance().printf("%n");
+                return replayed ? 0 : 1;
+            }
+
+            case "--build-bundle": {
+                if (args.length != 2) {
+                    break;
+                }
+
+                AnsiConsole.systemInstall();
+
+                VocabIndexer vi = openHistory();
+
+                if (vi == null) {
+                    return 1;
+                }
+
+                boolean built = vi.buildBundle(new java.io.File(args[1]));
+
+                AppIO.getInstance().printf("%n");
+                return built ? 0 : 1;
+            }
+
+            case "--export":
+            case "--import": {
+                if (args.length != 2) {
+                    break;
+                }
+
+                AnsiConsole.systemInstall();
+
+                VocabIndexer vi = openHistory();
+
+                if (vi == null) {
+                    return 1;
+                }
+
+                HistoryTransfer transfer = new HistoryTransfer(vi);
+                boolean done = args[0].equals("--export") ? transfer.exportTo(new java.io.File(args[1]))
+                        : transfer.importFrom(new java.io.File(args[1]));
+
+                AppIO.getInstance().printf("%n");
+                return done ? 0 : 1;
+            }
+
+            default:
+                break;
+        }
+
+        System.err.printf(
+                "Usage: App [--daemon | --lookup <word> | --stop-daemon | --metrics | --export <file>"
+                        + " | --import <file> | --build-bundle <file> | --replay <file> [1x | <n>x | max]]%n");
+        return 2;
+    }
+
     public static void main(String[] args) {
+        if (args.length > 0) {
+            Runtime.getRuntime().exit(runCommand(args));
+        }
+
         App main = new App();
+
+        // history is in use by another process
+        if (main.vi == null) {
+            Runtime.getRuntime().exit(1);
+        }
+
         main.appMenu();
     }
 }
@@ -0,0 +1,125 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Holds the tunable settings of Power-Dict.
+ *
+ * A setting is looked up in the JVM system properties first (for example
+ * <code>-Dpowerdict.arena.capacity=1048576</code>), then in the optional
+ * "powerdict.properties" file in the working directory, and finally falls back
+ * to the default supplied by the caller.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class AppConfig {
+    /**
+     * settings read from the properties file, if it exists
+     */
+    private static Properties fileProperties = load(new File("powerdict.properties"));
+
+    /**
+     * Don't let anyone instantiate this class
+     */
+    private AppConfig() {
+    }
+
+    /**
+     * Read the properties file. A missing or unreadable file simply means there
+     * are no file settings.
+     *
+     * @param f the properties file
+     * @return the properties read from the file
+     */
+    private static Properties load(File f) {
+        Properties p = new Properties();
+
+        if (f.isFile() && f.canRead()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(f))) {
+                p.load(in);
+            }
+
+            catch (IOException e) {
+                System.err.printf("%n%n[%s] Unable to read \"%s\", using default settings",
+                        ColorText.text("FAIL", Color.RED), f.getAbsolutePath());
+            }
+        }
+
+        return p;
+    }
+
+    /**
+     * Retrieve a setting as string
+     *
+     * @param key          the name of the setting
+     * @param defaultValue the value to return if the setting is not configured
+     * @return the configured value, or <code>defaultValue</code>
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+
+        if (value == null) {
+            value = fileProperties.getProperty(key);
+        }
+
+        if (value == null || value.trim().equals("")) {
+            return defaultValue;
+        }
+
+        return value.trim();
+    }
+
+    /**
+     * Retrieve a setting as int
+     *
+     * @param key          the name of the setting
+     * @param defaultValue the value to return if the setting is not configured or
+     *                     is not a number
+     * @return the configured value, or <code>defaultValue</code>
+     */
+    public static int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+        }
+
+        catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Retrieve a setting as long
+     *
+     * @param key          the name of the setting
+     * @param defaultValue the value to return if the setting is not configured or
+     *                     is not a number
+     * @return the configured value, or <code>defaultValue</code>
+     */
+    public static long getLong(String key, long defaultValue) {
+        try {
+            return Long.parseLong(get(key, String.valueOf(defaultValue)));
+        }
+
+        catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Retrieve a setting as boolean
+     *
+     * @param key          the name of the setting
+     * @param defaultValue the value to return if the setting is not configured
+     * @return the configured value, or <code>defaultValue</code>
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, String.valueOf(defaultValue)));
+    }
+}
@@ -1,10 +1,18 @@
 package com.example;
 
+import java.io.BufferedReader;
 import java.io.Console;
+import java.io.IOError;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.io.File;
+import java.util.Formatter;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Class to retrieve reader and writer objects for Power Dict.
@@ -13,7 +21,7 @@ import java.io.File;
  * easy.
  *
  * @author Bhavyai Gupta
- * @version 1.5.0
+ * @version 1.6.0
  * @since May 29, 2021
  */
 public class AppIO {
@@ -22,6 +30,19 @@ public class AppIO {
      */
     private Console console;
 
+    /**
+     * Writer and reader used for all IO when there is no console, that is when
+     * Power-Dict runs headless as a daemon
+     */
+    private PrintWriter writer;
+    private BufferedReader reader;
+
+    /**
+     * Output of the current thread, when it is being captured instead of written
+     * to the console
+     */
+    private ThreadLocal<PrintWriter> captured = new ThreadLocal<>();
+
     /**
      * The instance variable containing the one and only object of AppIO
      */
@@ -32,7 +53,7 @@ public class AppIO {
      *
      * @return The AppIO object
      */
-    public static AppIO getInstance() {
+    public static synchronized AppIO getInstance() {
         if (instanceVar == null)
             instanceVar = new AppIO();
 
@@ -41,14 +62,21 @@ public class AppIO {
 
     /**
      * Constructs a console object. Exits the program if the Power-Dict is not
-     * started in the console mode
+     * started in the console mode, unless it is asked to run headless with the
+     * setting "powerdict.headless", in which case the standard streams are used
      */
     private AppIO() {
         try {
             this.console = System.console();
 
             if (this.console == null) {
-                throw new IOException("Application not started in console mode!");
+                if (AppConfig.getBoolean("powerdict.headless", false) == false) {
+                    throw new IOException("Application not started in console mode!");
+                }
+
+                this.writer = new PrintWriter(
+                        new OutputStreamWriter(System.out, java.nio.charset.StandardCharsets.UTF_8));
+                this.reader = new BufferedReader(new InputStreamReader(System.in));
             }
         }
 
@@ -65,10 +93,260 @@ public class AppIO {
      * @param fmt  A format string as described in Format string syntax.
      * @param args Arguments referenced by the format specifiers in the format
      *             string.
-     * @return This console
+     * @return This AppIO
+     */
+    public AppIO printf(String fmt, Object... args) {
+        PrintWriter out = this.captured.get();
+
+        if (out != null) {
+            out.format(fmt, args);
+        }
+
+        else if (this.console != null) {
+            this.console.format(fmt, args);
+        }
+
+        else {
+            this.writer.format(fmt, args);
+            this.writer.flush();
+        }
+
+        return this;
+    }
+
+    /**
+     * Write text as it is, at once, to where the current thread prints
+     *
+     * @param text the text
+     * @return This AppIO
+     */
+    public AppIO print(CharSequence text) {
+        PrintWriter out = this.captured.get();
+
+        if (out != null) {
+            out.append(text);
+        }
+
+        else if (this.console != null) {
+            this.console.writer().append(text);
+            this.console.flush();
+        }
+
+        else {
+            this.writer.append(text);
+            this.writer.flush();
+        }
+
+        return this;
+    }
+
+    /**
+     * Start a block of output, built in memory and written at once when it is
+     * closed, instead of one write per line. Blocks larger than
+     * "powerdict.output.chunk" characters are written a chunk at a time, so that
+     * very large outputs start showing early and don't have to fit in memory.
+     *
+     * A block is meant to be used by the thread that started it, in a
+     * try-with-resources statement.
+     *
+     * @return the block
+     */
+    public Block block() {
+        return new Block(Math.max(1, AppConfig.getInt("powerdict.output.chunk", 65536)));
+    }
+
+    /**
+     * Output built in memory, see {@link AppIO#block()}
      */
-    public Console printf(String fmt, Object... args) {
-        return this.console.format(fmt, args);
+    public class Block implements AutoCloseable {
+        private StringBuilder buffer;
+        private Formatter formatter;
+
+        /**
+         * characters after which the block is written
+         */
+        private int chunk;
+
+        /**
+         * Construct an empty block
+         *
+         * @param chunk characters after which the block is written
+         */
+        private Block(int chunk) {
+            this.buffer = new StringBuilder(Math.min(chunk, 8192));
+            this.formatter = new Formatter(this.buffer);
+            this.chunk = chunk;
+        }
+
+        /**
+         * Add a formatted string to the block, like {@link AppIO#printf(String,
+         * Object...)}
+         *
+         * @param fmt  A format string as described in Format string syntax.
+         * @param args Arguments referenced by the format specifiers in the format
+         *             string.
+         * @return This block
+         */
+        public Block printf(String fmt, Object... args) {
+            this.formatter.format(fmt, args);
+            return this.written();
+        }
+
+        /**
+         * Add text as it is to the block
+         *
+         * @param text the text
+         * @return This block
+         */
+        public Block append(CharSequence text) {
+            this.buffer.append(text);
+            return this.written();
+        }
+
+        /**
+         * The text of the block not written yet, to append to directly, for example
+         * with {@link ColorText#append(StringBuilder, CharSequence, Color)}
+         *
+         * @return the text
+         */
+        public StringBuilder getBuffer() {
+            return this.buffer;
+        }
+
+        /**
+         * Write the block once it is larger than a chunk
+         *
+         * @return This block
+         */
+        private Block written() {
+            if (this.buffer.length() >= this.chunk) {
+                this.flush();
+            }
+
+            return this;
+        }
+
+        /**
+         * Write what the block holds so far
+         */
+        public void flush() {
+            if (this.buffer.length() > 0) {
+                AppIO.this.print(this.buffer);
+                this.buffer.setLength(0);
+            }
+        }
+
+        /**
+         * Write the rest of the block
+         */
+        @Override
+        public void close() {
+            this.flush();
+        }
+    }
+
+    /**
+     * Send everything the current thread prints into the given writer instead of
+     * the console, until {@link #releaseOutput()} is called. This lets the
+     * daemon return the output of a search to its client.
+     *
+     * @param out the writer to receive the output
+     */
+    public void captureOutput(Writer out) {
+        this.captured.set(new PrintWriter(out));
+    }
+
+    /**
+     * Stop capturing the output of the current thread, and print to the console
+     * again
+     */
+    public void releaseOutput() {
+        PrintWriter out = this.captured.get();
+
+        if (out != null) {
+            out.flush();
+            this.captured.remove();
+        }
+    }
+
+    /**
+     * Wrap a task so that, on whichever thread it runs, it prints where the
+     * current thread prints. Without this, the output of a search captured by
+     * the daemon would be lost when part of the search runs on a background
+     * thread.
+     *
+     * @param <T>  the type of the result of the task
+     * @param task the task
+     * @return the wrapped task
+     */
+    public <T> Supplier<T> withCurrentOutput(Supplier<T> task) {
+        PrintWriter out = this.captured.get();
+
+        if (out == null) {
+            return task;
+        }
+
+        return () -> this.withCurrentOutput(out, task);
+    }
+
+    /**
+     * Wrap a function so that, on whichever thread it runs, it prints where the
+     * current thread prints
+     *
+     * @param <T>      the type of the argument of the function
+     * @param <R>      the type of the result of the function
+     * @param function the function
+     * @return the wrapped function
+     */
+    public <T, R> Function<T, R> withCurrentOutput(Function<T, R> function) {
+        PrintWriter out = this.captured.get();
+
+        if (out == null) {
+            return function;
+        }
+
+        return t -> this.withCurrentOutput(out, () -> function.apply(t));
+    }
+
+    /**
+     * Run a task, and whatever it starts through
+     * {@link #withCurrentOutput(Supplier)}, with the output going into the given
+     * writer
+     *
+     * @param <T>  the type of the result of the task
+     * @param out  the writer to print into
+     * @param task the task
+     * @return the result of the task
+     */
+    public <T> T withOutput(Writer out, Supplier<T> task) {
+        return this.withCurrentOutput(new PrintWriter(out, true), task);
+    }
+
+    /**
+     * Run a task while the current thread prints into the given writer
+     *
+     * @param <T>  the type of the result of the task
+     * @param out  the writer to print into
+     * @param task the task
+     * @return the result of the task
+     */
+    private <T> T withCurrentOutput(PrintWriter out, Supplier<T> task) {
+        PrintWriter previous = this.captured.get();
+        this.captured.set(out);
+
+        try {
+            return task.get();
+        }
+
+        finally {
+            if (previous == null) {
+                this.captured.remove();
+            }
+
+            else {
+                this.captured.set(previous);
+            }
+        }
     }
 
     /**
@@ -77,6 +355,10 @@ public class AppIO {
      * @return The printwriter associated with this console
      */
     public Writer getWriter() {
+        if (this.console == null) {
+            return this.writer;
+        }
+
         return this.console.writer();
     }
 
@@ -90,7 +372,18 @@ public class AppIO {
      * @return A string containing the line read from the console
      */
     public String readLine(String fmt, Object... args) {
-        return this.console.readLine(fmt, args);
+        if (this.console != null) {
+            return this.console.readLine(fmt, args);
+        }
+
+        try {
+            this.printf(fmt, args);
+            return this.reader.readLine();
+        }
+
+        catch (IOException e) {
+            throw new IOError(e);
+        }
     }
 
     /**
@@ -108,6 +401,10 @@ public class AppIO {
      * @return The reader associated with this console
      */
     public Reader getReader() {
+        if (this.console == null) {
+            return this.reader;
+        }
+
         return this.console.reader();
     }
 
@@ -115,7 +412,7 @@ public class AppIO {
      * Clear the input/output area
      */
     public void clearConsole() {
-        this.console.printf("\033\143");
+        this.printf("\033\143");
     }
 
     /**
@@ -0,0 +1,51 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a search being answered from the cache or not. It
+ * has no duration, the time taken is that of the {@link SearchEvent} around it.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+@Name("powerdict.Cache")
+@Label("Cache Lookup")
+@Category("Power-Dict")
+@Description("A word found in the history or the bundle, or missing from both")
+@StackTrace(false)
+public class CacheEvent extends jdk.jfr.Event {
+    @Label("Word")
+    String word;
+
+    @Label("Hit")
+    boolean hit;
+
+    /**
+     * "history" or "bundle" for a hit, <code>null</code> for a miss
+     */
+    @Label("Source")
+    String source;
+
+    /**
+     * Record a cache lookup, if a recording wants it
+     *
+     * @param word   the word searched
+     * @param source where the word was found, <code>null</code> if it wasn't
+     */
+    static void emit(String word, String source) {
+        CacheEvent event = new CacheEvent();
+
+        if (event.isEnabled()) {
+            event.word = word;
+            event.hit = (source != null);
+            event.source = source;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.example;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Date;
+
+/**
+ * Circuit breaker guarding calls to a remote service.
+ *
+ * While CLOSED, every call goes through, and the outcome and latency of the
+ * most recent calls are kept in a sliding window. When too many of them failed
+ * or were slow, the breaker goes OPEN and calls fail fast without touching the
+ * service. After a while it goes HALF_OPEN and lets a few probe calls through:
+ * if they all succeed it closes again, otherwise it opens again.
+ *
+ * The thresholds are read from the settings "powerdict.breaker.*".
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class CircuitBreaker {
+    /**
+     * The states of the breaker
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * number of transitions remembered for {@link #printStats()}
+     */
+    private static final int TRANSITIONS_KEPT = 10;
+
+    private AppIO appIO;
+    private String name;
+
+    // configuration
+    private int minimumCalls;
+    private int failureRatePercent;
+    private long slowCallNanos;
+    private int slowCallRatePercent;
+    private long openMillis;
+    private int probeCalls;
+
+    // sliding window of the most recent calls
+    private boolean[] failed;
+    private boolean[] slow;
+    private int recorded;
+    private int next;
+
+    private State state;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    private long rejected;
+    private ArrayDeque<String> transitions;
+
+    /**
+     * Construct a closed breaker configured from the settings
+     *
+     * @param name the name of the guarded service, used in messages
+     */
+    public CircuitBreaker(String name) {
+        this.appIO = AppIO.getInstance();
+        this.name = name;
+
+        int windowSize = Math.max(1, AppConfig.getInt("powerdict.breaker.window", 20));
+        this.minimumCalls = Math.min(windowSize, AppConfig.getInt("powerdict.breaker.minimumCalls", 5));
+        this.failureRatePercent = AppConfig.getInt("powerdict.breaker.failureRate", 50);
+        this.slowCallNanos = AppConfig.getLong("powerdict.breaker.slowCall", 5000) * 1000000;
+        this.slowCallRatePercent = AppConfig.getInt("powerdict.breaker.slowCallRate", 80);
+        this.openMillis = AppConfig.getLong("powerdict.breaker.open", 30000);
+        this.probeCalls = Math.max(1, AppConfig.getInt("powerdict.breaker.probes", 2));
+
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+        this.state = State.CLOSED;
+        this.transitions = new ArrayDeque<>();
+    }
+
+    /**
+     * Ask for permission to call the service
+     *
+     * @return <code>true</code> if the call may go ahead, <code>false</code> if
+     *         it must fail fast
+     */
+    public synchronized boolean tryAcquire() {
+        if (this.state == State.OPEN && System.currentTimeMillis() - this.openedAt >= this.openMillis) {
+            this.transition(State.HALF_OPEN);
+        }
+
+        if (this.state == State.CLOSED) {
+            return true;
+        }
+
+        if (this.state == State.HALF_OPEN && this.probesStarted < this.probeCalls) {
+            this.probesStarted++;
+            return true;
+        }
+
+        this.rejected++;
+        return false;
+    }
+
+    /**
+     * Give back a permission without telling anything about the service, for a
+     * call that was never made
+     */
+    public synchronized void cancel() {
+        if (this.state == State.HALF_OPEN && this.probesStarted > 0) {
+            this.probesStarted--;
+        }
+    }
+
+    /**
+     * Record a call that got a proper answer from the service
+     *
+     * @param nanos the latency of the call
+     */
+    public synchronized void onSuccess(long nanos) {
+        this.record(false, nanos);
+    }
+
+    /**
+     * Record a call that failed because of the service or the network
+     *
+     * @param nanos the latency of the call
+     */
+    public synchronized void onFailure(long nanos) {
+        this.record(true, nanos);
+    }
+
+    /**
+     * Record the outcome of a call, and change the state if needed
+     *
+     * @param failure <code>true</code> if the call failed
+     * @param nanos   the latency of the call
+     */
+    private void record(boolean failure, long nanos) {
+        boolean tooSlow = nanos >= this.slowCallNanos;
+
+        if (this.state == State.HALF_OPEN) {
+            if (failure || tooSlow) {
+                this.transition(State.OPEN);
+            }
+
+            else if (++this.probesSucceeded >= this.probeCalls) {
+                this.transition(State.CLOSED);
+            }
+
+            return;
+        }
+
+        // outcomes of calls let through before the breaker opened don't matter
+        if (this.state == State.OPEN) {
+            return;
+        }
+
+        this.failed[this.next] = failure;
+        this.slow[this.next] = tooSlow;
+        this.next = (this.next + 1) % this.failed.length;
+        this.recorded = Math.min(this.recorded + 1, this.failed.length);
+
+        if (this.recorded >= this.minimumCalls && (this.getFailureRate() >= this.failureRatePercent
+                || this.getSlowCallRate() >= this.slowCallRatePercent)) {
+            this.transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Move to a new state, starting afresh for that state
+     *
+     * @param to the new state
+     */
+    private void transition(State to) {
+        String entry = String.format("%s %s -> %s", new SimpleDateFormat("HH:mm:ss").format(new Date()), this.state,
+                to);
+
+        if (this.transitions.size() == TRANSITIONS_KEPT) {
+            this.transitions.removeFirst();
+        }
+
+        this.transitions.addLast(entry);
+
+        this.appIO.printf("%n%n[%s] %s circuit is now %s", ColorText.text("INFO", Color.BLUE), this.name, to);
+
+        this.state = to;
+        this.probesStarted = 0;
+        this.probesSucceeded = 0;
+
+        if (to == State.OPEN) {
+            this.openedAt = System.currentTimeMillis();
+        }
+
+        if (to == State.CLOSED) {
+            this.recorded = 0;
+            this.next = 0;
+        }
+    }
+
+    /**
+     * Percentage of failed calls in the sliding window
+     *
+     * @return the failure rate
+     */
+    private int getFailureRate() {
+        return this.getRate(this.failed);
+    }
+
+    /**
+     * Percentage of slow calls in the sliding window
+     *
+     * @return the slow call rate
+     */
+    private int getSlowCallRate() {
+        return this.getRate(this.slow);
+    }
+
+    /**
+     * Percentage of <code>true</code> among the recorded calls
+     *
+     * @param window the window to look at
+     * @return the rate
+     */
+    private int getRate(boolean[] window) {
+        if (this.recorded == 0) {
+            return 0;
+        }
+
+        int count = 0;
+
+        for (int i = 0; i < this.recorded; i++) {
+            if (window[i]) {
+                count++;
+            }
+        }
+
+        return count * 100 / this.recorded;
+    }
+
+    /**
+     * The current state. An open breaker whose waiting time is over is reported
+     * as open until the next call asks for permission.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    /**
+     * Milliseconds until an open breaker lets probe calls through
+     *
+     * @return the remaining time, 0 if the breaker is not open
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (this.state != State.OPEN) {
+            return 0;
+        }
+
+        return Math.max(0, this.openMillis - (System.currentTimeMillis() - this.openedAt));
+    }
+
+    /**
+     * Print the state, the recent failure and slow call rates, and the most recent
+     * transitions of the breaker
+     */
+    public synchronized void printStats() {
+        this.appIO.printf("%n%n%s%n", ColorText.text(this.name + " circuit breaker -", Color.MAGENTA));
+        this.appIO.printf("%n- State            : %s", this.state);
+        this.appIO.printf("%n- Recent calls     : %d", this.recorded);
+        this.appIO.printf("%n- Failure rate     : %d%%", this.getFailureRate());
+        this.appIO.printf("%n- Slow call rate   : %d%%", this.getSlowCallRate());
+        this.appIO.printf("%n- Calls failed fast: %d", this.rejected);
+
+        for (String t : this.transitions) {
+            this.appIO.printf("%n- %s", t);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /*
  * Anatomy of ANSI color codes
  *
@@ -52,43 +55,57 @@ package com.example;
 /**
  * Provides ANSI colored output
  *
+ * The escape sequences of every {@link Color}, {@link TextMode} and choice of
+ * foreground or background are built once, as strings and as bytes, so that
+ * rendering only copies them. Nothing is shared but the immutable tables, and
+ * any thread may render at any time.
+ *
  * @author Bhavyai Gupta
- * @version 1.0.1
+ * @version 1.0.2
  * @since May 7, 2021
  */
 public class ColorText {
-	private static String partOne;
-	private static String partTwo;
-	private static String partThree;
 	private final static String RESET = "\033[0m";
+	private final static byte[] RESET_BYTES = RESET.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+	private final static Color[] COLORS = Color.values();
+	private final static TextMode[] MODES = TextMode.values();
 
 	/**
-	 * Constructor is declared private to prevent instantiation of the class
+	 * the escape sequence of every combination, see {@link #slot(Color, TextMode, boolean)}
 	 */
-	private ColorText() {
+	private final static String[] CODES = new String[2 * MODES.length * COLORS.length];
+	private final static byte[][] CODE_BYTES = new byte[CODES.length][];
+
+	static {
+		for (int background = 0; background < 2; background++) {
+			for (TextMode textmode : MODES) {
+				for (Color color : COLORS) {
+					int slot = slot(color, textmode, background == 1);
+
+					CODES[slot] = "\033[" + textmode.getCode() + ";" + (color.getCode() + 10 * background) + "m";
+					CODE_BYTES[slot] = CODES[slot].getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+				}
+			}
+		}
 	}
 
 	/**
-	 * Returns the ANSI code of the foreground, regular {@link Color}
-	 *
-	 * @param color    of type {@link Color}
-	 * @param textmode of type {@link TextMode}
-	 * @return a string representing of the argument
+	 * Constructor is declared private to prevent instantiation of the class
 	 */
-	private static String getANSI(Color color) {
-		return getANSI(color, TextMode.NORMAL, false);
+	private ColorText() {
 	}
 
 	/**
-	 * Returns the ANSI code of the foreground {@link Color} with flag
-	 * {@link TextMode}
+	 * Returns the position of a combination in the tables
 	 *
-	 * @param color    of type {@link Color}
-	 * @param textmode of type {@link TextMode}
-	 * @return a string representing of the argument
+	 * @param color      of type {@link Color}
+	 * @param textmode   of type {@link TextMode}
+	 * @param background {@code true} for background, {@code false} for foreground
+	 * @return the position
 	 */
-	private static String getANSI(Color color, TextMode textmode) {
-		return getANSI(color, textmode, false);
+	private static int slot(Color color, TextMode textmode, boolean background) {
+		return ((background ? MODES.length : 0) + textmode.ordinal()) * COLORS.length + color.ordinal();
 	}
 
 	/**
@@ -98,21 +115,10 @@ public class ColorText {
 	 * @param color      of type {@link Color}
 	 * @param textmode   of type {@link TextMode}
 	 * @param background {@code true} for background, {@code false} for foreground
-	 * @return a string representing of the argument
+	 * @return the precomputed escape sequence
 	 */
-	private static String getANSI(Color color, TextMode textmode, boolean background) {
-		partOne = "\033[";
-		partTwo = String.valueOf(textmode.getCode()) + ";";
-
-		if (background == false) {
-			partThree = String.valueOf(color.getCode()) + "m";
-		}
-
-		else {
-			partThree = String.valueOf(color.getCode() + 10) + "m";
-		}
-
-		return (partOne + partTwo + partThree);
+	public static String getANSI(Color color, TextMode textmode, boolean background) {
+		return CODES[slot(color, textmode, background)];
 	}
 
 	/**
@@ -124,8 +130,7 @@ public class ColorText {
 	 * @return a string representing of the argument
 	 */
 	public static String text(String str, Color color) {
-		String temp = String.format(getANSI(color) + str + RESET);
-		return temp;
+		return text(str, color, TextMode.NORMAL, false);
 	}
 
 	/**
@@ -138,9 +143,7 @@ public class ColorText {
 	 * @return a string representing of the argument
 	 */
 	public static String text(String str, Color color, TextMode textmode) {
-		String temp = String.format(getANSI(color, textmode) + str + RESET);
-		// System.out.print(temp);
-		return temp;
+		return text(str, color, textmode, false);
 	}
 
 	/**
@@ -154,14 +157,77 @@ public class ColorText {
 	 * @return a string representing of the argument
 	 */
 	public static String text(String str, Color color, TextMode textmode, boolean background) {
-		String temp = String.format(getANSI(color, textmode, background) + str + RESET);
-		// System.out.print(temp);
-		return temp;
+		String code = getANSI(color, textmode, background);
+
+		return new StringBuilder(code.length() + str.length() + RESET.length()).append(code).append(str)
+				.append(RESET).toString();
+	}
+
+	/**
+	 * Appends the colored text to a {@link StringBuilder}, without building any
+	 * intermediate string
+	 *
+	 * @param out        where the colored text is appended
+	 * @param str        the text to be colored
+	 * @param color      of type {@link Color}
+	 * @param textmode   of type {@link TextMode}
+	 * @param background {@code true} for background, {@code false} for foreground
+	 * @return out
+	 */
+	public static StringBuilder append(StringBuilder out, CharSequence str, Color color, TextMode textmode,
+			boolean background) {
+		return out.append(getANSI(color, textmode, background)).append(str).append(RESET);
+	}
+
+	/**
+	 * Appends the colored text in the foreground {@link Color} to a
+	 * {@link StringBuilder}
+	 *
+	 * @param out   where the colored text is appended
+	 * @param str   the text to be colored
+	 * @param color of type {@link Color}
+	 * @return out
+	 */
+	public static StringBuilder append(StringBuilder out, CharSequence str, Color color) {
+		return append(out, str, color, TextMode.NORMAL, false);
+	}
+
+	/**
+	 * Appends the colored text to any {@link Appendable}, such as a
+	 * {@link java.io.Writer}
+	 *
+	 * @param out        where the colored text is appended
+	 * @param str        the text to be colored
+	 * @param color      of type {@link Color}
+	 * @param textmode   of type {@link TextMode}
+	 * @param background {@code true} for background, {@code false} for foreground
+	 * @return out
+	 * @throws IOException if out cannot be appended to
+	 */
+	public static Appendable append(Appendable out, CharSequence str, Color color, TextMode textmode,
+			boolean background) throws IOException {
+		return out.append(getANSI(color, textmode, background)).append(str).append(RESET);
+	}
+
+	/**
+	 * Puts the colored text, already encoded, into a byte buffer
+	 *
+	 * @param out        where the colored text is put
+	 * @param str        the encoded text to be colored
+	 * @param color      of type {@link Color}
+	 * @param textmode   of type {@link TextMode}
+	 * @param background {@code true} for background, {@code false} for foreground
+	 * @return out
+	 * @throws java.nio.BufferOverflowException if out has no room for the colored
+	 *                                          text
+	 */
+	public static ByteBuffer put(ByteBuffer out, byte[] str, Color color, TextMode textmode, boolean background) {
+		return out.put(CODE_BYTES[slot(color, textmode, background)]).put(str).put(RESET_BYTES);
 	}
 }
 
 /**
- * Enum Color to hold the partThree of the ANSI sequence
+ * Enum Color to hold the color code of the ANSI sequence
  */
 enum Color {
 	BLACK(30), RED(31), GREEN(32), YELLOW(33), BLUE(34), MAGENTA(35), CYAN(36), WHITE(37), GRAY(90), BRIGHT_RED(91),
@@ -179,7 +245,7 @@ enum Color {
 }
 
 /**
- * Enum TextMode to hold the partTwo of the ANSI sequence
+ * Enum TextMode to hold the flag of the ANSI sequence
  */
 enum TextMode {
 	NORMAL(0), BOLD(1), FAINT(2), ITALICS(3), UNDERLINE(4), SLOWBLINK(5), RAPIDBLINK(6), REVERSE(7), HIDE(8),
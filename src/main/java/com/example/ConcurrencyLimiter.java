@@ -0,0 +1,200 @@
+package com.example;
+
+/**
+ * Adaptive limit on the number of requests in flight to a remote service.
+ *
+ * The limit is discovered at runtime with a gradient on the round trip time:
+ * a long-term average of the latency is compared to each new sample. While the
+ * samples stay close to the average, the service is keeping up and the limit
+ * grows. When the samples get slower, requests are queueing up at the service
+ * and the limit shrinks in proportion. A request that is rejected for load (for
+ * example HTTP 429) or times out cuts the limit multiplicatively.
+ *
+ * Requests beyond the limit wait in a bounded queue for a bounded time, and
+ * are shed when either bound is exceeded.
+ *
+ * The bounds are read from the settings "powerdict.limiter.*".
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class ConcurrencyLimiter {
+    /**
+     * latency samples over which the long-term average is taken
+     */
+    private static final int LONG_WINDOW = 100;
+
+    /**
+     * how much slower than the long-term average a sample may be before the
+     * limit shrinks
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * weight of each new limit in the smoothed limit
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * factor applied to the limit when a request is rejected for load
+     */
+    private static final double BACKOFF = 0.9;
+
+    private AppIO appIO;
+    private String name;
+
+    // configuration
+    private int minLimit;
+    private int maxLimit;
+    private int maxQueue;
+    private long queueTimeoutMillis;
+
+    private double limit;
+    private double longRttNanos;
+    private int inFlight;
+    private int queued;
+    private long shed;
+    private long dropped;
+
+    /**
+     * Construct a limiter configured from the settings
+     *
+     * @param name the name of the limited service, used in messages
+     */
+    public ConcurrencyLimiter(String name) {
+        this.appIO = AppIO.getInstance();
+        this.name = name;
+
+        this.minLimit = Math.max(1, AppConfig.getInt("powerdict.limiter.min", 1));
+        this.maxLimit = Math.max(this.minLimit, AppConfig.getInt("powerdict.limiter.max", 64));
+        this.maxQueue = AppConfig.getInt("powerdict.limiter.maxQueue", 64);
+        this.queueTimeoutMillis = AppConfig.getLong("powerdict.limiter.queueTimeout", 10000);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, AppConfig.getInt("powerdict.limiter.initial", 4)));
+    }
+
+    /**
+     * Wait for a slot to send a request, at most for the queue timeout
+     *
+     * @return <code>true</code> if the request may be sent, <code>false</code> if
+     *         it is shed
+     */
+    public boolean acquire() {
+        return this.acquire(this.queueTimeoutMillis);
+    }
+
+    /**
+     * Wait for a slot to send a request, at most for the queue timeout or the
+     * given time, whichever is shorter
+     *
+     * @param maxWaitMillis the longest the caller is willing to wait
+     * @return <code>true</code> if the request may be sent, <code>false</code> if
+     *         it is shed
+     */
+    public synchronized boolean acquire(long maxWaitMillis) {
+        if (this.inFlight < (int) this.limit) {
+            this.inFlight++;
+            return true;
+        }
+
+        if (this.queued >= this.maxQueue) {
+            this.shed++;
+            return false;
+        }
+
+        long deadline = System.currentTimeMillis() + Math.min(this.queueTimeoutMillis, maxWaitMillis);
+        this.queued++;
+
+        try {
+            while (this.inFlight >= (int) this.limit) {
+                long remaining = deadline - System.currentTimeMillis();
+
+                if (remaining <= 0) {
+                    this.shed++;
+                    return false;
+                }
+
+                this.wait(remaining);
+            }
+
+            this.inFlight++;
+            return true;
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.shed++;
+            return false;
+        }
+
+        finally {
+            this.queued--;
+        }
+    }
+
+    /**
+     * Give back a slot without telling anything about the service, for a request
+     * that was never sent
+     */
+    public synchronized void cancel() {
+        this.inFlight--;
+        this.notifyAll();
+    }
+
+    /**
+     * Give back a slot and adjust the limit to the outcome of the request
+     *
+     * @param rttNanos the round trip time of the request
+     * @param overload <code>true</code> if the service rejected the request for
+     *                 load or didn't answer in time
+     */
+    public synchronized void release(long rttNanos, boolean overload) {
+        // whether the requests in flight were enough to put the limit to the test
+        boolean saturated = this.inFlight * 2 >= this.limit;
+        this.inFlight--;
+
+        if (overload) {
+            this.dropped++;
+            this.limit = Math.max(this.minLimit, this.limit * BACKOFF);
+        }
+
+        else {
+            this.longRttNanos = (this.longRttNanos == 0) ? rttNanos
+                    : this.longRttNanos + (rttNanos - this.longRttNanos) / LONG_WINDOW;
+
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * this.longRttNanos / Math.max(1, rttNanos)));
+            double newLimit = this.limit * gradient + Math.sqrt(this.limit);
+
+            // don't grow a limit that is not being used
+            if (newLimit < this.limit || saturated) {
+                this.limit = this.limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            }
+
+            this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, this.limit));
+        }
+
+        this.notifyAll();
+    }
+
+    /**
+     * The current number of requests allowed in flight
+     *
+     * @return the limit
+     */
+    public synchronized int getLimit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * Print the current limit and load of the limiter
+     */
+    public synchronized void printStats() {
+        this.appIO.printf("%n%n%s%n", ColorText.text(this.name + " concurrency limit -", Color.MAGENTA));
+        this.appIO.printf("%n- Limit            : %d", (int) this.limit);
+        this.appIO.printf("%n- In flight        : %d", this.inFlight);
+        this.appIO.printf("%n- Queued           : %d", this.queued);
+        this.appIO.printf("%n- Average latency  : %d ms", (long) this.longRttNanos / 1000000);
+        this.appIO.printf("%n- Overloaded calls : %d", this.dropped);
+        this.appIO.printf("%n- Shed calls       : %d", this.shed);
+    }
+}
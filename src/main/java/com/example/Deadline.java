@@ -0,0 +1,56 @@
+package com.example;
+
+/**
+ * Point in time by which a search wants its answer.
+ *
+ * A deadline is created when a search starts and passed down to every fetch
+ * the search makes, so that no part of the search waits past it.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class Deadline {
+    /**
+     * the deadline as per System.nanoTime()
+     */
+    private long deadlineNanos;
+
+    /**
+     * Construct a deadline
+     *
+     * @param deadlineNanos the deadline as per System.nanoTime()
+     */
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Create a deadline some time from now
+     *
+     * @param millis milliseconds from now
+     * @return the deadline
+     */
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + millis * 1000000);
+    }
+
+    /**
+     * Milliseconds left until the deadline
+     *
+     * @return the remaining time, 0 if the deadline has passed
+     */
+    public long remainingMillis() {
+        return Math.max(0, (this.deadlineNanos - System.nanoTime()) / 1000000);
+    }
+
+    /**
+     * Check if the deadline has passed
+     *
+     * @return <code>true</code> if the deadline has passed, <code>false</code>
+     *         otherwise
+     */
+    public boolean isExpired() {
+        return this.deadlineNanos - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,511 @@
+package com.example;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An immutable file holding the cached results of many words, built once from
+ * history and shipped to other hosts, where it is mounted read-only with
+ * {@link FileChannel#map}. Every JVM on a host mounting the same bundle shares
+ * the same pages of the page cache, and mounting reads nothing but the header.
+ *
+ * Words are placed by a minimal perfect hash ("hash, displace and compress"):
+ * a word is hashed once, the upper half of the hash picks a bucket, and the
+ * displacement stored for the bucket turns the lower half into the slot of the
+ * word. Slots are numbered 0 to n - 1 without gaps, and each holds the offset
+ * of the record of its word. A lookup is then one hash and one read:
+ *
+ * <pre>
+ * int    MAGIC
+ * int    salt of the hash
+ * int    number of words, n
+ * int    number of buckets, b
+ * int[b] displacement of each bucket
+ * long[n] offset of the record in each slot
+ * records, one after the other, in the order of the slots:
+ *     string word
+ *     long   time the word was fetched
+ *     int    number of definitions
+ *     string definition and string part of speech, for each definition
+ *     string synonyms, length -1 if there are none
+ * </pre>
+ *
+ * A string is its length in UTF-8 bytes followed by the bytes. A word not in
+ * the bundle still lands in some slot, so the word of the record is compared.
+ * As the records follow the order of the slots, the record of the last slot
+ * ends the file, which mounting checks to reject a truncated bundle.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class DictionaryBundle {
+    /**
+     * "PDB1"
+     */
+    static final int MAGIC = 0x50444231;
+
+    /**
+     * average number of words per bucket
+     */
+    private static final int BUCKET_SIZE = 4;
+
+    private static final int HEADER = 16;
+
+    private static AppIO appIO = AppIO.getInstance();
+
+    private File bundleFile;
+    private MappedByteBuffer buffer;
+    private int salt;
+    private int words;
+    private int buckets;
+
+    /**
+     * where the offsets of the slots start
+     */
+    private int slotsBase;
+
+    private AtomicLong lookups = new AtomicLong();
+    private AtomicLong hits = new AtomicLong();
+
+    /**
+     * Mount a bundle
+     *
+     * @param bundleFile the bundle
+     * @throws IOException if the file cannot be mapped or isn't a bundle
+     */
+    public DictionaryBundle(File bundleFile) throws IOException {
+        this.bundleFile = bundleFile;
+
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(bundleFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Bundle larger than 2 GB: " + bundleFile);
+            }
+
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (this.buffer.capacity() < HEADER || this.buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a bundle: " + bundleFile);
+        }
+
+        this.salt = this.buffer.getInt(4);
+        this.words = this.buffer.getInt(8);
+        this.buckets = this.buffer.getInt(12);
+        this.slotsBase = HEADER + 4 * this.buckets;
+
+        if (this.words < 0 || this.buckets < 1 || this.slotsBase + 8L * this.words > this.buffer.capacity()
+                || this.endOfRecords() != this.buffer.capacity()) {
+            throw new IOException("Truncated bundle: " + bundleFile);
+        }
+    }
+
+    /**
+     * Find where the record of the last slot ends
+     *
+     * @return the position after the last record, or -1 if it is cut short
+     */
+    private long endOfRecords() {
+        if (this.words == 0) {
+            return this.slotsBase;
+        }
+
+        long offset = this.buffer.getLong(this.slotsBase + 8 * (this.words - 1));
+
+        if (offset < this.slotsBase + 8L * this.words || offset >= this.buffer.capacity()) {
+            return -1;
+        }
+
+        ByteBuffer record = this.buffer.duplicate();
+        record.position((int) offset);
+
+        try {
+            getString(record);
+            record.getLong();
+
+            for (int i = record.getInt(); i > 0; i--) {
+                getString(record);
+                getString(record);
+            }
+
+            getString(record);
+        }
+
+        catch (BufferUnderflowException | IllegalArgumentException e) {
+            return -1;
+        }
+
+        return record.position();
+    }
+
+    /**
+     * Number of words in the bundle
+     *
+     * @return the number of words
+     */
+    public int size() {
+        return this.words;
+    }
+
+    /**
+     * Get the cached results of a word
+     *
+     * @param word the word
+     * @return the vocab, or <code>null</code> if the word is not in the bundle
+     */
+    public Vocab get(String word) {
+        this.lookups.incrementAndGet();
+
+        if (this.words == 0) {
+            return null;
+        }
+
+        long h = hash(word, this.salt);
+        int displacement = this.buffer.getInt(HEADER + 4 * bucket(h, this.buckets));
+        int slot = slot(h, displacement, this.words);
+
+        // relative reads need a position of their own, the mapping is shared
+        ByteBuffer record = this.buffer.duplicate();
+        record.position((int) this.buffer.getLong(this.slotsBase + 8 * slot));
+
+        if (!word.equals(getString(record))) {
+            return null;
+        }
+
+        long fetchedAt = record.getLong();
+        WordnikDef[] definitions = new WordnikDef[record.getInt()];
+
+        for (int i = 0; i < definitions.length; i++) {
+            definitions[i] = new WordnikDef();
+            definitions[i].text = getString(record);
+            definitions[i].partOfSpeech = getString(record);
+        }
+
+        Vocab vocab = new Vocab(word, definitions, getString(record));
+        vocab.fetchedAt = fetchedAt;
+        vocab.source = "bundle";
+
+        this.hits.incrementAndGet();
+        return vocab;
+    }
+
+    /**
+     * Build a bundle of the words in history
+     *
+     * @param index  word to the file its results are cached in
+     * @param target the bundle to write, replaced atomically
+     * @return the number of words in the bundle
+     * @throws IOException if the bundle cannot be written
+     */
+    public static int build(Map<String, String> index, File target) throws IOException {
+        long start = System.nanoTime();
+
+        // words whose results cannot be read are left out
+        HashMap<String, Vocab> vocabs = new HashMap<>();
+
+        for (Map.Entry<String, String> e : index.entrySet()) {
+            Vocab vocab = Vocab.read(e.getValue());
+
+            if (vocab != null) {
+                vocabs.put(e.getKey(), vocab);
+            }
+        }
+
+        String[] keys = vocabs.keySet().toArray(new String[0]);
+        int n = keys.length;
+        int b = Math.max(1, (n + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        int[] displacements = null;
+        String[] slots = null;
+        int salt = 0;
+
+        // a salt whose hashes collide is given up for the next one
+        while (displacements == null) {
+            salt++;
+            displacements = new int[b];
+            slots = new String[n];
+
+            if (!place(keys, salt, displacements, slots)) {
+                displacements = null;
+            }
+        }
+
+        File folder = target.getAbsoluteFile().getParentFile();
+        File temp = new File(folder, target.getName() + ".tmp");
+        File recordsTemp = new File(folder, target.getName() + ".records.tmp");
+        long[] offsets = new long[n];
+        long offset = HEADER + 4L * b + 8L * n;
+
+        try {
+            // the records are written first to learn their offsets
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(recordsTemp)))) {
+                for (int slot = 0; slot < n; slot++) {
+                    byte[] record = encode(vocabs.get(slots[slot]));
+
+                    out.write(record);
+                    offsets[slot] = offset;
+                    offset = offset + record.length;
+                }
+            }
+
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Bundle larger than 2 GB");
+            }
+
+            try (FileOutputStream file = new FileOutputStream(temp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeInt(salt);
+                out.writeInt(n);
+                out.writeInt(b);
+
+                for (int d : displacements) {
+                    out.writeInt(d);
+                }
+
+                for (long o : offsets) {
+                    out.writeLong(o);
+                }
+
+                Files.copy(recordsTemp.toPath(), out);
+                out.flush();
+
+                // on the disk before it takes the name of the bundle, like RecordFile does
+                if (RecordFile.isFsync()) {
+                    file.getChannel().force(true);
+                }
+            }
+        }
+
+        finally {
+            recordsTemp.delete();
+        }
+
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        if (RecordFile.isFsync()) {
+            RecordFile.syncFolder(folder.toPath());
+        }
+
+        appIO.printf("%n%n[%s] Built a bundle of %d words in \"%s\" in %d ms", ColorText.text("DONE", Color.GREEN), n,
+                appIO.fetchCanonical(target), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        return n;
+    }
+
+    /**
+     * Find a displacement for every bucket, such that the words take every slot
+     * exactly once. The largest buckets are placed first, while most slots are
+     * still free.
+     *
+     * @param keys          the words
+     * @param salt          the salt of the hash
+     * @param displacements filled with the displacement of each bucket
+     * @param slots         filled with the word in each slot
+     * @return <code>true</code> if every word was placed, <code>false</code> if
+     *         two words of a bucket have the same hash
+     */
+    private static boolean place(String[] keys, int salt, int[] displacements, String[] slots) {
+        int n = keys.length;
+        int b = displacements.length;
+        long[] hashes = new long[n];
+        List<List<Integer>> members = new ArrayList<>(b);
+
+        for (int i = 0; i < b; i++) {
+            members.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < n; i++) {
+            hashes[i] = hash(keys[i], salt);
+            members.get(bucket(hashes[i], b)).add(i);
+        }
+
+        Integer[] order = new Integer[b];
+
+        for (int i = 0; i < b; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (x, y) -> members.get(y).size() - members.get(x).size());
+
+        boolean[] taken = new boolean[n];
+        int[] tried = new int[BUCKET_SIZE * 8];
+
+        for (int bucket : order) {
+            List<Integer> keysOfBucket = members.get(bucket);
+
+            if (keysOfBucket.isEmpty()) {
+                break;
+            }
+
+            if (tried.length < keysOfBucket.size()) {
+                tried = new int[keysOfBucket.size()];
+            }
+
+            for (int d = 1;; d++) {
+                // after this many displacements, the bucket has words of the same hash
+                if (d > 64 * n + 1024) {
+                    return false;
+                }
+
+                int placed = 0;
+
+                for (int key : keysOfBucket) {
+                    int slot = slot(hashes[key], d, n);
+
+                    if (taken[slot]) {
+                        break;
+                    }
+
+                    taken[slot] = true;
+                    tried[placed++] = slot;
+                }
+
+                if (placed == keysOfBucket.size()) {
+                    displacements[bucket] = d;
+
+                    for (int i = 0; i < placed; i++) {
+                        slots[tried[i]] = keys[keysOfBucket.get(i)];
+                    }
+
+                    break;
+                }
+
+                // undo the partial placement and try the next displacement
+                for (int i = 0; i < placed; i++) {
+                    taken[tried[i]] = false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Encode the record of a vocab
+     *
+     * @param vocab the vocab
+     * @return the record
+     * @throws IOException if the record cannot be encoded
+     */
+    private static byte[] encode(Vocab vocab) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        WordnikDef[] definitions = vocab.toWordnikDefs();
+
+        putString(out, vocab.word);
+        out.writeLong(vocab.fetchedAt);
+        out.writeInt(definitions.length);
+
+        for (WordnikDef def : definitions) {
+            putString(out, def.text);
+            putString(out, def.partOfSpeech);
+        }
+
+        putString(out, vocab.getSynonyms());
+        out.flush();
+
+        return bytes.toByteArray();
+    }
+
+    private static void putString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        if (length > record.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The 64 bit hash of a word: FNV-1a over its characters, followed by the
+     * finalizer of MurmurHash3
+     *
+     * @param word the word
+     * @param salt the salt
+     * @return the hash
+     */
+    static long hash(String word, int salt) {
+        long h = 0xcbf29ce484222325L ^ (salt * 0x9E3779B97F4A7C15L);
+
+        for (int i = 0; i < word.length(); i++) {
+            h = (h ^ word.charAt(i)) * 0x100000001b3L;
+        }
+
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+        return h ^ (h >>> 33);
+    }
+
+    private static int bucket(long hash, int buckets) {
+        return Integer.remainderUnsigned((int) (hash >>> 32), buckets);
+    }
+
+    private static int slot(long hash, int displacement, int words) {
+        int h = (int) hash ^ (displacement * 0x9E3779B9);
+
+        h = (h ^ (h >>> 16)) * 0x85EBCA6B;
+        h = (h ^ (h >>> 13)) * 0xC2B2AE35;
+
+        return Integer.remainderUnsigned(h ^ (h >>> 16), words);
+    }
+
+    /**
+     * Print the size of the bundle and how often it answered
+     */
+    public void printStats() {
+        appIO.printf("%n%n%s%n", ColorText.text("Bundle -", Color.MAGENTA));
+        appIO.printf("%n- File            : %s", appIO.fetchCanonical(this.bundleFile));
+        appIO.printf("%n- Words           : %d", this.words);
+        appIO.printf("%n- Bytes mapped    : %d", this.buffer.capacity());
+        appIO.printf("%n- Lookups         : %d (%d hits)", this.lookups.get(), this.hits.get());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A source of definitions and synonyms, such as the Wordnik REST API or a
+ * local dictionary file.
+ *
+ * Lookups are asynchronous. A provider that doesn't know the word, or cannot
+ * be reached, completes the future of the definitions with <code>null</code>
+ * so that the {@link ProviderChain} can fall back to the next provider. A provider should
+ * not wait for resources past the deadline of the search, but work it has
+ * already started may complete after the deadline, for the search to be
+ * completed in the background.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public interface DictionaryProvider {
+    /**
+     * The name of the provider, as used in the setting "powerdict.providers"
+     *
+     * @return the name of the provider
+     */
+    String getName();
+
+    /**
+     * Look up the definitions of the word
+     *
+     * @param word     the word for which definitions are requested
+     * @param deadline the deadline of the search
+     * @return future of the definitions along with their parts of speech,
+     *         completed with <code>null</code> if none are found
+     */
+    CompletableFuture<WordnikDef[]> fetchDefinitions(String word, Deadline deadline);
+
+    /**
+     * Look up the synonyms of the word
+     *
+     * @param word     the word for which synonyms are requested
+     * @param deadline the deadline of the search
+     * @return future of the comma separated synonyms, completed with an empty
+     *         string if none are found, and with <code>null</code> if they could
+     *         not be fetched
+     */
+    CompletableFuture<String> fetchSynonyms(String word, Deadline deadline);
+
+    /**
+     * Look up the definitions of the word, along with its synonyms when the
+     * provider gets both in one call. The {@link ProviderChain} only asks
+     * {@link #fetchSynonyms(String, Deadline)} when they didn't come along.
+     *
+     * @param word     the word for which definitions are requested
+     * @param deadline the deadline of the search
+     * @return future of the entry, completed with <code>null</code> if no
+     *         definitions are found
+     */
+    default CompletableFuture<Entry> fetchEntry(String word, Deadline deadline) {
+        return this.fetchDefinitions(word, deadline)
+                .thenApply(definitions -> (definitions == null) ? null : new Entry(definitions, null));
+    }
+
+    /**
+     * The definitions of a word, and its synonyms if they came along
+     */
+    class Entry {
+        private WordnikDef[] definitions;
+        private String synonyms;
+
+        /**
+         * Construct an entry
+         *
+         * @param definitions the definitions along with their parts of speech
+         * @param synonyms    the comma separated synonyms, an empty string if there
+         *                    are none, or <code>null</code> if they are to be
+         *                    fetched on their own
+         */
+        public Entry(WordnikDef[] definitions, String synonyms) {
+            this.definitions = definitions;
+            this.synonyms = synonyms;
+        }
+
+        public WordnikDef[] getDefinitions() {
+            return this.definitions;
+        }
+
+        public String getSynonyms() {
+            return this.synonyms;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event of a record of the history being read or written, or
+ * of the journal or the string table being flushed to the disk.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+@Name("powerdict.Disk")
+@Label("History I/O")
+@Category("Power-Dict")
+@Description("A record file read or written, or an append-only file flushed")
+@Threshold("1 ms")
+@StackTrace(false)
+public class DiskEvent extends jdk.jfr.Event {
+    /**
+     * "read", "write" or "flush"
+     */
+    @Label("Operation")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    /**
+     * the bytes read or written, or the size of the file flushed
+     */
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Commit the event, if a recording wants it and it took long enough
+     *
+     * @param operation "read" or "write"
+     * @param file      the file
+     * @param bytes     the bytes read or written
+     */
+    void emit(String operation, File file, long bytes) {
+        if (this.shouldCommit()) {
+            this.operation = operation;
+            this.path = file.getPath();
+            this.bytes = bytes;
+            this.commit();
+        }
+    }
+
+    /**
+     * Commit the event of a flush, if a recording wants it and it took long
+     * enough. The size of the file is only looked up then.
+     *
+     * @param file the file flushed
+     */
+    void emitFlush(File file) {
+        if (this.shouldCommit()) {
+            this.emit("flush", file, file.length());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event of one request to Wordnik, lasting from the connection
+ * being opened to the response being read.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+@Name("powerdict.Fetch")
+@Label("Remote Fetch")
+@Category("Power-Dict")
+@Description("A request for the definitions or synonyms of a word to Wordnik")
+@Threshold("0 ms")
+@StackTrace(false)
+public class FetchEvent extends jdk.jfr.Event {
+    @Label("Word")
+    String word;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    /**
+     * the HTTP status, -1 if no response arrived
+     */
+    @Label("Status")
+    int status = -1;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,88 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring deciding which Power-Dict node owns a word.
+ *
+ * Each node is placed on the ring at many points, its virtual nodes, so that
+ * the words are spread evenly, and adding or removing a node only moves the
+ * words next to its points. A word is owned by the first point at or after its
+ * hash, going round.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class HashRing {
+    /**
+     * position on the ring to the node placed there
+     */
+    private TreeMap<Long, String> points;
+
+    private List<String> nodes;
+
+    /**
+     * Construct a ring of the given nodes
+     *
+     * @param nodes        the nodes, identified the same way on every node
+     * @param virtualNodes the number of points of each node
+     */
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        this.points = new TreeMap<>();
+        this.nodes = new ArrayList<>(nodes);
+
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                this.points.put(DictionaryBundle.hash(node + "#" + i, 0), node);
+            }
+        }
+    }
+
+    /**
+     * Construct the ring of the peers configured by "powerdict.peers", a comma
+     * separated list of host:port, with "powerdict.peer.vnodes" points per peer
+     *
+     * @return the ring, empty if no peers are configured
+     */
+    public static HashRing fromConfig() {
+        List<String> peers = new ArrayList<>();
+
+        for (String peer : AppConfig.get("powerdict.peers", "").split(",")) {
+            if (!peer.trim().isEmpty()) {
+                peers.add(peer.trim());
+            }
+        }
+
+        return new HashRing(peers, Math.max(1, AppConfig.getInt("powerdict.peer.vnodes", 64)));
+    }
+
+    /**
+     * The node owning a word
+     *
+     * @param word the word
+     * @return the node, or <code>null</code> if the ring is empty
+     */
+    public String owner(String word) {
+        if (this.points.isEmpty()) {
+            return null;
+        }
+
+        Map.Entry<Long, String> point = this.points.ceilingEntry(DictionaryBundle.hash(word, 0));
+
+        return (point == null) ? this.points.firstEntry().getValue() : point.getValue();
+    }
+
+    /**
+     * The nodes of the ring
+     *
+     * @return the nodes
+     */
+    public List<String> getNodes() {
+        return this.nodes;
+    }
+}
@@ -0,0 +1,349 @@
+package com.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reclaims the space taken by files in the history folder that history no
+ * longer refers to, in the background.
+ *
+ * Such orphans are left behind when a word is removed but its file cannot be
+ * deleted, when fresh results replace older ones, or when a crash happens
+ * between caching the results and recording them in history. Temporary files
+ * left by an interrupted {@link RecordFile#write(File, byte[])}, and responses
+ * to peers encoded from results that were since replaced, are orphans as well.
+ *
+ * Every "powerdict.compactor.interval" milliseconds the folder is scanned in
+ * parallel, and the orphans older than "powerdict.compactor.grace"
+ * milliseconds are deleted, at most "powerdict.compactor.rate" per second and
+ * only while no search is running. Only the temporary files Power-Dict writes
+ * itself are considered, never other files of the folders. The journal of
+ * history is then folded into the index, so that the changes it holds stop
+ * taking space as well. Nothing is swept unless this process holds the lock on
+ * history.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class HistoryCompactor {
+    private static AppIO appIO = AppIO.getInstance();
+
+    private VocabIndexer indexer;
+
+    /**
+     * the folder the results are cached in
+     */
+    private File historyFolder;
+
+    /**
+     * the folder the index and its journal are kept in
+     */
+    private File indexFolder;
+
+    /**
+     * the folder Wordnik responses are stored in
+     */
+    private File responseFolder;
+
+    private long intervalMillis;
+    private long graceMillis;
+
+    /**
+     * milliseconds to wait between two deletions
+     */
+    private long pauseMillis;
+
+    /**
+     * the scan runs on a pool of its own, so that it doesn't take the threads of
+     * the common pool from the foreground
+     */
+    private ForkJoinPool scanPool;
+
+    private ScheduledExecutorService scheduler;
+
+    private AtomicLong passes = new AtomicLong();
+    private AtomicLong scanned = new AtomicLong();
+    private AtomicLong orphansRemoved = new AtomicLong();
+    private AtomicLong tempsRemoved = new AtomicLong();
+    private AtomicLong bytesReclaimed = new AtomicLong();
+    private AtomicLong journalsFolded = new AtomicLong();
+
+    /**
+     * cached results of cleared history, in total and deleted so far
+     */
+    private AtomicLong clearTotal = new AtomicLong();
+    private AtomicLong clearDeleted = new AtomicLong();
+
+    /**
+     * cached results of cleared history deleted in parallel at a time
+     */
+    private int clearBatch;
+
+    /**
+     * Construct a compactor of the history of the given indexer
+     *
+     * @param indexer       the indexer whose history is compacted
+     * @param historyFolder the folder the results are cached in
+     */
+    public HistoryCompactor(VocabIndexer indexer, File historyFolder) {
+        this.indexer = indexer;
+        this.historyFolder = historyFolder;
+        this.indexFolder = historyFolder.getAbsoluteFile().getParentFile();
+        this.responseFolder = new File(this.indexFolder, "responses");
+        this.intervalMillis = AppConfig.getLong("powerdict.compactor.interval", 60000);
+        this.graceMillis = AppConfig.getLong("powerdict.compactor.grace", 60000);
+        this.pauseMillis = 1000 / Math.max(1, AppConfig.getInt("powerdict.compactor.rate", 50));
+        this.clearBatch = Math.max(1, AppConfig.getInt("powerdict.compactor.clearBatch", 256));
+
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.scanPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("compactor-scan");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }, null, false);
+    }
+
+    /**
+     * Start compacting periodically, unless "powerdict.compactor.interval" is 0
+     */
+    public void start() {
+        if (this.intervalMillis <= 0 || this.scheduler != null) {
+            return;
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "compactor");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+
+        this.scheduler.scheduleWithFixedDelay(() -> {
+            // a background pass has nobody to tell about its failures
+            appIO.withOutput(Writer.nullWriter(), () -> {
+                this.compact();
+                return null;
+            });
+        }, this.intervalMillis, this.intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop compacting, along with a pass or a deletion of cleared history that
+     * is running
+     */
+    public void stop() {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+        }
+
+        this.scanPool.shutdownNow();
+    }
+
+    /**
+     * Run one pass of the compactor
+     *
+     * @return the number of files deleted
+     */
+    public int compact() {
+        // the files of another process working on history would look like orphans
+        if (!this.indexer.ownsStore()) {
+            return 0;
+        }
+
+        this.passes.incrementAndGet();
+
+        long oldest = System.currentTimeMillis() - this.graceMillis;
+        Set<String> referenced = this.indexer.getCachedFiles();
+        List<File> orphans = this.scan(this.historyFolder, oldest, name -> name.endsWith(".tmp")
+                || (name.endsWith(".ser") && !referenced.contains(name.substring(0, name.length() - 4)))
+                || (name.endsWith(".peer") && !referenced.contains(name.substring(0, name.length() - 5))));
+
+        orphans.addAll(this.scan(this.indexFolder, oldest,
+                name -> name.matches("(index|posindex)\\..*\\.tmp")));
+        orphans.addAll(this.scan(this.responseFolder, oldest,
+                name -> name.startsWith("response") && name.endsWith(".tmp")));
+
+        int deleted = 0;
+
+        for (File orphan : orphans) {
+            if (!this.waitForIdle() || !this.indexer.ownsStore()) {
+                break;
+            }
+
+            // the pauses let history change since the scan, so the file is looked at again
+            if (!this.isStillOrphan(orphan)) {
+                continue;
+            }
+
+            long length = orphan.length();
+
+            if (orphan.delete()) {
+                deleted++;
+                this.bytesReclaimed.addAndGet(length);
+
+                if (orphan.getName().endsWith(".tmp")) {
+                    this.tempsRemoved.incrementAndGet();
+                }
+
+                else {
+                    this.orphansRemoved.incrementAndGet();
+                }
+            }
+        }
+
+        if (this.waitForIdle() && this.indexer.foldJournal()) {
+            this.journalsFolded.incrementAndGet();
+        }
+
+        return deleted;
+    }
+
+    /**
+     * Delete the cached results of a cleared history in the background. The
+     * files are deleted in parallel, "powerdict.compactor.clearBatch" at a time,
+     * pausing between batches like the sweep does. Files left behind, for
+     * example by exiting early, are orphans swept by a later pass.
+     *
+     * @param filenames the names of the files, without extension
+     * @return the number of files deleted, once they all have been tried
+     */
+    public CompletableFuture<Integer> deleteAll(Collection<String> filenames) {
+        List<String> remaining = new ArrayList<>(filenames);
+        this.clearTotal.addAndGet(remaining.size());
+
+        return CompletableFuture.supplyAsync(() -> {
+            int deleted = 0;
+
+            for (int from = 0; from < remaining.size(); from = from + this.clearBatch) {
+                List<String> batch = remaining.subList(from, Math.min(remaining.size(), from + this.clearBatch));
+
+                deleted = deleted + (int) batch.parallelStream().filter(Vocab::remove).count();
+                this.clearDeleted.addAndGet(batch.size());
+
+                if (!this.waitForIdle()) {
+                    break;
+                }
+            }
+
+            return deleted;
+        }, this.scanPool);
+    }
+
+    /**
+     * Find the orphans of a folder in parallel
+     *
+     * @param folder   the folder, skipped if it doesn't exist
+     * @param oldest   files modified after this time are left alone, they may be
+     *                 being written
+     * @param isOrphan tells the orphans apart by their name
+     * @return the orphans
+     */
+    private List<File> scan(File folder, long oldest, Predicate<String> isOrphan) {
+        if (!folder.isDirectory()) {
+            return new ArrayList<>();
+        }
+
+        try (Stream<Path> paths = Files.list(folder.toPath())) {
+            List<Path> all = paths.collect(Collectors.toList());
+
+            return this.scanPool.submit(() -> all.parallelStream().map(Path::toFile).filter(f -> {
+                this.scanned.incrementAndGet();
+
+                return isOrphan.test(f.getName()) && f.isFile() && f.lastModified() < oldest;
+            }).collect(Collectors.toList())).get();
+        }
+
+        catch (IOException | ExecutionException e) {
+            appIO.printf("%n%n[%s] Unable to scan \"%s\" for unused files", ColorText.text("FAIL", Color.RED),
+                    appIO.fetchCanonical(folder));
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Check right before deleting it that an orphan found by a scan is still
+     * one: history doesn't refer to it, and it hasn't been written within the
+     * grace period. Names of files left on the disk are not handed out again, see
+     * {@link VocabIndexer#isFreeName(String)}, so it can't be referred to between
+     * this check and its deletion.
+     *
+     * @param orphan the file found by the scan
+     * @return <code>true</code> if it may be deleted, <code>false</code> otherwise
+     */
+    private boolean isStillOrphan(File orphan) {
+        String name = orphan.getName();
+        int extension = name.lastIndexOf('.');
+
+        if (!orphan.isFile() || orphan.lastModified() >= System.currentTimeMillis() - this.graceMillis) {
+            return false;
+        }
+
+        return name.endsWith(".tmp") || !this.indexer.refersTo(name.substring(0, extension));
+    }
+
+    /**
+     * Wait for the pause between two deletions, and for the searches running to
+     * finish
+     *
+     * @return <code>true</code> when it's time to go on, <code>false</code> if
+     *         the thread was interrupted
+     */
+    private boolean waitForIdle() {
+        try {
+            do {
+                Thread.sleep(this.pauseMillis);
+            } while (this.indexer.isSearching());
+
+            return true;
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Print what the compactor has reclaimed since start
+     */
+    public void printStats() {
+        appIO.printf("%n%n%s%n", ColorText.text("History compactor -", Color.MAGENTA));
+        appIO.printf("%n- Passes            : %d", this.passes.get());
+        appIO.printf("%n- Files scanned     : %d", this.scanned.get());
+        appIO.printf("%n- Orphans removed   : %d", this.orphansRemoved.get());
+        appIO.printf("%n- Temp files removed: %d", this.tempsRemoved.get());
+        appIO.printf("%n- Bytes reclaimed   : %d", this.bytesReclaimed.get());
+        appIO.printf("%n- Journals folded   : %d", this.journalsFolded.get());
+
+        if (this.clearTotal.get() > 0) {
+            appIO.printf("%n- Cleared history   : %d of %d files deleted (%.0f%%)", this.clearDeleted.get(),
+                    this.clearTotal.get(), 100.0 * this.clearDeleted.get() / this.clearTotal.get());
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+/**
+ * Exports the whole history to a file, and imports it back, as one JSON object
+ * per line. The lines have the format of the local dictionary file (see
+ * {@link LocalFileProvider}), along with the time each word was fetched:
+ *
+ * <pre>
+ * {"word":"serendipity","definition":["..."],"partOfSpeech":["noun"],"synonyms":"chance, fluke","fetchedAt":1634567890123}
+ * </pre>
+ *
+ * Both directions stream the file, holding one word at a time on export and
+ * one batch of "powerdict.import.batch" lines at a time on import. An import
+ * parses and caches the words of a batch in parallel, skips the words already
+ * in history, and then records the whole batch in history at once.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class HistoryTransfer {
+    private AppIO appIO;
+    private VocabIndexer indexer;
+    private Gson gson;
+
+    /**
+     * lines of the file imported at a time
+     */
+    private int batchSize;
+
+    /**
+     * Construct a transfer of the history of the given indexer
+     *
+     * @param indexer the indexer whose history is exported or imported
+     */
+    public HistoryTransfer(VocabIndexer indexer) {
+        this.appIO = AppIO.getInstance();
+        this.indexer = indexer;
+        this.gson = new Gson();
+        this.batchSize = Math.max(1, AppConfig.getInt("powerdict.import.batch", 1000));
+    }
+
+    /**
+     * Write every word in history to a file, one JSON object per line
+     *
+     * @param target the file to write
+     * @return <code>true</code> if every word was exported, <code>false</code>
+     *         otherwise
+     */
+    public boolean exportTo(File target) {
+        long start = System.nanoTime();
+        HashMap<String, String> index = this.indexer.getIndexSnapshot();
+        int exported = 0;
+        long bytes = 0;
+
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(target), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, String> e : index.entrySet()) {
+                Vocab vocab = Vocab.read(e.getValue());
+
+                // a word whose cached results are unreadable is left out, and reported below
+                if (vocab == null) {
+                    continue;
+                }
+
+                String line = this.gson.toJson(this.toJson(vocab));
+
+                out.write(line);
+                out.write('\n');
+
+                exported++;
+                bytes = bytes + line.length() + 1;
+            }
+        }
+
+        catch (IOException e) {
+            this.appIO.printf(
+                    "%n%n[%s] Unable to export history to \"%s\". Please make sure Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(target));
+            return false;
+        }
+
+        this.appIO.printf("%n%n[%s] Exported %d of %d words to \"%s\"", ColorText.text("DONE", Color.GREEN), exported,
+                index.size(), this.appIO.fetchCanonical(target));
+        this.printThroughput(exported, bytes, start);
+
+        return exported == index.size();
+    }
+
+    /**
+     * Add the words of a file written by {@link #exportTo(File)} to history.
+     * Words already in history, and words repeated in the file, are skipped.
+     *
+     * @param source the file to read
+     * @return <code>true</code> if the file was read through, <code>false</code>
+     *         otherwise
+     */
+    public boolean importFrom(File source) {
+        long start = System.nanoTime();
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        Set<String> takenNames = ConcurrentHashMap.newKeySet();
+        takenNames.addAll(this.indexer.getCachedFiles());
+
+        int[] counts = new int[4];
+        long bytes = 0;
+
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8))) {
+            List<String> batch = new ArrayList<>(this.batchSize);
+            String line;
+
+            while ((line = br.readLine()) != null) {
+                bytes = bytes + line.length() + 1;
+
+                if (line.trim().equals("")) {
+                    continue;
+                }
+
+                batch.add(line);
+
+                if (batch.size() == this.batchSize) {
+                    this.importBatch(batch, seen, takenNames, counts);
+                    batch.clear();
+                }
+            }
+
+            this.importBatch(batch, seen, takenNames, counts);
+        }
+
+        catch (IOException e) {
+            this.appIO.printf(
+                    "%n%n[%s] Unable to import history from \"%s\". Please make sure file exists and Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(source));
+            return false;
+        }
+
+        finally {
+            // the batches are in the journal, save the history as a whole once
+            this.indexer.checkpoint();
+        }
+
+        this.appIO.printf("%n%n[%s] Imported %d words from \"%s\"", ColorText.text("DONE", Color.GREEN), counts[0],
+                this.appIO.fetchCanonical(source));
+        this.appIO.printf("%n%n- Already in history : %d", counts[1]);
+        this.appIO.printf("%n- Malformed lines    : %d", counts[2]);
+        this.appIO.printf("%n- Failed to cache    : %d", counts[3]);
+        this.printThroughput(counts[0] + counts[1] + counts[2] + counts[3], bytes, start);
+
+        return true;
+    }
+
+    /**
+     * Import one batch of lines
+     *
+     * @param lines      the lines
+     * @param seen       the words of the file imported or skipped so far
+     * @param takenNames the names of the files in use, names given to the batch
+     *                   are added
+     * @param counts     imported, duplicate, malformed and failed words so far,
+     *                   updated with the batch
+     */
+    private void importBatch(List<String> lines, Set<String> seen, Set<String> takenNames, int[] counts) {
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        List<Vocab> parsed = lines.parallelStream().map(this::fromJson).collect(Collectors.toList());
+        List<Vocab> fresh = new ArrayList<>();
+
+        for (Vocab vocab : parsed) {
+            if (vocab == null) {
+                counts[2]++;
+            }
+
+            else if (!seen.add(vocab.word) || this.indexer.contains(vocab.word)) {
+                counts[1]++;
+            }
+
+            else {
+                fresh.add(vocab);
+            }
+        }
+
+        // caching the results is the slow part, done in parallel before touching history
+        List<IndexJournal.Record> records = fresh.parallelStream().map(vocab -> {
+            String filename;
+
+            // neither a name in use, nor one of a file left to be deleted, which would delete the imported file
+            // along with it
+            do {
+                filename = VocabIndexer.randomName();
+            } while (!this.indexer.isFreeName(filename) || !takenNames.add(filename));
+
+            if (!Vocab.write(vocab, filename)) {
+                return null;
+            }
+
+            return new IndexJournal.Record(IndexJournal.Op.PUT, vocab.word, filename,
+                    vocab.getPartOfSpeechMask());
+        }).collect(Collectors.toList());
+
+        List<IndexJournal.Record> written = records.stream().filter(r -> r != null).collect(Collectors.toList());
+        int committed = this.indexer.commitImported(written);
+
+        counts[0] = counts[0] + committed;
+        counts[1] = counts[1] + written.size() - committed;
+        counts[3] = counts[3] + records.size() - written.size();
+    }
+
+    /**
+     * The JSON object of a line of the file
+     *
+     * @param vocab the vocab
+     * @return the object
+     */
+    private JsonObject toJson(Vocab vocab) {
+        JsonObject obj = new JsonObject();
+        JsonArray definitions = new JsonArray();
+        JsonArray partsOfSpeech = new JsonArray();
+
+        for (WordnikDef def : vocab.toWordnikDefs()) {
+            definitions.add(def.text);
+            partsOfSpeech.add(def.partOfSpeech == null ? "" : def.partOfSpeech);
+        }
+
+        obj.addProperty("word", vocab.word);
+        obj.add("definition", definitions);
+        obj.add("partOfSpeech", partsOfSpeech);
+
+        if (vocab.getSynonyms() != null) {
+            obj.addProperty("synonyms", vocab.getSynonyms());
+        }
+
+        obj.addProperty("fetchedAt", vocab.fetchedAt);
+
+        return obj;
+    }
+
+    /**
+     * The vocab of a line of the file
+     *
+     * @param line the line
+     * @return the vocab, grouped by part of speech, or <code>null</code> if the
+     *         line is malformed
+     */
+    private Vocab fromJson(String line) {
+        try {
+            Vocab entry = this.gson.fromJson(line, Vocab.class);
+
+            if (!Vocab.isWellFormed(entry)) {
+                return null;
+            }
+
+            Vocab vocab = new Vocab(entry.word, entry.toWordnikDefs(), entry.getSynonyms());
+            vocab.fetchedAt = (entry.fetchedAt > 0) ? entry.fetchedAt : System.currentTimeMillis();
+            vocab.source = "import";
+
+            return vocab;
+        }
+
+        catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Print how fast words went through
+     *
+     * @param words the number of words
+     * @param bytes the characters of the file
+     * @param start when the transfer started, in nanoseconds
+     */
+    private void printThroughput(int words, long bytes, long start) {
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        double seconds = elapsed / 1e9;
+
+        this.appIO.printf("%n- Time taken         : %d ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        this.appIO.printf("%n- Throughput         : %.0f words/s, %.1f MB/s", words / seconds,
+                bytes / seconds / (1 << 20));
+    }
+}
@@ -0,0 +1,278 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Raw response bodies of the Wordnik API, kept on disk along with their
+ * validators.
+ *
+ * A response is stored when it carries an ETag or a Last-Modified header. The
+ * next request for the same URL sends them back as If-None-Match and
+ * If-Modified-Since, and if the API answers 304 Not Modified, the body is taken
+ * from here instead of being downloaded again. Each response is stored in its
+ * own file in the folder "responses", named after the hash of its URL without
+ * the API key:
+ *
+ * <pre>
+ * UTF    ETag, empty if none
+ * UTF    Last-Modified, empty if none
+ * long   time (millis since epoch) the response was stored
+ * byte[] gzip compressed body, up to the end of the file
+ * </pre>
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class HttpResponseCache {
+    private static AppIO appIO = AppIO.getInstance();
+    private static Charset charset = java.nio.charset.StandardCharsets.UTF_8;
+
+    /**
+     * the responses are stored in this folder
+     */
+    private File folder;
+
+    private AtomicLong stored = new AtomicLong();
+    private AtomicLong notModified = new AtomicLong();
+    private AtomicLong bytesNotDownloaded = new AtomicLong();
+    private AtomicLong rawBytesStored = new AtomicLong();
+    private AtomicLong compressedBytesStored = new AtomicLong();
+
+    /**
+     * The instance variable containing the one and only object of
+     * HttpResponseCache
+     */
+    private static HttpResponseCache instanceVar = null;
+
+    /**
+     * HttpResponseCache follows Singleton design pattern
+     *
+     * @return the instance of this HttpResponseCache
+     */
+    public static synchronized HttpResponseCache getInstance() {
+        if (instanceVar == null)
+            instanceVar = new HttpResponseCache();
+
+        return instanceVar;
+    }
+
+    /**
+     * Private constructor to restrict instantiating by foreign functions
+     */
+    private HttpResponseCache() {
+        this.folder = new File("responses");
+        this.folder.mkdirs();
+    }
+
+    /**
+     * The validators of the stored response for a URL
+     *
+     * @param urlquery the URL of the request
+     * @return the entry, or <code>null</code> if no response is stored for the
+     *         URL
+     */
+    public Entry get(URL urlquery) {
+        File f = this.fileFor(urlquery);
+
+        if (!f.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            return new Entry(f, dis.readUTF(), dis.readUTF(), dis.readLong());
+        }
+
+        catch (IOException e) {
+            // a stored response that cannot be read is as good as none
+            f.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Read the body of a stored response, after the API confirmed that it's
+     * still current
+     *
+     * @param entry the entry returned by {@link #get(URL)}
+     * @return the body, or <code>null</code> if it cannot be read
+     */
+    public String readBody(Entry entry) {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(entry.file)))) {
+            dis.readUTF();
+            dis.readUTF();
+            dis.readLong();
+
+            byte[] body = new GZIPInputStream(dis).readAllBytes();
+
+            this.notModified.incrementAndGet();
+            this.bytesNotDownloaded.addAndGet(body.length);
+
+            return new String(body, charset);
+        }
+
+        catch (IOException e) {
+            appIO.printf("%n%n[%s] Unable to read the stored response \"%s\". It will be downloaded again",
+                    ColorText.text("FAIL", Color.RED), appIO.fetchCanonical(entry.file));
+            entry.file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Store the body of a response along with its validators. Responses without
+     * any validator cannot be revalidated, and are not stored.
+     *
+     * @param urlquery     the URL of the request
+     * @param etag         the ETag header of the response, may be
+     *                     <code>null</code>
+     * @param lastModified the Last-Modified header of the response, may be
+     *                     <code>null</code>
+     * @param body         the body of the response
+     * @return <code>true</code> if the response is stored, <code>false</code>
+     *         otherwise
+     */
+    public boolean put(URL urlquery, String etag, String lastModified, String body) {
+        if (etag == null && lastModified == null) {
+            return false;
+        }
+
+        File f = this.fileFor(urlquery);
+        File temp = null;
+
+        try {
+            byte[] raw = body.getBytes(charset);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(raw);
+            }
+
+            // write aside and rename, so that a concurrent reader never sees half a file
+            temp = File.createTempFile("response", ".tmp", this.folder);
+
+            try (DataOutputStream dos = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                dos.writeUTF(etag == null ? "" : etag);
+                dos.writeUTF(lastModified == null ? "" : lastModified);
+                dos.writeLong(System.currentTimeMillis());
+                compressed.writeTo(dos);
+            }
+
+            Files.move(temp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            this.stored.incrementAndGet();
+            this.rawBytesStored.addAndGet(raw.length);
+            this.compressedBytesStored.addAndGet(compressed.size());
+
+            return true;
+        }
+
+        catch (IOException e) {
+            appIO.printf(
+                    "%n%n[%s] Unable to store the response in \"%s\". Please make sure Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), appIO.fetchCanonical(this.folder));
+
+            if (temp != null) {
+                temp.delete();
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * The file in which the response for a URL is stored. The API key is left
+     * out of the name, so that the response is found whichever key is used.
+     *
+     * @param urlquery the URL of the request
+     * @return the file
+     */
+    private File fileFor(URL urlquery) {
+        String key = urlquery.toString().replaceAll("[?&]api_key=[^&]*", "");
+
+        try {
+            StringBuilder name = new StringBuilder();
+
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(key.getBytes(charset))) {
+                name.append(String.format("%02x", b));
+            }
+
+            return new File(this.folder, name.append(".gz").toString());
+        }
+
+        catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Print how many responses were stored and revalidated, and how much the
+     * compression and the revalidation saved
+     */
+    public void printStats() {
+        long raw = this.rawBytesStored.get();
+
+        appIO.printf("%n%n%s%n", ColorText.text("HTTP response cache -", Color.MAGENTA));
+        appIO.printf("%n- Responses stored : %d", this.stored.get());
+        appIO.printf("%n- Not modified     : %d (%d bytes not downloaded)", this.notModified.get(),
+                this.bytesNotDownloaded.get());
+        appIO.printf("%n- Compression      : %d bytes stored as %d bytes (%d%%)", raw,
+                this.compressedBytesStored.get(), (raw == 0) ? 0 : this.compressedBytesStored.get() * 100 / raw);
+    }
+
+    /**
+     * The validators of a stored response
+     */
+    public static class Entry {
+        private File file;
+        private String etag;
+        private String lastModified;
+        private long storedAt;
+
+        /**
+         * Construct an entry
+         *
+         * @param file         the file holding the response
+         * @param etag         the ETag, empty if none
+         * @param lastModified the Last-Modified, empty if none
+         * @param storedAt     time (millis since epoch) the response was stored
+         */
+        private Entry(File file, String etag, String lastModified, long storedAt) {
+            this.file = file;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAt = storedAt;
+        }
+
+        public String getEtag() {
+            return this.etag.isEmpty() ? null : this.etag;
+        }
+
+        public String getLastModified() {
+            return this.lastModified.isEmpty() ? null : this.lastModified;
+        }
+
+        public long getStoredAt() {
+            return this.storedAt;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of the changes made to the history index since it was last
+ * written as a whole.
+ *
+ * Adding or removing a word appends one small record instead of rewriting the
+ * whole index. Every record is checksummed, so that a record torn by a crash is
+ * detected and cut off when the journal is replayed at start-up:
+ *
+ * <pre>
+ * int    length of the payload
+ * int    CRC32C of the payload
+ * byte   operation, PUT, REMOVE or CLEAR
+ * UTF    word, empty for CLEAR
+ * UTF    file the word is cached in, empty for REMOVE and CLEAR
+ * int    parts of speech of the word, 0 for REMOVE and CLEAR
+ * </pre>
+ *
+ * Records are forced to the disk in batches of "powerdict.journal.fsyncBatch"
+ * records, trading the last few changes on a crash for fewer forced writes.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class IndexJournal {
+    /**
+     * The operations recorded in the journal. CLEAR removes every word.
+     */
+    public enum Op {
+        PUT, REMOVE, CLEAR
+    }
+
+    /**
+     * A change recorded in the journal
+     */
+    public static class Record {
+        private Op op;
+        private String word;
+        private String filename;
+        private int mask;
+
+        /**
+         * Construct a record
+         *
+         * @param op       the operation
+         * @param word     the word, empty for CLEAR
+         * @param filename the file the word is cached in, empty for REMOVE and
+         *                 CLEAR
+         * @param mask     the parts of speech of the word, 0 for REMOVE and CLEAR
+         */
+        public Record(Op op, String word, String filename, int mask) {
+            this.op = op;
+            this.word = word;
+            this.filename = filename;
+            this.mask = mask;
+        }
+
+        public Op getOp() {
+            return this.op;
+        }
+
+        public String getWord() {
+            return this.word;
+        }
+
+        public String getFilename() {
+            return this.filename;
+        }
+
+        public int getMask() {
+            return this.mask;
+        }
+    }
+
+    /**
+     * the journal is kept in this file
+     */
+    private File journalFile;
+
+    private FileChannel channel;
+
+    /**
+     * records to append before forcing them to the disk
+     */
+    private int fsyncBatch;
+
+    /**
+     * records appended since the journal was last forced to the disk
+     */
+    private int unsynced;
+
+    /**
+     * records in the journal
+     */
+    private int records;
+
+    /**
+     * Construct a journal kept in the given file. The file is only opened by
+     * {@link #replay(Consumer)}.
+     *
+     * @param journalFile the file
+     */
+    public IndexJournal(File journalFile) {
+        this.journalFile = journalFile;
+        this.fsyncBatch = Math.max(1, AppConfig.getInt("powerdict.journal.fsyncBatch", 8));
+    }
+
+    /**
+     * Apply every intact record to the consumer, in order, cut off a torn or
+     * corrupted tail, and open the journal for appending
+     *
+     * @param consumer receives the records
+     * @return the number of bytes cut off, 0 if the journal was intact
+     * @throws IOException if the journal cannot be read or opened
+     */
+    public synchronized long replay(Consumer<Record> consumer) throws IOException {
+        this.channel = FileChannel.open(this.journalFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.records = 0;
+
+        long size = this.channel.size();
+        long valid = 0;
+        ByteBuffer header = ByteBuffer.allocate(8);
+
+        while (valid + 8 <= size) {
+            header.clear();
+            this.channel.read(header, valid);
+            header.flip();
+
+            int length = header.getInt();
+            int crc = header.getInt();
+
+            if (length <= 0 || valid + 8 + length > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+
+            while (payload.hasRemaining() && this.channel.read(payload, valid + 8 + payload.position()) > 0) {
+                // keep reading
+            }
+
+            if (RecordFile.checksum(payload.array(), 0, length) != crc) {
+                break;
+            }
+
+            Record record;
+
+            try {
+                record = decode(payload.array());
+            }
+
+            catch (IOException e) {
+                break;
+            }
+
+            consumer.accept(record);
+
+            valid = valid + 8 + length;
+            this.records++;
+        }
+
+        if (valid < size) {
+            this.channel.truncate(valid);
+            this.channel.force(true);
+        }
+
+        this.channel.position(valid);
+
+        return size - valid;
+    }
+
+    /**
+     * Append a record, forcing the journal to the disk when a batch is complete
+     *
+     * @param record the record
+     * @throws IOException if the record cannot be appended
+     */
+    public synchronized void append(Record record) throws IOException {
+        byte[] payload = encode(record);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+
+        buffer.putInt(payload.length);
+        buffer.putInt(RecordFile.checksum(payload, 0, payload.length));
+        buffer.put(payload);
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+
+        this.records++;
+
+        if (++this.unsynced >= this.fsyncBatch) {
+            this.sync();
+        }
+    }
+
+    /**
+     * Force the appended records to the disk
+     *
+     * @return <code>true</code> if every appended record is on the disk,
+     *         <code>false</code> otherwise
+     */
+    public synchronized boolean sync() {
+        if (this.channel == null || this.unsynced == 0) {
+            return true;
+        }
+
+        DiskEvent event = new DiskEvent();
+        event.begin();
+
+        try {
+            if (RecordFile.isFsync()) {
+                this.channel.force(false);
+            }
+
+            this.unsynced = 0;
+            event.emitFlush(this.journalFile);
+            return true;
+        }
+
+        catch (IOException e) {
+            // the records are still in the journal, the next sync tries again
+            return false;
+        }
+    }
+
+    /**
+     * Empty the journal, after the index has been written as a whole
+     *
+     * @throws IOException if the journal cannot be emptied
+     */
+    public synchronized void reset() throws IOException {
+        this.channel.truncate(0);
+        this.channel.position(0);
+        this.channel.force(true);
+
+        this.records = 0;
+        this.unsynced = 0;
+    }
+
+    /**
+     * Number of records in the journal
+     *
+     * @return the number of records
+     */
+    public synchronized int getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Encode the payload of a record
+     *
+     * @param record the record
+     * @return the payload
+     * @throws IOException if the record cannot be encoded
+     */
+    private static byte[] encode(Record record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bytes);
+
+        dos.writeByte(record.op.ordinal());
+        dos.writeUTF(record.word);
+        dos.writeUTF(record.filename);
+        dos.writeInt(record.mask);
+        dos.flush();
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode the payload of a record
+     *
+     * @param payload the payload
+     * @return the record
+     * @throws IOException if the payload is not a record
+     */
+    private static Record decode(byte[] payload) throws IOException {
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(payload));
+
+        int op = dis.readByte();
+
+        if (op < 0 || op >= Op.values().length) {
+            throw new IOException("Unknown operation " + op);
+        }
+
+        return new Record(Op.values()[op], dis.readUTF(), dis.readUTF(), dis.readInt());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in microseconds, cheap enough to record every call of
+ * a hot path from any number of threads.
+ *
+ * Like an HDR histogram, the buckets are linear within each power of two and
+ * exponential across them, 16 buckets per power of two, so that any latency
+ * from a microsecond to hours is kept within about 6% of its value in a fixed
+ * array. Recording is an increment of one bucket, with no lock and no
+ * allocation.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class LatencyHistogram {
+    /**
+     * buckets per power of two, as a power of two
+     */
+    private static final int PRECISION = 4;
+    private static final int SUB_BUCKETS = 1 << PRECISION;
+
+    /**
+     * latencies above 2^(MAX_EXPONENT + 1) microseconds, about 38 hours, are
+     * counted as that
+     */
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private AtomicLongArray counts = new AtomicLongArray((MAX_EXPONENT - PRECISION + 2) * SUB_BUCKETS);
+    private LongAdder count = new LongAdder();
+    private LongAdder total = new LongAdder();
+    private LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Record a latency
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.min(MAX_VALUE, Math.max(0, nanos / 1000));
+
+        this.counts.incrementAndGet(index(micros));
+        this.count.increment();
+        this.total.add(micros);
+        this.max.accumulate(micros);
+    }
+
+    /**
+     * Forget all the latencies recorded so far
+     */
+    public void reset() {
+        for (int i = 0; i < this.counts.length(); i++) {
+            this.counts.set(i, 0);
+        }
+
+        this.count.reset();
+        this.total.reset();
+        this.max.reset();
+    }
+
+    /**
+     * The bucket of a latency
+     *
+     * @param micros the latency in microseconds
+     * @return the bucket
+     */
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+
+        int shift = (63 - Long.numberOfLeadingZeros(micros)) - PRECISION;
+
+        return (int) ((shift + 1) * SUB_BUCKETS + ((micros >>> shift) - SUB_BUCKETS));
+    }
+
+    /**
+     * The highest latency counted in a bucket
+     *
+     * @param index the bucket
+     * @return the latency in microseconds
+     */
+    static long highestIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Take a consistent enough view of the latencies recorded so far. Latencies
+     * recorded while the snapshot is taken may or may not be part of it.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[this.counts.length()];
+        long recorded = 0;
+
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = this.counts.get(i);
+            recorded = recorded + copy[i];
+        }
+
+        long highest = this.max.get();
+
+        return new Snapshot(recorded, (recorded == 0) ? 0 : this.total.sum() / recorded,
+                percentile(copy, recorded, 0.50, highest), percentile(copy, recorded, 0.90, highest),
+                percentile(copy, recorded, 0.99, highest), percentile(copy, recorded, 0.999, highest), highest);
+    }
+
+    /**
+     * The latency below which a share of the latencies fall
+     *
+     * @param counts   the counts of the buckets
+     * @param recorded the number of latencies in the buckets
+     * @param quantile the share, from 0 to 1
+     * @param highest  the highest latency recorded
+     * @return the latency in microseconds
+     */
+    private static long percentile(long[] counts, long recorded, double quantile, long highest) {
+        long rank = (long) Math.ceil(quantile * recorded);
+        long seen = 0;
+
+        for (int i = 0; i < counts.length && recorded > 0; i++) {
+            seen = seen + counts[i];
+
+            if (seen >= rank) {
+                return Math.min(highestIn(i), highest);
+            }
+        }
+
+        return highest;
+    }
+
+    /**
+     * Latencies of a histogram at one point in time, in microseconds. Published
+     * as is through JMX, see {@link MetricsMXBean}.
+     */
+    public static class Snapshot {
+        private long count;
+        private long mean;
+        private long p50;
+        private long p90;
+        private long p99;
+        private long p999;
+        private long max;
+
+        Snapshot(long count, long mean, long p50, long p90, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getMeanMicros() {
+            return this.mean;
+        }
+
+        public long getP50Micros() {
+            return this.p50;
+        }
+
+        public long getP90Micros() {
+            return this.p90;
+        }
+
+        public long getP99Micros() {
+            return this.p99;
+        }
+
+        public long getP999Micros() {
+            return this.p999;
+        }
+
+        public long getMaxMicros() {
+            return this.max;
+        }
+    }
+}
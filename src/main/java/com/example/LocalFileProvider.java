@@ -0,0 +1,130 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Offline {@link DictionaryProvider} reading words from a local file.
+ *
+ * The file holds one JSON object per line, with the same fields as
+ * {@link Vocab}. The parts of speech are optional:
+ *
+ * <pre>
+ * {"word":"serendipity","definition":["..."],"partOfSpeech":["noun"],"synonyms":"chance, fluke"}
+ * </pre>
+ *
+ * The file is read once, on the first lookup. A missing file is treated as an
+ * empty dictionary.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class LocalFileProvider implements DictionaryProvider {
+    private AppIO appIO;
+
+    /**
+     * the dictionary file
+     */
+    private File dictionaryFile;
+
+    /**
+     * lower cased word to its entry in the dictionary file
+     */
+    private HashMap<String, Vocab> entries;
+
+    /**
+     * Construct a provider for the given file
+     *
+     * @param dictionaryFile the dictionary file
+     */
+    public LocalFileProvider(File dictionaryFile) {
+        this.appIO = AppIO.getInstance();
+        this.dictionaryFile = dictionaryFile;
+    }
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public CompletableFuture<WordnikDef[]> fetchDefinitions(String word, Deadline deadline) {
+        Vocab entry = this.getEntries().get(word.toLowerCase());
+
+        if (entry == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.completedFuture(entry.toWordnikDefs());
+    }
+
+    @Override
+    public CompletableFuture<String> fetchSynonyms(String word, Deadline deadline) {
+        Vocab entry = this.getEntries().get(word.toLowerCase());
+
+        if (entry == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.completedFuture(entry.getSynonyms() == null ? "" : entry.getSynonyms());
+    }
+
+    /**
+     * Read the dictionary file, if not read already
+     *
+     * @return the entries of the dictionary file
+     */
+    private synchronized HashMap<String, Vocab> getEntries() {
+        if (this.entries != null) {
+            return this.entries;
+        }
+
+        this.entries = new HashMap<>();
+
+        if (!this.dictionaryFile.isFile()) {
+            return this.entries;
+        }
+
+        Gson g = new Gson();
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(this.dictionaryFile), java.nio.charset.StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = br.readLine()) != null) {
+                if (line.trim().equals("")) {
+                    continue;
+                }
+
+                try {
+                    Vocab entry = g.fromJson(line, Vocab.class);
+
+                    // lines such as "definition":[null] are skipped like malformed ones
+                    if (Vocab.isWellFormed(entry)) {
+                        this.entries.put(entry.word.toLowerCase(), entry);
+                    }
+                }
+
+                catch (JsonParseException e) {
+                    // skip the malformed line, and keep the rest of the dictionary
+                }
+            }
+        }
+
+        catch (IOException e) {
+            this.appIO.printf("%n%n[%s] Unable to read the local dictionary \"%s\"",
+                    ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(this.dictionaryFile));
+        }
+
+        return this.entries;
+    }
+}
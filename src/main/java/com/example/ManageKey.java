@@ -1,19 +1,34 @@
 package com.example;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Class to manage the API key for the Power-Dict
+ * Class to manage the API keys for the Power-Dict.
+ *
+ * Each API can have a pool of keys, each with its own daily quota. Keys are
+ * handed out round-robin or least-used first (setting
+ * "powerdict.keys.strategy"), keys rejected by the API are benched for a
+ * while, and the usage of every key is saved along with the keys so that the
+ * daily quotas hold across restarts.
+ *
+ * Handing out a key only counts the request in memory. The usage is saved in
+ * the background every "powerdict.keys.saveInterval" milliseconds, and when
+ * the JVM exits, by replacing the keys file atomically. A crash loses the
+ * usage of the last few seconds at most, never the keys.
  *
  * @author Bhavyai Gupta
  * @version 1.0.0
@@ -22,7 +37,46 @@ import java.util.Set;
 public class ManageKey {
     static private AppIO appIO = AppIO.getInstance();
     private File keysFile;
-    private HashMap<SupportedApi, String> keys;
+    private HashMap<SupportedApi, ArrayList<ApiKey>> keys;
+
+    /**
+     * position of the next key to hand out for each API, when handing out
+     * round-robin
+     */
+    private HashMap<SupportedApi, Integer> nextKey;
+
+    /**
+     * <code>true</code> to hand out the key used the least today,
+     * <code>false</code> to hand out keys round-robin
+     */
+    private boolean leastUsed;
+
+    /**
+     * how long a key is benched after the API rejects it as invalid
+     */
+    private long benchUnauthorized;
+
+    /**
+     * how long a key is benched after the API rejects it for too many requests
+     */
+    private long benchRateLimited;
+
+    /**
+     * whether the usage or the benching of a key changed since the keys were
+     * last saved
+     */
+    private volatile boolean dirty;
+
+    /**
+     * held while the keys are saved, so that an older snapshot never replaces a
+     * newer one. Taken before the lock of this object, never after.
+     */
+    private final Object saveLock = new Object();
+
+    /**
+     * saves the usage of the keys periodically
+     */
+    private ScheduledExecutorService saver;
 
     /**
      * The instance variable containing the one and only object of ManageKey
@@ -35,7 +89,7 @@ public class ManageKey {
      * @return the instance of this ManageKey
      * @throws IOException if the keys file cannot be read or created
      */
-    public static ManageKey getInstance() {
+    public static synchronized ManageKey getInstance() {
         try {
             if (instanceVar == null)
                 instanceVar = new ManageKey();
@@ -54,10 +108,39 @@ public class ManageKey {
      */
     private ManageKey() throws IOException {
         // set the location of the keysFiles
-        String defaultPath = "keys";
-        this.keysFile = new File(defaultPath);
+        this(new File("keys"));
 
-        this.keys = new HashMap<SupportedApi, String>();
+        long saveInterval = AppConfig.getLong("powerdict.keys.saveInterval", 10000);
+
+        if (saveInterval > 0) {
+            this.saver = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "keys");
+                t.setDaemon(true);
+                return t;
+            });
+
+            this.saver.scheduleWithFixedDelay(this::saveIfDirty, saveInterval, saveInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::saveIfDirty));
+    }
+
+    /**
+     * Construct the keys from a keys file, without saving their usage in the
+     * background
+     *
+     * @param keysFile the keys file, created if it doesn't exist
+     * @throws IOException if the keys file cannot be read or created
+     */
+    ManageKey(File keysFile) throws IOException {
+        this.keysFile = keysFile;
+
+        this.keys = new HashMap<SupportedApi, ArrayList<ApiKey>>();
+        this.nextKey = new HashMap<SupportedApi, Integer>();
+        this.leastUsed = AppConfig.get("powerdict.keys.strategy", "round-robin").equals("least-used");
+        this.benchUnauthorized = AppConfig.getLong("powerdict.keys.benchUnauthorized", 60L * 60 * 1000);
+        this.benchRateLimited = AppConfig.getLong("powerdict.keys.benchRateLimited", 60L * 1000);
 
         // if the keysFile can be read, read it to store the keys in the memory
         if (this.keysFile.isFile() && this.keysFile.canRead()) {
@@ -91,7 +174,9 @@ public class ManageKey {
     }
 
     /**
-     * Read the File keysFile into HashMap keys
+     * Read the File keysFile into HashMap keys. Files written by earlier
+     * versions, holding a single key per API, are converted to pools of one key
+     * without a quota.
      *
      * @return <code>true</code> if successfully deserialized, <code>false</code>
      *         otherwise
@@ -100,8 +185,9 @@ public class ManageKey {
     private boolean read() {
         boolean flag = false;
 
+        // files written before the keys were checksummed are read as they are
         try (ObjectInputStream ois = new ObjectInputStream(
-                new BufferedInputStream(new FileInputStream(this.keysFile)))) {
+                new ByteArrayInputStream(RecordFile.read(this.keysFile)))) {
             // clean the old keys (although not required as we are assigning a new object)
             this.keys.clear();
 
@@ -109,13 +195,24 @@ public class ManageKey {
             Object obj = ois.readObject();
 
             if (obj instanceof HashMap<?, ?>) {
-                this.keys = (HashMap<SupportedApi, String>) obj;
+                for (Map.Entry<SupportedApi, Object> entry : ((HashMap<SupportedApi, Object>) obj).entrySet()) {
+                    if (entry.getValue() instanceof String) {
+                        ArrayList<ApiKey> pool = new ArrayList<ApiKey>();
+                        pool.add(new ApiKey((String) entry.getValue(), 0));
+
+                        this.keys.put(entry.getKey(), pool);
+                    }
+
+                    else {
+                        this.keys.put(entry.getKey(), (ArrayList<ApiKey>) entry.getValue());
+                    }
+                }
 
                 flag = true;
             }
         }
 
-        catch (FileNotFoundException e) {
+        catch (FileNotFoundException | NoSuchFileException e) {
             appIO.printf("%n%n[%s] Cannot find \"%s\". Please try again later", ColorText.text("FAIL", Color.RED),
                     appIO.fetchCanonical(this.keysFile));
         }
@@ -158,68 +255,136 @@ public class ManageKey {
     }
 
     /**
-     * Save the HashMap keys into File keysFile
+     * Save the HashMap keys into File keysFile. The keys are serialized holding
+     * the lock of this object, and the file is replaced atomically after
+     * releasing it, so that handing out keys doesn't wait for the disk. Must not
+     * be called holding the lock of this object.
      *
-     * @return <code>true</code> if successfully deserialized, <code>false</code>
+     * @return <code>true</code> if successfully serialized, <code>false</code>
      *         otherwise
      */
     private boolean write() {
-        boolean flag = false;
+        synchronized (this.saveLock) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new BufferedOutputStream(new FileOutputStream(this.keysFile)))) {
+            try {
+                synchronized (this) {
+                    try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                        oos.writeObject(this.keys);
+                    }
 
-            oos.writeObject(this.keys);
-            oos.flush();
-            flag = true;
-        }
+                    this.dirty = false;
+                }
 
-        catch (FileNotFoundException e) {
-            appIO.printf("%n%n[%s] Cannot find \"%s\". Please try again later", ColorText.text("FAIL", Color.RED),
-                    appIO.fetchCanonical(this.keysFile));
-        }
+                RecordFile.write(this.keysFile, bytes.toByteArray());
+                return true;
+            }
 
-        catch (IOException e) {
-            appIO.printf(
-                    "%n%n[%s] Unable to save keys to \"%s\". Please make sure Power-Dict has appropriate permissions",
-                    ColorText.text("FAIL", Color.RED), appIO.fetchCanonical(this.keysFile));
+            catch (IOException e) {
+                // saved again by the next pass
+                this.dirty = true;
+
+                appIO.printf(
+                        "%n%n[%s] Unable to save keys to \"%s\". Please make sure Power-Dict has appropriate permissions",
+                        ColorText.text("FAIL", Color.RED), appIO.fetchCanonical(this.keysFile));
+                return false;
+            }
         }
+    }
 
-        return flag;
+    /**
+     * Save the keys if their usage or benching changed since they were last
+     * saved
+     */
+    void saveIfDirty() {
+        if (this.dirty) {
+            this.write();
+        }
     }
 
     /**
-     * Add an apikey to the Power-Dict
+     * Add an apikey to the Power-Dict. If the key is already in the pool, only
+     * its quota is updated.
      *
-     * @param label  the label of the apikey
-     * @param apikey the API key
-     * @return <code>true</code> if successfully deserialized, <code>false</code>
+     * @param label      the label of the apikey
+     * @param apikey     the API key
+     * @param dailyQuota number of requests allowed per day, 0 for no limit
+     * @return <code>true</code> if successfully serialized, <code>false</code>
      *         otherwise
      */
-    private boolean addKey(SupportedApi label, String apikey) {
-        apikey = apikey.trim();
+    boolean addKey(SupportedApi label, String apikey, int dailyQuota) {
+        String trimmed = apikey.trim();
+
+        synchronized (this) {
+            ArrayList<ApiKey> pool = this.keys.get(label);
+
+            if (pool == null) {
+                pool = new ArrayList<ApiKey>();
+                this.keys.put(label, pool);
+            }
+
+            ApiKey existing = pool.stream().filter(k -> k.getKey().equals(trimmed)).findFirst().orElse(null);
+
+            if (existing != null) {
+                existing.setDailyQuota(dailyQuota);
+            }
+
+            else {
+                pool.add(new ApiKey(trimmed, dailyQuota));
+            }
+        }
 
-        this.keys.put(label, apikey);
         return this.write();
     }
 
     /**
      * Remove a stored API key from the Power-Dict
      *
-     * @param label the label of the apikey to be removed
-     * @return <code>true</code> if successfully deserialized, <code>false</code>
+     * @param label    the label of the apikey to be removed
+     * @param position the position of the key in the pool, starting at 1
+     * @return <code>true</code> if successfully serialized, <code>false</code>
      *         otherwise
      */
-    private boolean removeKey(SupportedApi label) {
-        String test = this.keys.remove(label);
+    private boolean removeKey(SupportedApi label, int position) {
+        synchronized (this) {
+            ArrayList<ApiKey> pool = this.keys.get(label);
 
-        if (test == null) {
-            return false;
+            if (pool == null || position < 1 || position > pool.size()) {
+                return false;
+            }
+
+            pool.remove(position - 1);
         }
 
-        else {
-            return this.write();
+        return this.write();
+    }
+
+    /**
+     * Print all the keys stored by the Power-Dict for an API, with their quota
+     * and usage
+     *
+     * @param label the label of the API
+     * @return the number of keys printed
+     */
+    private synchronized int print(SupportedApi label) {
+        ArrayList<ApiKey> pool = this.keys.get(label);
+        long now = System.currentTimeMillis();
+
+        if (pool == null) {
+            return 0;
         }
+
+        for (int i = 0; i < pool.size(); i++) {
+            ApiKey k = pool.get(i);
+
+            appIO.printf("%n[%d] \"%s\" - used %d/%s today, %d in total%s", (i + 1), k.getKey(), k.getUsedToday(now),
+                    (k.getDailyQuota() > 0) ? String.valueOf(k.getDailyQuota()) : "unlimited", k.getUsedTotal(),
+                    (k.getBenchedUntil() > now)
+                            ? String.format(", benched for %d s", (k.getBenchedUntil() - now) / 1000)
+                            : "");
+        }
+
+        return pool.size();
     }
 
     /**
@@ -235,13 +400,90 @@ public class ManageKey {
     }
 
     /**
-     * Retrieve the API key stored by the Power-Dict
+     * Check if any API key is stored for the API, irrespective of whether it can
+     * be used right now
+     *
+     * @param label the label of the API
+     * @return <code>true</code> if at least one key is stored, <code>false</code>
+     *         otherwise
+     */
+    public synchronized boolean hasApiKey(SupportedApi label) {
+        ArrayList<ApiKey> pool = this.keys.get(label);
+
+        return pool != null && !pool.isEmpty();
+    }
+
+    /**
+     * Hand out an API key for one request, and count the request against the
+     * key's quota
      *
      * @param label the label of the API key to be retrieved
-     * @return the API key
+     * @return the API key, or <code>null</code> if no key is stored or every key
+     *         is benched or out of quota
      */
-    public String retrieveApiKey(SupportedApi label) {
-        return this.keys.get(label);
+    public synchronized ApiKey acquireApiKey(SupportedApi label) {
+        ArrayList<ApiKey> pool = this.keys.get(label);
+        long now = System.currentTimeMillis();
+
+        if (pool == null || pool.isEmpty()) {
+            return null;
+        }
+
+        ApiKey chosen = null;
+
+        if (this.leastUsed) {
+            for (ApiKey k : pool) {
+                if (k.isAvailable(now) && (chosen == null || k.getUsedToday(now) < chosen.getUsedToday(now))) {
+                    chosen = k;
+                }
+            }
+        }
+
+        else {
+            int start = this.nextKey.containsKey(label) ? this.nextKey.get(label) : 0;
+
+            for (int i = 0; i < pool.size(); i++) {
+                int position = (start + i) % pool.size();
+
+                if (pool.get(position).isAvailable(now)) {
+                    chosen = pool.get(position);
+                    this.nextKey.put(label, position + 1);
+                    break;
+                }
+            }
+        }
+
+        if (chosen != null) {
+            chosen.use(now);
+
+            // saved in the background, so that the quota is honoured after a restart
+            this.dirty = true;
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Tell ManageKey that the API rejected a key, so that the key is benched for
+     * a while
+     *
+     * @param key    the key that was rejected
+     * @param status the HTTP status the API responded with
+     */
+    public synchronized void reportRejected(ApiKey key, int status) {
+        if (status == 401) {
+            key.bench(System.currentTimeMillis() + this.benchUnauthorized);
+        }
+
+        else if (status == 429) {
+            key.bench(System.currentTimeMillis() + this.benchRateLimited);
+        }
+
+        else {
+            return;
+        }
+
+        this.dirty = true;
     }
 
     /**
@@ -256,9 +498,9 @@ public class ManageKey {
 
             appIO.printf("%n%nManage Keys");
             appIO.printf("%n-----------");
-            appIO.printf("%n%n[1] Add/overwrite the Wordnik API key");
-            appIO.printf("%n%n[2] Remove the Wordnik API key");
-            appIO.printf("%n%n[3] Reveal the Wordnik API key");
+            appIO.printf("%n%n[1] Add a Wordnik API key");
+            appIO.printf("%n%n[2] Remove a Wordnik API key");
+            appIO.printf("%n%n[3] Reveal the Wordnik API keys");
             appIO.printf("%n%n[0] Return to the previous the menu");
 
             try {
@@ -282,7 +524,19 @@ public class ManageKey {
                         }
 
                         else {
-                            if (this.addKey(SupportedApi.wordnik_v4, apikey)) {
+                            String quota = appIO.readLine(
+                                    "%n%n[%s] Enter the number of requests allowed per day (empty for no limit): ",
+                                    ColorText.text("QUES", Color.YELLOW));
+
+                            quota = quota.trim();
+                            int dailyQuota = quota.equals("") ? 0 : Integer.parseInt(quota);
+
+                            // a quota of 0 already means no limit, and a negative one would mean the same
+                            if (dailyQuota < 0) {
+                                throw new NumberFormatException();
+                            }
+
+                            if (this.addKey(SupportedApi.wordnik_v4, apikey, dailyQuota)) {
                                 appIO.printf("%n%n[%s] Key added successfully", ColorText.text("DONE", Color.GREEN));
                             }
 
@@ -300,35 +554,31 @@ public class ManageKey {
                     case 2: {
                         appIO.clearConsole();
 
-                        // ask for user confirmation
-                        String choice_clear = appIO.readLine(
-                                "%n%n[%s] Do you really want to remove the saved key (y/N)? ",
-                                ColorText.text("QUES", Color.YELLOW));
+                        appIO.printf("%n%n%s%n", ColorText.text("Wordnik API keys -", Color.MAGENTA));
 
-                        // is user doesn't say anything, dont clear history
-                        if ((choice_clear == null || choice_clear.equals(""))) {
-                            appIO.printf("%n%n[%s] Key not removed", ColorText.text("DONE", Color.GREEN));
+                        if (this.print(SupportedApi.wordnik_v4) == 0) {
+                            appIO.printf("%n%n[%s] No Wordnik API key is stored", ColorText.text("INFO", Color.BLUE));
                         }
 
-                        // if user said something, check what he said
                         else {
-                            // if user says yes
-                            if (choice_clear.charAt(0) == 'Y' || choice_clear.charAt(0) == 'y') {
-                                if (this.removeKey(SupportedApi.wordnik_v4)) {
-                                    appIO.printf("%n%n[%s] Key removed successfully",
-                                            ColorText.text("DONE", Color.GREEN));
-                                }
-
-                                else {
-                                    appIO.printf(
-                                            "%n%n[%s] Unable to remove key. Please check if it exists or try again later.",
-                                            ColorText.text("FAIL", Color.RED));
-                                }
+                            // ask which key to remove
+                            String choice_remove = appIO.readLine(
+                                    "%n%n[%s] Enter the number of the key to remove (empty to keep all): ",
+                                    ColorText.text("QUES", Color.YELLOW));
+
+                            // is user doesn't say anything, dont remove any key
+                            if ((choice_remove == null || choice_remove.trim().equals(""))) {
+                                appIO.printf("%n%n[%s] Key not removed", ColorText.text("DONE", Color.GREEN));
+                            }
+
+                            else if (this.removeKey(SupportedApi.wordnik_v4, Integer.parseInt(choice_remove.trim()))) {
+                                appIO.printf("%n%n[%s] Key removed successfully", ColorText.text("DONE", Color.GREEN));
                             }
 
-                            // if user says no
                             else {
-                                appIO.printf("%n%n[%s] Key not removed", ColorText.text("DONE", Color.GREEN));
+                                appIO.printf(
+                                        "%n%n[%s] Unable to remove key. Please check if it exists or try again later.",
+                                        ColorText.text("FAIL", Color.RED));
                             }
                         }
 
@@ -340,13 +590,9 @@ public class ManageKey {
                     case 3: {
                         appIO.clearConsole();
 
-                        String key = this.retrieveApiKey(SupportedApi.wordnik_v4);
-
-                        if (key != null) {
-                            appIO.printf("%n%n[%s] Wordnik API Key = \"%s\"", ColorText.text("INFO", Color.BLUE), key);
-                        }
+                        appIO.printf("%n%n%s%n", ColorText.text("Wordnik API keys -", Color.MAGENTA));
 
-                        else {
+                        if (this.print(SupportedApi.wordnik_v4) == 0) {
                             appIO.printf("%n%n[%s] No Wordnik API key is stored", ColorText.text("INFO", Color.BLUE));
                         }
 
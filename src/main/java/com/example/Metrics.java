@@ -0,0 +1,211 @@
+package com.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Latencies of each stage of a lookup, and counters of the cache, the disk and
+ * Wordnik, so that a slow lookup can be blamed on the network, the parsing, the
+ * disk or the console.
+ *
+ * The stages are timed by the code running them, which calls
+ * {@link #record(Stage, long)} with the time it started. Everything is
+ * published through JMX, see {@link MetricsMXBean}, and printed with the
+ * statistics of the menu, or by "--metrics" for a running daemon.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class Metrics implements MetricsMXBean {
+    /**
+     * The timed stages of a lookup
+     */
+    public enum Stage {
+        SEARCH("search"), HTTP("Wordnik request"), PARSE("JSON parsing"), VOCAB_READ("history read"),
+        VOCAB_WRITE("history write"), INDEX_WRITE("index write"), RENDER("rendering");
+
+        private String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return this.label;
+        }
+    }
+
+    private AppIO appIO;
+    private EnumMap<Stage, LatencyHistogram> latencies;
+
+    private LongAdder cacheHits = new LongAdder();
+    private LongAdder cacheMisses = new LongAdder();
+    private LongAdder bytesRead = new LongAdder();
+    private LongAdder bytesWritten = new LongAdder();
+    private ConcurrentHashMap<String, LongAdder> httpStatuses = new ConcurrentHashMap<>();
+
+    /**
+     * The instance variable containing the one and only object of Metrics
+     */
+    private static Metrics instanceVar = null;
+
+    /**
+     * Metrics follows Singleton design pattern
+     *
+     * @return the instance of Metrics
+     */
+    public static synchronized Metrics getInstance() {
+        if (instanceVar == null) {
+            instanceVar = new Metrics();
+        }
+
+        return instanceVar;
+    }
+
+    /**
+     * Private constructor, publishing the metrics through JMX
+     */
+    private Metrics() {
+        this.appIO = AppIO.getInstance();
+        this.latencies = new EnumMap<>(Stage.class);
+
+        for (Stage stage : Stage.values()) {
+            this.latencies.put(stage, new LatencyHistogram());
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("com.example:type=Metrics"));
+        }
+
+        catch (JMException e) {
+            // the metrics are still printed with the statistics
+        }
+    }
+
+    /**
+     * Record the latency of a stage which has just completed
+     *
+     * @param stage     the stage
+     * @param startNanos when the stage started, as given by
+     *                  {@link System#nanoTime()}
+     */
+    public void record(Stage stage, long startNanos) {
+        this.latencies.get(stage).record(System.nanoTime() - startNanos);
+    }
+
+    public void cacheHit() {
+        this.cacheHits.increment();
+    }
+
+    public void cacheMiss() {
+        this.cacheMisses.increment();
+    }
+
+    public void bytesRead(long bytes) {
+        this.bytesRead.add(bytes);
+    }
+
+    public void bytesWritten(long bytes) {
+        this.bytesWritten.add(bytes);
+    }
+
+    /**
+     * Count a response of Wordnik
+     *
+     * @param status the HTTP status, or a negative number if there was no response
+     */
+    public void httpStatus(int status) {
+        this.httpStatuses.computeIfAbsent((status < 0) ? "error" : String.valueOf(status), s -> new LongAdder())
+                .increment();
+    }
+
+    @Override
+    public Map<String, LatencyHistogram.Snapshot> getLatencies() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new LinkedHashMap<>();
+
+        for (Map.Entry<Stage, LatencyHistogram> entry : this.latencies.entrySet()) {
+            snapshots.put(entry.getKey().getLabel(), entry.getValue().snapshot());
+        }
+
+        return snapshots;
+    }
+
+    @Override
+    public long getCacheHits() {
+        return this.cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return this.cacheMisses.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return this.bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return this.bytesWritten.sum();
+    }
+
+    @Override
+    public Map<String, Long> getHttpStatuses() {
+        Map<String, Long> statuses = new TreeMap<>();
+
+        this.httpStatuses.forEach((status, count) -> statuses.put(status, count.sum()));
+
+        return statuses;
+    }
+
+    @Override
+    public void reset() {
+        this.latencies.values().forEach(LatencyHistogram::reset);
+        this.cacheHits.reset();
+        this.cacheMisses.reset();
+        this.bytesRead.reset();
+        this.bytesWritten.reset();
+        this.httpStatuses.clear();
+    }
+
+    /**
+     * Print the latencies of the stages that ran, and the counters
+     */
+    public void printStats() {
+        try (AppIO.Block out = this.appIO.block()) {
+            out.printf("%n%n%s%n", ColorText.text("Latencies (microseconds) -", Color.MAGENTA));
+            out.printf("%n  %-16s %8s %8s %8s %8s %8s %8s %9s", "stage", "count", "mean", "p50", "p90", "p99",
+                    "p99.9", "max");
+
+            for (Map.Entry<String, LatencyHistogram.Snapshot> entry : this.getLatencies().entrySet()) {
+                LatencyHistogram.Snapshot s = entry.getValue();
+
+                if (s.getCount() > 0) {
+                    out.printf("%n- %-16s %8d %8d %8d %8d %8d %8d %9d", entry.getKey(), s.getCount(),
+                            s.getMeanMicros(), s.getP50Micros(), s.getP90Micros(), s.getP99Micros(),
+                            s.getP999Micros(), s.getMaxMicros());
+                }
+            }
+
+            long hits = this.getCacheHits();
+            long searches = hits + this.getCacheMisses();
+
+            out.printf("%n%n%s%n", ColorText.text("Counters -", Color.MAGENTA));
+            out.printf("%n- Cache hits       : %d of %d searches (%.1f%%)", hits, searches,
+                    (searches == 0) ? 0.0 : 100.0 * hits / searches);
+            out.printf("%n- Bytes read       : %d", this.getBytesRead());
+            out.printf("%n- Bytes written    : %d", this.getBytesWritten());
+            out.printf("%n- Wordnik statuses : %s", this.getHttpStatuses());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link Metrics}, published as
+ * "com.example:type=Metrics" on the platform MBean server, for JConsole,
+ * VisualVM or any JMX client.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public interface MetricsMXBean {
+    /**
+     * The latencies of each stage of a lookup, by stage
+     *
+     * @return the latencies, in microseconds
+     */
+    Map<String, LatencyHistogram.Snapshot> getLatencies();
+
+    /**
+     * The searches answered from history or the bundle
+     *
+     * @return the number of searches
+     */
+    long getCacheHits();
+
+    /**
+     * The searches sent to the dictionary providers
+     *
+     * @return the number of searches
+     */
+    long getCacheMisses();
+
+    /**
+     * The bytes read from history and from Wordnik
+     *
+     * @return the number of bytes
+     */
+    long getBytesRead();
+
+    /**
+     * The bytes written to history
+     *
+     * @return the number of bytes
+     */
+    long getBytesWritten();
+
+    /**
+     * The responses of Wordnik, by HTTP status, with "error" for calls that got
+     * no response at all
+     *
+     * @return the number of responses
+     */
+    Map<String, Long> getHttpStatuses();
+
+    /**
+     * Forget everything measured so far
+     */
+    void reset();
+}
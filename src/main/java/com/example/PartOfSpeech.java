@@ -0,0 +1,108 @@
+package com.example;
+
+/**
+ * The parts of speech definitions are grouped by. Each part of speech has a bit
+ * in the masks kept per word by {@link PosIndex}.
+ *
+ * Wordnik labels are finer than these, for example "verb-transitive" and
+ * "verb-intransitive" are both VERB. Labels that don't fit any group are OTHER.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public enum PartOfSpeech {
+    NOUN, VERB, ADJECTIVE, ADVERB, PRONOUN, PREPOSITION, CONJUNCTION, INTERJECTION, OTHER;
+
+    /**
+     * The bit of this part of speech in a mask
+     *
+     * @return the bit
+     */
+    public int bit() {
+        return 1 << this.ordinal();
+    }
+
+    /**
+     * Check if a mask has this part of speech
+     *
+     * @param mask the mask
+     * @return <code>true</code> if the bit of this part of speech is set,
+     *         <code>false</code> otherwise
+     */
+    public boolean in(int mask) {
+        return (mask & this.bit()) != 0;
+    }
+
+    /**
+     * The group of a part of speech label, as sent by Wordnik
+     *
+     * @param label the label, may be <code>null</code> or empty
+     * @return the part of speech
+     */
+    public static PartOfSpeech of(String label) {
+        if (label == null) {
+            return OTHER;
+        }
+
+        String l = label.toLowerCase();
+
+        // "pronoun" has to be checked before "noun"
+        if (l.startsWith("pronoun")) {
+            return PRONOUN;
+        }
+
+        if (l.contains("noun")) {
+            return NOUN;
+        }
+
+        if (l.startsWith("verb") || l.startsWith("auxiliary-verb") || l.startsWith("phrasal-verb")) {
+            return VERB;
+        }
+
+        if (l.startsWith("adjective")) {
+            return ADJECTIVE;
+        }
+
+        if (l.startsWith("adverb")) {
+            return ADVERB;
+        }
+
+        if (l.startsWith("preposition")) {
+            return PREPOSITION;
+        }
+
+        if (l.startsWith("conjunction")) {
+            return CONJUNCTION;
+        }
+
+        if (l.startsWith("interjection")) {
+            return INTERJECTION;
+        }
+
+        return OTHER;
+    }
+
+    /**
+     * The part of speech typed by the user, such as "adjective" or "adj"
+     *
+     * @param name the name typed
+     * @return the part of speech, or <code>null</code> if none starts with the
+     *         name
+     */
+    public static PartOfSpeech parse(String name) {
+        String n = name.trim().toUpperCase();
+
+        if (n.isEmpty()) {
+            return null;
+        }
+
+        for (PartOfSpeech pos : values()) {
+            if (pos.name().startsWith(n)) {
+                return pos;
+            }
+        }
+
+        return null;
+    }
+}
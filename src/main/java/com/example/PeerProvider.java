@@ -0,0 +1,160 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * {@link DictionaryProvider} asking the Power-Dict node that owns a word on the
+ * {@link HashRing}, so that every word is fetched online by one node only.
+ *
+ * Words owned by this node are not known to this provider, and the next
+ * provider of the chain goes online for them. A peer that cannot be reached in
+ * time fails the call, which the chain treats the same way. A peer answers
+ * the synonyms along with the definitions, see
+ * {@link #fetchEntry(String, Deadline)}.
+ *
+ * The peers are configured by "powerdict.peers", and this node by
+ * "powerdict.peer.self", as it appears in "powerdict.peers".
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class PeerProvider implements DictionaryProvider {
+    private static Charset charset = java.nio.charset.StandardCharsets.UTF_8;
+
+    private AppIO appIO;
+    private Gson gson;
+    private HashRing ring;
+
+    /**
+     * this node, as it appears on the ring
+     */
+    private String self;
+
+    /**
+     * milliseconds to wait for a peer at most
+     */
+    private int timeoutMillis;
+
+    private ExecutorService executor;
+
+    /**
+     * Construct the provider from the settings
+     */
+    public PeerProvider() {
+        this(HashRing.fromConfig(), AppConfig.get("powerdict.peer.self", ""),
+                AppConfig.getInt("powerdict.peer.timeout", 2000));
+    }
+
+    /**
+     * Construct the provider for the given ring
+     *
+     * @param ring          the ring of the nodes
+     * @param self          this node, as it appears on the ring
+     * @param timeoutMillis milliseconds to wait for a peer at most
+     */
+    public PeerProvider(HashRing ring, String self, int timeoutMillis) {
+        this.appIO = AppIO.getInstance();
+        this.gson = new Gson();
+        this.ring = ring;
+        this.self = self;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "peer-client");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "peer";
+    }
+
+    @Override
+    public CompletableFuture<WordnikDef[]> fetchDefinitions(String word, Deadline deadline) {
+        return this.fetchEntry(word, deadline).thenApply(entry -> (entry == null) ? null : entry.getDefinitions());
+    }
+
+    /**
+     * The synonyms come along with the definitions, from
+     * {@link #fetchEntry(String, Deadline)}. Asked on their own, they are
+     * fetched from the peer again.
+     */
+    @Override
+    public CompletableFuture<String> fetchSynonyms(String word, Deadline deadline) {
+        return this.fetchEntry(word, deadline).thenApply(entry -> (entry == null) ? null : entry.getSynonyms());
+    }
+
+    @Override
+    public CompletableFuture<Entry> fetchEntry(String word, Deadline deadline) {
+        String owner = this.ring.owner(word);
+
+        if (owner == null || owner.equals(this.self)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.supplyAsync(this.appIO.withCurrentOutput(() -> {
+            PeerServer.Answer answer = this.ask(owner, word, deadline);
+
+            if (answer == null || answer.definitions == null) {
+                return null;
+            }
+
+            return new Entry(answer.definitions, (answer.synonyms == null) ? "" : answer.synonyms);
+        }), this.executor);
+    }
+
+    /**
+     * Ask a peer for a word
+     *
+     * @param owner    the peer, as host:port
+     * @param word     the word
+     * @param deadline the deadline of the search
+     * @return the answer, or <code>null</code> if the peer doesn't know the word
+     */
+    private PeerServer.Answer ask(String owner, String word, Deadline deadline) {
+        int separator = owner.lastIndexOf(':');
+        int timeout = (int) Math.max(1, Math.min(this.timeoutMillis, deadline.remainingMillis()));
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(owner.substring(0, separator),
+                    Integer.parseInt(owner.substring(separator + 1))), timeout);
+            socket.setSoTimeout(timeout);
+
+            OutputStream out = socket.getOutputStream();
+            out.write(("PEER " + word + "\n").getBytes(charset));
+            out.flush();
+
+            String response = new BufferedReader(new InputStreamReader(socket.getInputStream(), charset)).readLine();
+
+            if (response == null || !response.startsWith("FOUND ")) {
+                return null;
+            }
+
+            return this.gson.fromJson(response.substring("FOUND ".length()), PeerServer.Answer.class);
+        }
+
+        catch (IOException e) {
+            // the chain moves on to the next provider
+            throw new UncheckedIOException(e);
+        }
+
+        catch (JsonParseException | NumberFormatException | StringIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.google.gson.Gson;
+
+/**
+ * Answers the lookups of the other Power-Dict nodes for the words this node
+ * owns on the {@link HashRing}, over TCP.
+ *
+ * Each connection carries one request line and receives one response line:
+ *
+ * <pre>
+ * PEER word     FOUND {"definitions":[...],"synonyms":"..."}, or NONE
+ * </pre>
+ *
+ * A peer has "powerdict.peer.readTimeout" milliseconds to send its request
+ * line, and at most "powerdict.peer.backlog" connections wait for one of the
+ * "powerdict.peer.threads" workers. Further connections are closed at once, so
+ * that idle or slow connections cannot stall the lookups of the other nodes,
+ * which then go online instead.
+ *
+ * Requests for a word already being looked up wait for that lookup instead of
+ * starting another, so that a word asked by every node at once still goes
+ * online only once.
+ *
+ * Words in history are answered with a response encoded once and kept in a
+ * file next to their cached results, sent straight from the file to the socket
+ * without decoding the vocab or encoding it to JSON again. The checksum of such
+ * a file is verified the first time it is sent. A corrupted file is deleted,
+ * and the word is answered from its vocab instead.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class PeerServer {
+    private static Charset charset = java.nio.charset.StandardCharsets.UTF_8;
+
+    private AppIO appIO;
+    private Gson gson;
+
+    /**
+     * looks up a word owned by this node
+     */
+    private Function<String, Vocab> resolver;
+
+    /**
+     * finds the encoded response to a word, see {@link #encode(Vocab)}
+     */
+    private Function<String, Path> encoded;
+
+    /**
+     * words being looked up, to their lookup
+     */
+    private ConcurrentHashMap<String, CompletableFuture<Vocab>> inFlight;
+
+    /**
+     * encoded responses whose checksum was verified, to the identity of the file
+     * that was verified, as the file is replaced rather than written in place
+     */
+    private ConcurrentHashMap<Path, List<Object>> verified;
+
+    private ServerSocketChannel server;
+    private ExecutorService workers;
+
+    /**
+     * milliseconds a peer has to send its request line
+     */
+    private long readTimeoutMillis;
+
+    private AtomicLong requests = new AtomicLong();
+    private AtomicLong coalesced = new AtomicLong();
+    private AtomicLong found = new AtomicLong();
+    private AtomicLong sentFromFile = new AtomicLong();
+    private AtomicLong corrupted = new AtomicLong();
+    private AtomicLong timedOut = new AtomicLong();
+    private AtomicLong rejected = new AtomicLong();
+
+    /**
+     * reused by each worker to read the request line
+     */
+    private ThreadLocal<ByteBuffer> requestBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1024));
+
+    /**
+     * Listen for the other nodes
+     *
+     * @param address  the address to listen on, port 0 for any free port
+     * @param resolver looks up a word owned by this node, <code>null</code> if
+     *                 the word is unknown
+     * @throws IOException if the address cannot be listened on
+     */
+    public PeerServer(InetSocketAddress address, Function<String, Vocab> resolver) throws IOException {
+        this(address, resolver, word -> null);
+    }
+
+    /**
+     * Listen for the other nodes, answering from encoded responses when they
+     * exist
+     *
+     * @param address  the address to listen on, port 0 for any free port
+     * @param resolver looks up a word owned by this node, <code>null</code> if
+     *                 the word is unknown
+     * @param encoded  finds the {@link RecordFile} holding the response to a
+     *                 word, as encoded by {@link #encode(Vocab)},
+     *                 <code>null</code> if there is none
+     * @throws IOException if the address cannot be listened on
+     */
+    public PeerServer(InetSocketAddress address, Function<String, Vocab> resolver, Function<String, Path> encoded)
+            throws IOException {
+        this.appIO = AppIO.getInstance();
+        this.gson = new Gson();
+        this.resolver = resolver;
+        this.encoded = encoded;
+        this.inFlight = new ConcurrentHashMap<>();
+        this.verified = new ConcurrentHashMap<>();
+        this.server = ServerSocketChannel.open();
+        this.server.bind(address);
+        this.readTimeoutMillis = Math.max(1, AppConfig.getLong("powerdict.peer.readTimeout", 1000));
+
+        int threads = Math.max(1, AppConfig.getInt("powerdict.peer.threads", 8));
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, AppConfig.getInt("powerdict.peer.backlog", 64))), r -> {
+                    Thread t = new Thread(r, "peer");
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Thread acceptor = new Thread(this::accept, "peer-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * The port listened on
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return this.server.socket().getLocalPort();
+    }
+
+    /**
+     * Accept connections until the server is closed
+     */
+    private void accept() {
+        while (true) {
+            try {
+                SocketChannel channel = this.server.accept();
+
+                try {
+                    this.workers.execute(() -> this.serve(channel));
+                }
+
+                catch (RejectedExecutionException e) {
+                    // every worker is busy and enough connections wait already, the peer goes online instead
+                    this.rejected.incrementAndGet();
+                    channel.close();
+                }
+            }
+
+            catch (ClosedChannelException e) {
+                break;
+            }
+
+            catch (IOException e) {
+                this.appIO.printf("%n[%s] Unable to accept a peer: %s", ColorText.text("FAIL", Color.RED),
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Serve the one request carried by a connection
+     *
+     * @param channel the accepted connection
+     */
+    private void serve(SocketChannel channel) {
+        try (channel) {
+            String request = this.readRequest(channel);
+
+            if (request == null || !request.startsWith("PEER ")) {
+                return;
+            }
+
+            this.requests.incrementAndGet();
+
+            String word = request.substring("PEER ".length()).trim();
+            Path file = this.encoded.apply(word);
+
+            if (file != null && this.transfer(file, channel)) {
+                this.found.incrementAndGet();
+                this.sentFromFile.incrementAndGet();
+                return;
+            }
+
+            Vocab vocab = this.resolve(word);
+            ByteBuffer response = ByteBuffer.wrap((vocab == null) ? "NONE\n".getBytes(charset) : this.encode(vocab));
+
+            if (vocab != null) {
+                this.found.incrementAndGet();
+            }
+
+            while (response.hasRemaining()) {
+                channel.write(response);
+            }
+        }
+
+        catch (IOException e) {
+            this.appIO.printf("%n[%s] Unable to serve a peer: %s", ColorText.text("FAIL", Color.RED), e.getMessage());
+        }
+    }
+
+    /**
+     * Read the request line of a connection, within "powerdict.peer.readTimeout"
+     * milliseconds. The read goes through the socket of the blocking channel, as
+     * reads from the channel itself ignore the timeout.
+     *
+     * @param channel the connection
+     * @return the request, without the line break, or <code>null</code> if the
+     *         connection was closed, timed out or the line is too long
+     * @throws IOException if the connection fails
+     */
+    private String readRequest(SocketChannel channel) throws IOException {
+        byte[] buffer = this.requestBuffer.get().array();
+        InputStream in = channel.socket().getInputStream();
+        long deadline = System.currentTimeMillis() + this.readTimeoutMillis;
+        int length = 0;
+
+        try {
+            while (length < buffer.length) {
+                long left = deadline - System.currentTimeMillis();
+
+                if (left <= 0) {
+                    throw new SocketTimeoutException();
+                }
+
+                // a peer sending a byte at a time still has to be done by the deadline
+                channel.socket().setSoTimeout((int) Math.min(left, Integer.MAX_VALUE));
+
+                int n = in.read(buffer, length, buffer.length - length);
+
+                if (n < 0) {
+                    return null;
+                }
+
+                for (int i = length; i < length + n; i++) {
+                    if (buffer[i] == '\n') {
+                        return new String(buffer, 0, i, charset);
+                    }
+                }
+
+                length = length + n;
+            }
+        }
+
+        catch (SocketTimeoutException e) {
+            this.timedOut.incrementAndGet();
+        }
+
+        return null;
+    }
+
+    /**
+     * Send the payload of an encoded response from its file to the connection,
+     * letting the kernel copy it
+     *
+     * @param file    the encoded response
+     * @param channel the connection
+     * @return <code>true</code> if the response was sent, <code>false</code> if
+     *         the file is gone, for example because the word was removed, or
+     *         corrupted
+     * @throws IOException if the file or the connection fails
+     */
+    private boolean transfer(Path file, SocketChannel channel) throws IOException {
+        if (!this.isIntact(file)) {
+            return false;
+        }
+
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = RecordFile.HEADER_LENGTH;
+            long end = source.size();
+
+            while (position < end) {
+                position = position + source.transferTo(position, end - position, channel);
+            }
+
+            return end > RecordFile.HEADER_LENGTH;
+        }
+
+        catch (NoSuchFileException e) {
+            this.verified.remove(file);
+            return false;
+        }
+    }
+
+    /**
+     * Verify the checksum of an encoded response, unless the same file was
+     * verified already. A torn or corrupted file is deleted, so that it is
+     * encoded again from the cached results.
+     *
+     * @param file the encoded response
+     * @return <code>true</code> if the file is intact, <code>false</code> if it
+     *         is gone or was corrupted
+     */
+    private boolean isIntact(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            List<Object> identity = Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(),
+                    attributes.size());
+
+            if (identity.equals(this.verified.get(file))) {
+                return true;
+            }
+
+            // a response is always framed, the payload is sent after the header
+            if (RecordFile.read(file.toFile()).length != attributes.size() - RecordFile.HEADER_LENGTH) {
+                throw new IOException("Unframed response in " + file);
+            }
+
+            this.verified.put(file, identity);
+            return true;
+        }
+
+        catch (NoSuchFileException e) {
+            this.verified.remove(file);
+            return false;
+        }
+
+        catch (IOException e) {
+            this.verified.remove(file);
+            this.corrupted.incrementAndGet();
+
+            // encoded again the next time the word is asked for
+            file.toFile().delete();
+            return false;
+        }
+    }
+
+    /**
+     * Encode the response to a peer for a vocab
+     *
+     * @param vocab the vocab
+     * @return the response line, as sent
+     */
+    public byte[] encode(Vocab vocab) {
+        return ("FOUND " + this.gson.toJson(new Answer(vocab)) + "\n").getBytes(charset);
+    }
+
+    /**
+     * Look up a word, joining the lookup of the same word if one is running
+     *
+     * @param word the word
+     * @return the vocab, or <code>null</code> if the word is unknown
+     */
+    private Vocab resolve(String word) {
+        CompletableFuture<Vocab> mine = new CompletableFuture<>();
+        CompletableFuture<Vocab> running = this.inFlight.putIfAbsent(word, mine);
+
+        if (running != null) {
+            this.coalesced.incrementAndGet();
+
+            try {
+                return running.get();
+            }
+
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+
+            catch (ExecutionException e) {
+                return null;
+            }
+        }
+
+        try {
+            Vocab vocab = this.resolver.apply(word);
+            mine.complete(vocab);
+            return vocab;
+        }
+
+        catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+
+        finally {
+            this.inFlight.remove(word);
+        }
+    }
+
+    /**
+     * Stop listening
+     */
+    public void stop() {
+        try {
+            this.server.close();
+        }
+
+        catch (IOException e) {
+            // nothing more can be done
+        }
+
+        this.workers.shutdown();
+    }
+
+    /**
+     * Print the requests served to the other nodes
+     */
+    public void printStats() {
+        this.appIO.printf("%n%n%s%n", ColorText.text("Peer server -", Color.MAGENTA));
+        this.appIO.printf("%n- Port             : %d", this.getPort());
+        this.appIO.printf("%n- Requests served  : %d (%d found)", this.requests.get(), this.found.get());
+        this.appIO.printf("%n- Joined a lookup  : %d", this.coalesced.get());
+        this.appIO.printf("%n- Sent from a file : %d", this.sentFromFile.get());
+        this.appIO.printf("%n- Corrupted files  : %d", this.corrupted.get());
+        this.appIO.printf("%n- Timed out        : %d", this.timedOut.get());
+        this.appIO.printf("%n- Turned away      : %d", this.rejected.get());
+    }
+
+    /**
+     * The response to a peer, as sent in JSON
+     */
+    static class Answer {
+        WordnikDef[] definitions;
+        String synonyms;
+
+        Answer() {
+        }
+
+        Answer(Vocab vocab) {
+            this.definitions = vocab.toWordnikDefs();
+            this.synonyms = vocab.getSynonyms();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The parts of speech of every word in history, as one small bitmap per word
+ * (see {@link PartOfSpeech#bit()}).
+ *
+ * Questions such as "which words have an adjective sense" are answered from the
+ * bitmaps alone, without reading or decoding any {@link Vocab}. The bitmaps are
+ * persisted in the file "posindex", next to the history index.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class PosIndex {
+    private static AppIO appIO = AppIO.getInstance();
+
+    /**
+     * word to the bitmap of its parts of speech, 0 if they are unknown
+     */
+    private HashMap<String, Integer> masks;
+
+    /**
+     * the bitmaps are serialized and deserialized from this file
+     */
+    private File indexFile;
+
+    /**
+     * Construct an empty index persisted in the given file
+     *
+     * @param indexFile the file to persist the index in
+     */
+    public PosIndex(File indexFile) {
+        this.indexFile = indexFile;
+        this.masks = new HashMap<>();
+    }
+
+    /**
+     * Deserialize the bitmaps from the indexFile
+     *
+     * @return <code>true</code> if successfully deserialized, <code>false</code>
+     *         if the file doesn't exist or cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized boolean read() {
+        if (!this.indexFile.isFile()) {
+            return false;
+        }
+
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(RecordFile.read(this.indexFile)))) {
+            Object obj = ois.readObject();
+
+            if (obj instanceof HashMap<?, ?>) {
+                this.masks = (HashMap<String, Integer>) obj;
+                return true;
+            }
+        }
+
+        catch (IOException | ClassNotFoundException e) {
+            appIO.printf("%n%n[%s] Unable to read \"%s\", it will be rebuilt from history",
+                    ColorText.text("INFO", Color.BLUE), appIO.fetchCanonical(this.indexFile));
+        }
+
+        return false;
+    }
+
+    /**
+     * Serialize the bitmaps to the indexFile
+     *
+     * @return <code>true</code> if successfully serialized, <code>false</code>
+     *         otherwise
+     */
+    public synchronized boolean write() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(this.masks);
+            oos.flush();
+
+            RecordFile.write(this.indexFile, bytes.toByteArray());
+            return true;
+        }
+
+        catch (IOException e) {
+            appIO.printf(
+                    "%n%n[%s] Unable to save \"%s\". Please make sure Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), appIO.fetchCanonical(this.indexFile));
+            return false;
+        }
+    }
+
+    /**
+     * Check if the index has a bitmap for each of the words, and for no other
+     *
+     * @param words the words in history
+     * @return <code>true</code> if the index matches the words,
+     *         <code>false</code> otherwise
+     */
+    public synchronized boolean matches(Collection<String> words) {
+        return this.masks.size() == words.size() && this.masks.keySet().containsAll(words);
+    }
+
+    /**
+     * Set the bitmap of a word
+     *
+     * @param word the word
+     * @param mask the bitmap of its parts of speech
+     */
+    public synchronized void put(String word, int mask) {
+        this.masks.put(word, mask);
+    }
+
+    /**
+     * Forget the bitmap of a word
+     *
+     * @param word the word
+     * @return the bitmap forgotten, or <code>null</code> if the word had none
+     */
+    public synchronized Integer remove(String word) {
+        return this.masks.remove(word);
+    }
+
+    /**
+     * Forget all the bitmaps
+     *
+     * @return the bitmaps forgotten, to {@link #restore(HashMap)} them
+     */
+    public synchronized HashMap<String, Integer> clear() {
+        HashMap<String, Integer> cleared = this.masks;
+        this.masks = new HashMap<>();
+
+        return cleared;
+    }
+
+    /**
+     * Put back the bitmaps forgotten by {@link #clear()}
+     *
+     * @param masks the bitmaps
+     */
+    public synchronized void restore(HashMap<String, Integer> masks) {
+        this.masks = masks;
+    }
+
+    /**
+     * The words having at least one definition of the given part of speech
+     *
+     * @param pos the part of speech
+     * @return the words, sorted
+     */
+    public synchronized ArrayList<String> wordsWith(PartOfSpeech pos) {
+        ArrayList<String> words = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> e : this.masks.entrySet()) {
+            if (pos.in(e.getValue())) {
+                words.add(e.getKey());
+            }
+        }
+
+        Collections.sort(words);
+        return words;
+    }
+
+    /**
+     * Print the number of words having each part of speech
+     */
+    public synchronized void printStats() {
+        int[] counts = new int[PartOfSpeech.values().length];
+        int unknown = 0;
+
+        for (int mask : this.masks.values()) {
+            if (mask == 0) {
+                unknown++;
+            }
+
+            for (PartOfSpeech pos : PartOfSpeech.values()) {
+                if (pos.in(mask)) {
+                    counts[pos.ordinal()]++;
+                }
+            }
+        }
+
+        appIO.printf("%n%n%s%n", ColorText.text("Parts of speech -", Color.MAGENTA));
+
+        for (PartOfSpeech pos : PartOfSpeech.values()) {
+            appIO.printf("%n- %-13s: %d words", pos, counts[pos.ordinal()]);
+        }
+
+        appIO.printf("%n- %-13s: %d words", "UNKNOWN", unknown);
+    }
+}
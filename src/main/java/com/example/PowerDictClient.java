@@ -0,0 +1,321 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thin client forwarding a lookup to the {@link PowerDictDaemon}, starting the
+ * daemon first if it isn't running.
+ *
+ * The client doesn't load the history index or the API keys, so a lookup only
+ * pays for the start-up of a small JVM and one round trip to the warm daemon.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class PowerDictClient {
+    private static Charset charset = java.nio.charset.StandardCharsets.UTF_8;
+
+    /**
+     * Don't let anyone instantiate this class
+     */
+    private PowerDictClient() {
+    }
+
+    /**
+     * Look up a word through the daemon and print the result, along with the
+     * time it took
+     *
+     * @param word the word to look up
+     * @return <code>true</code> if the daemon answered, <code>false</code>
+     *         otherwise
+     */
+    public static boolean lookup(String word) {
+        AppIO appIO = AppIO.getInstance();
+        Path socketPath = PowerDictDaemon.getSocketPath();
+
+        long start = System.nanoTime();
+        boolean cold = false;
+
+        if (!isAlive(socketPath)) {
+            cold = true;
+
+            if (!startDaemon(socketPath)) {
+                appIO.printf("%n%n[%s] Unable to start the daemon. See \"%s\" for details",
+                        ColorText.text("FAIL", Color.RED), getLogFile().getAbsolutePath());
+                return false;
+            }
+        }
+
+        try {
+            String response = send(socketPath, "LOOKUP " + word);
+            long elapsed = (System.nanoTime() - start) / 1000000;
+
+            appIO.printf("%s", response);
+            appIO.printf("%n%n[%s] Lookup took %d ms through a %s daemon (%d ms since JVM start)",
+                    ColorText.text("INFO", Color.BLUE), elapsed, cold ? "cold" : "warm",
+                    ManagementFactory.getRuntimeMXBean().getUptime());
+            appIO.printf("%n");
+
+            return true;
+        }
+
+        catch (IOException e) {
+            appIO.printf("%n%n[%s] Unable to reach the daemon: %s", ColorText.text("FAIL", Color.RED),
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Print the latencies and counters measured by a running daemon, see
+     * {@link Metrics}
+     *
+     * @return <code>true</code> if the daemon answered, <code>false</code> if it
+     *         isn't running
+     */
+    public static boolean metrics() {
+        AppIO appIO = AppIO.getInstance();
+
+        try {
+            appIO.printf("%s", send(PowerDictDaemon.getSocketPath(), "METRICS"));
+            appIO.printf("%n");
+            return true;
+        }
+
+        catch (IOException e) {
+            appIO.printf("%n%n[%s] The daemon is not running, so there are no metrics to show%n",
+                    ColorText.text("FAIL", Color.RED));
+            return false;
+        }
+    }
+
+    /**
+     * Ask the daemon to shut down
+     *
+     * @return <code>true</code> if the daemon acknowledged, <code>false</code> if
+     *         it isn't running
+     */
+    public static boolean stop() {
+        try {
+            return send(PowerDictDaemon.getSocketPath(), "STOP").startsWith("BYE");
+        }
+
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Ask a daemon started by a lookup to shut down and release the lock on
+     * history, so that the menu or another command can take it. A daemon
+     * started by the user with --daemon keeps running.
+     *
+     * @return <code>true</code> if a daemon handed history over,
+     *         <code>false</code> if none was running or it refused
+     */
+    public static boolean handOver() {
+        Path socketPath = PowerDictDaemon.getSocketPath();
+
+        if (!Files.exists(socketPath)) {
+            return false;
+        }
+
+        try {
+            if (!send(socketPath, "HANDOVER").startsWith("BYE")) {
+                return false;
+            }
+        }
+
+        catch (IOException e) {
+            return false;
+        }
+
+        // the daemon completes the lookups it accepted, releases the lock and then removes the socket file
+        long deadline = System.currentTimeMillis() + AppConfig.getLong("powerdict.daemon.stopTimeout", 30000)
+                + AppConfig.getLong("powerdict.daemon.readTimeout", 5000);
+
+        try {
+            while (Files.exists(socketPath) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(25);
+            }
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return !Files.exists(socketPath);
+    }
+
+    /**
+     * Check if a daemon is answering on the socket file
+     *
+     * @param socketPath the socket file
+     * @return <code>true</code> if the daemon answered PING, <code>false</code>
+     *         otherwise
+     */
+    public static boolean isAlive(Path socketPath) {
+        try {
+            return send(socketPath, "PING").startsWith("PONG");
+        }
+
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Send a request line to the daemon and read the whole response
+     *
+     * @param socketPath the socket file
+     * @param request    the request line
+     * @return the response
+     * @throws IOException if the daemon cannot be reached
+     */
+    static String send(Path socketPath, String request) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            channel.write(ByteBuffer.wrap((request + "\n").getBytes(charset)));
+
+            InputStream in = Channels.newInputStream(channel);
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+
+            while ((n = in.read(buffer)) != -1) {
+                response.write(buffer, 0, n);
+            }
+
+            return new String(response.toByteArray(), charset);
+        }
+    }
+
+    /**
+     * Start a daemon in the background with the same classpath and Power-Dict
+     * settings as this JVM, and wait for it to answer
+     *
+     * @param socketPath the socket file the daemon should listen on
+     * @return <code>true</code> if the daemon is up, <code>false</code> otherwise
+     */
+    private static boolean startDaemon(Path socketPath) {
+        List<String> command = new ArrayList<>();
+
+        // keep the daemon alive when the terminal of the client is closed
+        for (String nohup : new String[] { "/usr/bin/nohup", "/bin/nohup" }) {
+            if (new File(nohup).canExecute()) {
+                command.add(nohup);
+                break;
+            }
+        }
+
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(getClassPath());
+        command.add("-Dpowerdict.headless=true");
+
+        // pass on the settings given on the command line
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("powerdict.") && !name.equals("powerdict.headless")) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+
+        command.add(App.class.getName());
+        command.add("--daemon");
+        command.add("--auto");
+
+        try {
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(ProcessBuilder.Redirect.appendTo(getLogFile()));
+
+            Process daemon = pb.start();
+
+            // the daemon never reads from its input
+            daemon.getOutputStream().close();
+
+            long deadline = System.currentTimeMillis() + AppConfig.getLong("powerdict.daemon.startTimeout", 15000);
+
+            while (System.currentTimeMillis() < deadline && daemon.isAlive()) {
+                if (isAlive(socketPath)) {
+                    return true;
+                }
+
+                Thread.sleep(25);
+            }
+
+            // another client may have started a daemon in the meantime
+            return isAlive(socketPath);
+        }
+
+        catch (IOException e) {
+            return false;
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * The file receiving the output of a daemon started by a client
+     *
+     * @return the log file
+     */
+    private static File getLogFile() {
+        return new File(AppConfig.get("powerdict.daemon.log", "powerdict.log"));
+    }
+
+    /**
+     * The classpath Power-Dict was loaded from. When started through Maven,
+     * the classes are loaded by Maven's class loader rather than from
+     * "java.class.path".
+     *
+     * @return the classpath
+     */
+    private static String getClassPath() {
+        ClassLoader cl = PowerDictClient.class.getClassLoader();
+
+        if (cl instanceof URLClassLoader) {
+            StringBuilder sb = new StringBuilder();
+
+            for (URL url : ((URLClassLoader) cl).getURLs()) {
+                try {
+                    if (sb.length() > 0) {
+                        sb.append(File.pathSeparator);
+                    }
+
+                    sb.append(Paths.get(url.toURI()).toString());
+                }
+
+                catch (URISyntaxException | IllegalArgumentException e) {
+                    // not a local file, the daemon cannot use it anyway
+                }
+            }
+
+            return sb.toString();
+        }
+
+        return System.getProperty("java.class.path");
+    }
+}
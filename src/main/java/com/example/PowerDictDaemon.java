@@ -0,0 +1,419 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Long-lived Power-Dict process answering lookups over a Unix domain socket.
+ *
+ * The daemon loads the history index and the API keys once, and then serves
+ * every {@link PowerDictClient} with a warm JVM. Each connection carries one
+ * request line and receives the response until the daemon closes the
+ * connection:
+ *
+ * <pre>
+ * LOOKUP word     the output of searching the word, as printed by the menu
+ * METRICS         the latencies and counters measured by the daemon
+ * PING            PONG
+ * STOP            BYE, and the daemon shuts down
+ * HANDOVER        BYE if the daemon was started by a client, which then shuts
+ *                 down to let another process take the lock on history, or
+ *                 REFUSED
+ * </pre>
+ *
+ * A daemon started by a client also shuts down on its own once it has served
+ * no request for "powerdict.daemon.idleTimeout" milliseconds, so that the lock
+ * on history isn't held for longer than the lookups need it.
+ *
+ * A client has "powerdict.daemon.readTimeout" milliseconds to send its request
+ * line, so that a connection that never sends one doesn't hold a worker.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class PowerDictDaemon {
+    private static Charset charset = java.nio.charset.StandardCharsets.UTF_8;
+
+    /**
+     * the longest request line accepted
+     */
+    private static final int MAX_REQUEST = 4096;
+
+    private AppIO appIO;
+
+    /**
+     * the socket file the daemon listens on
+     */
+    private Path socketPath;
+
+    /**
+     * threads serving the accepted connections
+     */
+    private ExecutorService workers;
+
+    /**
+     * whether the daemon was started by a client rather than by the user
+     */
+    private boolean auto;
+
+    /**
+     * requests being served, and when the last one was served
+     */
+    private AtomicInteger active;
+    private volatile long lastRequest;
+
+    private ServerSocketChannel server;
+    private volatile boolean running;
+
+    /**
+     * Construct a daemon for the given socket file, running until stopped
+     *
+     * @param socketPath the socket file to listen on
+     */
+    public PowerDictDaemon(Path socketPath) {
+        this(socketPath, false);
+    }
+
+    /**
+     * Construct a daemon for the given socket file
+     *
+     * @param socketPath the socket file to listen on
+     * @param auto       <code>true</code> if the daemon is started by a client,
+     *                   to shut down when idle or asked to hand over history
+     */
+    public PowerDictDaemon(Path socketPath, boolean auto) {
+        this.appIO = AppIO.getInstance();
+        this.socketPath = socketPath;
+        this.auto = auto;
+        this.active = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(AppConfig.getInt("powerdict.daemon.threads", 8));
+    }
+
+    /**
+     * The socket file shared by the daemon and its clients
+     *
+     * @return the configured socket file
+     */
+    public static Path getSocketPath() {
+        return Paths.get(AppConfig.get("powerdict.socket", "powerdict.sock")).toAbsolutePath();
+    }
+
+    /**
+     * Warm up Power-Dict, then accept and serve connections until a STOP request
+     * arrives
+     *
+     * @return <code>true</code> if the daemon ran and stopped normally,
+     *         <code>false</code> if it could not start
+     */
+    public boolean run() {
+        // pay the start-up costs once, before the first client arrives
+        VocabIndexer vi = VocabIndexer.getInstance();
+        ManageKey.getInstance();
+
+        if (vi == null) {
+            return false;
+        }
+
+        return this.run(vi::search, vi::releaseStore);
+    }
+
+    /**
+     * Accept and serve connections until a STOP request arrives
+     *
+     * @param lookup  searches a word, printing the results
+     * @param release releases the lock on history, once the requests accepted
+     *                are completed
+     * @return <code>true</code> if the daemon ran and stopped normally,
+     *         <code>false</code> if it could not start
+     */
+    boolean run(Consumer<String> lookup, Runnable release) {
+        try {
+            // a socket file left behind by a daemon that died is of no use
+            if (Files.exists(this.socketPath)) {
+                if (PowerDictClient.isAlive(this.socketPath)) {
+                    this.appIO.printf("%n[%s] Daemon is already running on \"%s\"",
+                            ColorText.text("INFO", Color.BLUE), this.socketPath);
+                    return false;
+                }
+
+                Files.delete(this.socketPath);
+            }
+
+            this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            this.server.bind(UnixDomainSocketAddress.of(this.socketPath));
+        }
+
+        catch (IOException e) {
+            this.appIO.printf("%n[%s] Unable to listen on \"%s\": %s", ColorText.text("FAIL", Color.RED),
+                    this.socketPath, e.getMessage());
+            return false;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::removeSocketFile));
+
+        this.running = true;
+        this.lastRequest = System.currentTimeMillis();
+        this.appIO.printf("%n[%s] Daemon listening on \"%s\"", ColorText.text("INFO", Color.BLUE), this.socketPath);
+
+        ScheduledExecutorService idleWatch = this.auto ? this.watchIdle() : null;
+
+        while (this.running) {
+            try {
+                SocketChannel channel = this.server.accept();
+
+                this.workers.execute(() -> this.serve(channel, lookup));
+            }
+
+            catch (ClosedChannelException e) {
+                // STOP closed the server
+                break;
+            }
+
+            catch (IOException e) {
+                this.appIO.printf("%n[%s] Unable to accept a connection: %s", ColorText.text("FAIL", Color.RED),
+                        e.getMessage());
+            }
+        }
+
+        // complete the requests already accepted before the JVM exits
+        this.workers.shutdown();
+
+        try {
+            if (!this.workers.awaitTermination(AppConfig.getLong("powerdict.daemon.stopTimeout", 30000),
+                    TimeUnit.MILLISECONDS)) {
+                this.appIO.printf("%n[%s] Some requests did not complete before the daemon stopped",
+                        ColorText.text("FAIL", Color.RED));
+            }
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (idleWatch != null) {
+            idleWatch.shutdownNow();
+        }
+
+        // the lock is released before the socket file goes, which tells a process waiting for the hand over
+        release.run();
+        this.removeSocketFile();
+        this.appIO.printf("%n[%s] Daemon stopped", ColorText.text("INFO", Color.BLUE));
+
+        return true;
+    }
+
+    /**
+     * Serve the one request carried by a connection
+     *
+     * @param channel the accepted connection
+     * @param lookup  searches a word, such as the warm VocabIndexer does
+     */
+    private void serve(SocketChannel channel, Consumer<String> lookup) {
+        this.active.incrementAndGet();
+
+        try (channel) {
+            String request = this.readRequest(channel);
+
+            if (request == null) {
+                return;
+            }
+
+            OutputStream out = Channels.newOutputStream(channel);
+
+            if (request.startsWith("LOOKUP ")) {
+                StringWriter response = new StringWriter();
+
+                // the search prints exactly what the menu would, into the response
+                this.appIO.captureOutput(response);
+
+                try {
+                    lookup.accept(request.substring("LOOKUP ".length()).trim());
+                }
+
+                finally {
+                    this.appIO.releaseOutput();
+                }
+
+                out.write(response.toString().getBytes(charset));
+            }
+
+            else if (request.equals("METRICS")) {
+                StringWriter response = new StringWriter();
+
+                this.appIO.withOutput(response, () -> {
+                    Metrics.getInstance().printStats();
+                    return null;
+                });
+
+                out.write(response.toString().getBytes(charset));
+            }
+
+            else if (request.equals("PING")) {
+                out.write("PONG\n".getBytes(charset));
+            }
+
+            else if (request.equals("STOP")) {
+                out.write("BYE\n".getBytes(charset));
+                this.stop();
+            }
+
+            // a daemon started by the user is stopped by the user
+            else if (request.equals("HANDOVER")) {
+                out.write((this.auto ? "BYE\n" : "REFUSED\n").getBytes(charset));
+
+                if (this.auto) {
+                    this.stop();
+                }
+            }
+
+            else {
+                out.write(String.format("Unknown request \"%s\"%n", request).getBytes(charset));
+            }
+
+            out.flush();
+        }
+
+        catch (IOException e) {
+            this.appIO.printf("%n[%s] Unable to serve a connection: %s", ColorText.text("FAIL", Color.RED),
+                    e.getMessage());
+        }
+
+        finally {
+            this.lastRequest = System.currentTimeMillis();
+            this.active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stop the daemon once it has served no request for
+     * "powerdict.daemon.idleTimeout" milliseconds
+     *
+     * @return the thread watching, or <code>null</code> if the timeout is 0
+     */
+    private ScheduledExecutorService watchIdle() {
+        long idleMillis = AppConfig.getLong("powerdict.daemon.idleTimeout", 600000);
+
+        if (idleMillis <= 0) {
+            return null;
+        }
+
+        ScheduledExecutorService watch = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "daemon-idle");
+            t.setDaemon(true);
+            return t;
+        });
+
+        watch.scheduleWithFixedDelay(() -> {
+            if (this.active.get() == 0 && System.currentTimeMillis() - this.lastRequest >= idleMillis) {
+                this.appIO.printf("%n[%s] Idle for %d ms, stopping", ColorText.text("INFO", Color.BLUE), idleMillis);
+                this.stop();
+            }
+        }, Math.min(idleMillis, 1000), Math.min(idleMillis, 1000), TimeUnit.MILLISECONDS);
+
+        return watch;
+    }
+
+    /**
+     * Read the request line of a connection, waiting at most
+     * "powerdict.daemon.readTimeout" milliseconds for it
+     *
+     * @param channel the connection
+     * @return the request, without the line break, or <code>null</code> if the
+     *         connection was closed, timed out or the line is too long
+     * @throws IOException if the connection fails
+     */
+    private String readRequest(SocketChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_REQUEST);
+        long deadline = System.currentTimeMillis() + AppConfig.getLong("powerdict.daemon.readTimeout", 5000);
+        String request = null;
+
+        channel.configureBlocking(false);
+
+        try (Selector selector = Selector.open()) {
+            channel.register(selector, SelectionKey.OP_READ);
+
+            while (request == null && buffer.hasRemaining()) {
+                long left = deadline - System.currentTimeMillis();
+
+                if (left <= 0) {
+                    break;
+                }
+
+                if (selector.select(left) == 0) {
+                    continue;
+                }
+
+                selector.selectedKeys().clear();
+
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+
+                for (int i = 0; i < buffer.position(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        request = new String(buffer.array(), 0, i, charset).replace("\r", "");
+                        break;
+                    }
+                }
+            }
+        }
+
+        // closing the selector deregistered the channel, the response is written
+        // blocking
+        channel.configureBlocking(true);
+
+        return request;
+    }
+
+    /**
+     * Stop accepting connections. Requests already accepted are completed.
+     */
+    public void stop() {
+        this.running = false;
+
+        try {
+            if (this.server != null) {
+                this.server.close();
+            }
+        }
+
+        catch (IOException e) {
+            this.appIO.printf("%n[%s] Unable to close \"%s\"", ColorText.text("FAIL", Color.RED), this.socketPath);
+        }
+    }
+
+    /**
+     * Delete the socket file, so that clients don't try to connect to a stopped
+     * daemon
+     */
+    private void removeSocketFile() {
+        try {
+            Files.deleteIfExists(this.socketPath);
+        }
+
+        catch (IOException e) {
+            // nothing more can be done while shutting down
+        }
+    }
+}
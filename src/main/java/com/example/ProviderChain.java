@@ -0,0 +1,250 @@
+package com.example;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Looks up words through a list of {@link DictionaryProvider}, falling back to
+ * the next provider whenever one doesn't know the word or fails.
+ *
+ * The order is configured with the setting "powerdict.providers", for example
+ * "local,wordnik" to answer from the local dictionary file when possible and
+ * only go online otherwise. The latency and outcome of every call is recorded
+ * per provider.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class ProviderChain {
+    private AppIO appIO;
+
+    /**
+     * the providers, in the order they are asked
+     */
+    private ArrayList<DictionaryProvider> providers;
+
+    /**
+     * statistics of each provider, at the same position as in providers
+     */
+    private ArrayList<Stats> stats;
+
+    /**
+     * Construct the chain from the setting "powerdict.providers"
+     */
+    public ProviderChain() {
+        this.appIO = AppIO.getInstance();
+        this.providers = new ArrayList<>();
+        this.stats = new ArrayList<>();
+
+        for (String name : AppConfig.get("powerdict.providers", "local,wordnik").split(",")) {
+            DictionaryProvider provider = create(name.trim());
+
+            if (provider == null) {
+                this.appIO.printf("%n%n[%s] Unknown dictionary provider \"%s\"", ColorText.text("FAIL", Color.RED),
+                        name.trim());
+            }
+
+            else {
+                this.add(provider);
+            }
+        }
+    }
+
+    /**
+     * Create a provider by its name
+     *
+     * @param name the name of the provider
+     * @return the provider, or <code>null</code> if there's no such provider
+     */
+    private static DictionaryProvider create(String name) {
+        switch (name) {
+            case "local":
+                return new LocalFileProvider(new File(AppConfig.get("powerdict.local.file", "dictionary.ndjson")));
+
+            case "wordnik":
+                return new WordnikProvider();
+
+            case "peer":
+                return new PeerProvider();
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Append a provider to the end of the chain
+     *
+     * @param provider the provider
+     */
+    public void add(DictionaryProvider provider) {
+        this.providers.add(provider);
+        this.stats.add(new Stats());
+    }
+
+    /**
+     * Look up the word through the providers, in order. The synonyms are taken
+     * from the provider that knew the definitions.
+     *
+     * @param word     the word to look up
+     * @param deadline the deadline of the search, passed on to the providers
+     * @return the lookup in progress
+     */
+    public Lookup lookup(String word, Deadline deadline) {
+        Lookup lookup = new Lookup();
+
+        this.lookupFrom(0, word, deadline, lookup).whenComplete((vocab, error) -> {
+            // no provider knew the word, so there are no definitions either
+            lookup.definitions.complete(vocab);
+            lookup.complete.complete(vocab);
+        });
+
+        return lookup;
+    }
+
+    /**
+     * Look up the word through the providers, starting at the given position
+     *
+     * @param position the position of the first provider to ask
+     * @param word     the word to look up
+     * @param deadline the deadline of the search
+     * @param lookup   the lookup, whose definitions are completed as soon as a
+     *                 provider knows them
+     * @return future of the vocab, completed with <code>null</code> if no provider
+     *         knows the word
+     */
+    private CompletableFuture<Vocab> lookupFrom(int position, String word, Deadline deadline, Lookup lookup) {
+        if (position >= this.providers.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        DictionaryProvider provider = this.providers.get(position);
+        Stats s = this.stats.get(position);
+
+        // the continuations run on the provider's threads, but print to the caller
+        return s.record(() -> provider.fetchEntry(word, deadline))
+                .thenCompose(this.appIO.withCurrentOutput(entry -> {
+                    if (entry == null) {
+                        return this.lookupFrom(position + 1, word, deadline, lookup);
+                    }
+
+                    WordnikDef[] definitions = entry.getDefinitions();
+                    Vocab partial = new Vocab(word, definitions, null);
+
+                    partial.source = provider.getName();
+                    partial.incomplete = true;
+
+                    lookup.definitions.complete(partial);
+
+                    // synonyms sent along with the definitions need no second call
+                    CompletableFuture<String> fetched = (entry.getSynonyms() != null)
+                            ? CompletableFuture.completedFuture(entry.getSynonyms())
+                            : s.record(() -> provider.fetchSynonyms(word, deadline));
+
+                    return fetched.thenApply(synonyms -> {
+                        Vocab vocab = new Vocab(word, definitions, (synonyms == null || synonyms.isEmpty()) ? null
+                                : synonyms);
+
+                        vocab.source = provider.getName();
+                        vocab.fetchedAt = System.currentTimeMillis();
+
+                        // synonyms that failed, were shed or timed out are fetched again by a later search
+                        vocab.incomplete = (synonyms == null);
+
+                        return vocab;
+                    });
+                }));
+    }
+
+    /**
+     * Print the latency and outcome of the calls made to each provider
+     */
+    public void printStats() {
+        this.appIO.printf("%n%n%s%n", ColorText.text("Dictionary providers -", Color.MAGENTA));
+
+        for (int i = 0; i < this.providers.size(); i++) {
+            Stats s = this.stats.get(i);
+            long calls = s.calls.get();
+
+            this.appIO.printf("%n- %-8s: %d calls, %d answered, %d not found, %d failed, avg %d ms, max %d ms",
+                    this.providers.get(i).getName(), calls, s.answered.get(), s.empty.get(), s.failed.get(),
+                    (calls == 0) ? 0 : s.totalNanos.get() / calls / 1000000, s.maxNanos.get() / 1000000);
+        }
+    }
+
+    /**
+     * A lookup in progress. The definitions are known before the synonyms, so a
+     * caller running out of time can show them while the synonyms are still
+     * being fetched.
+     */
+    public static class Lookup {
+        private CompletableFuture<Vocab> definitions = new CompletableFuture<>();
+        private CompletableFuture<Vocab> complete = new CompletableFuture<>();
+
+        /**
+         * The vocab without its synonyms, marked incomplete
+         *
+         * @return future of the vocab, completed with <code>null</code> if no
+         *         provider knows the word
+         */
+        public CompletableFuture<Vocab> getDefinitions() {
+            return this.definitions;
+        }
+
+        /**
+         * The vocab with both definitions and synonyms, still marked incomplete
+         * if the synonyms could not be fetched
+         *
+         * @return future of the vocab, completed with <code>null</code> if no
+         *         provider knows the word
+         */
+        public CompletableFuture<Vocab> getComplete() {
+            return this.complete;
+        }
+    }
+
+    /**
+     * Latency and outcome of the calls made to a provider
+     */
+    private static class Stats {
+        private AtomicLong calls = new AtomicLong();
+        private AtomicLong answered = new AtomicLong();
+        private AtomicLong empty = new AtomicLong();
+        private AtomicLong failed = new AtomicLong();
+        private AtomicLong totalNanos = new AtomicLong();
+        private AtomicLong maxNanos = new AtomicLong();
+
+        /**
+         * Record the outcome of a call when it completes. A failed call is
+         * turned into an empty answer, so that the chain moves on.
+         *
+         * @param <T>  the type of the answer
+         * @param call makes the call to the provider
+         * @return future of the answer, completed with <code>null</code> if the
+         *         call failed
+         */
+        private <T> CompletableFuture<T> record(Supplier<CompletableFuture<T>> call) {
+            long start = System.nanoTime();
+
+            return call.get().handle((answer, error) -> {
+                long elapsed = System.nanoTime() - start;
+
+                this.calls.incrementAndGet();
+                this.totalNanos.addAndGet(elapsed);
+                this.maxNanos.accumulateAndGet(elapsed, Math::max);
+
+                if (error != null) {
+                    this.failed.incrementAndGet();
+                    return null;
+                }
+
+                (answer == null ? this.empty : this.answered).incrementAndGet();
+                return answer;
+            });
+        }
+    }
+}
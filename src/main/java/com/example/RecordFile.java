@@ -0,0 +1,199 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes whole files as a single checksummed record, replacing them
+ * atomically.
+ *
+ * A file is written to a temporary file in the same folder, forced to the
+ * disk, and then renamed over the target, so that a crash leaves either the old
+ * or the new content, never a mix of both. The content is framed as:
+ *
+ * <pre>
+ * int    MAGIC
+ * int    length of the payload
+ * int    CRC32C of the payload
+ * byte[] payload
+ * </pre>
+ *
+ * Files written before the framing existed don't start with MAGIC, and are read
+ * as they are, without a check.
+ *
+ * Forcing to the disk is controlled by the setting "powerdict.fsync".
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class RecordFile {
+    /**
+     * "PDR1", which can't be the start of a Java serialization stream (0xACED)
+     */
+    static final int MAGIC = 0x50445231;
+
+    /**
+     * bytes before the payload
+     */
+    static final int HEADER_LENGTH = 12;
+
+    private static boolean fsync = AppConfig.getBoolean("powerdict.fsync", true);
+
+    /**
+     * Don't let anyone instantiate this class
+     */
+    private RecordFile() {
+    }
+
+    /**
+     * Whether writes are forced to the disk
+     *
+     * @return <code>true</code> if writes are forced to the disk
+     */
+    public static boolean isFsync() {
+        return fsync;
+    }
+
+    /**
+     * The CRC32C checksum of some bytes
+     *
+     * @param bytes  the bytes
+     * @param offset where the bytes start
+     * @param length the number of bytes
+     * @return the checksum
+     */
+    public static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Replace the content of a file with a checksummed payload
+     *
+     * @param target  the file to replace
+     * @param payload the new content
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File target, byte[] payload) throws IOException {
+        DiskEvent event = new DiskEvent();
+        event.begin();
+
+        ByteArrayOutputStream framed = new ByteArrayOutputStream(payload.length + 12);
+        DataOutputStream dos = new DataOutputStream(framed);
+
+        dos.writeInt(MAGIC);
+        dos.writeInt(payload.length);
+        dos.writeInt(checksum(payload, 0, payload.length));
+        dos.write(payload);
+
+        Path folder = target.getAbsoluteFile().getParentFile().toPath();
+        // unlike Files.createTempFile, keeps the default permissions of new files
+        Path temp = folder.resolve(target.getName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong())
+                + ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(framed.toByteArray());
+
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+
+            try {
+                Files.move(temp, target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            if (fsync) {
+                syncFolder(folder);
+            }
+        }
+
+        finally {
+            Files.deleteIfExists(temp);
+            event.emit("write", target, framed.size());
+        }
+    }
+
+    /**
+     * Read the payload of a file, checking its checksum
+     *
+     * @param source the file to read
+     * @return the payload, or the whole file if it was written without framing
+     * @throws IOException if the file cannot be read, or it is torn or corrupted
+     */
+    public static byte[] read(File source) throws IOException {
+        DiskEvent event = new DiskEvent();
+        event.begin();
+
+        byte[] bytes = Files.readAllBytes(source.toPath());
+        event.emit("read", source, bytes.length);
+
+        if (bytes.length < 4 || ByteBuffer.wrap(bytes).getInt() != MAGIC) {
+            return bytes;
+        }
+
+        if (bytes.length < 12) {
+            throw new IOException("Torn record in " + source);
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        header.getInt();
+
+        int length = header.getInt();
+        int crc = header.getInt();
+
+        if (length != bytes.length - 12) {
+            throw new IOException("Torn record in " + source);
+        }
+
+        if (checksum(bytes, 12, length) != crc) {
+            throw new IOException("Checksum mismatch in " + source);
+        }
+
+        byte[] payload = new byte[length];
+        System.arraycopy(bytes, 12, payload, 0, length);
+
+        return payload;
+    }
+
+    /**
+     * Force the entries of a folder to the disk, so that a rename survives a
+     * crash. Not every platform can open a folder, in which case nothing is done.
+     *
+     * @param folder the folder
+     */
+    static void syncFolder(Path folder) {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+
+        catch (IOException e) {
+            // folders cannot be opened on some platforms
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event of one search, from the word being asked for to its
+ * results being shown, so that a slow lookup can be lined up with the GC, I/O
+ * and lock events of the same recording.
+ *
+ * Like every event of Power-Dict, it is only recorded when a recording enables
+ * it, and costs a few field stores otherwise.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+@Name("powerdict.Search")
+@Label("Search")
+@Category("Power-Dict")
+@Description("A search of a word, from the history, the bundle or the dictionary providers")
+@Threshold("1 ms")
+@StackTrace(false)
+public class SearchEvent extends jdk.jfr.Event {
+    @Label("Word")
+    String word;
+
+    /**
+     * "history", "bundle", "online", "partial" or "none"
+     */
+    @Label("Outcome")
+    String outcome = "none";
+}
@@ -0,0 +1,574 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Dictionary of the strings shared by the cached words.
+ *
+ * Definitions and synonym tokens repeat a lot across words, so they are stored
+ * only once in this table, and the cached words refer to them by their integer
+ * id. The table is persisted in an append-only file, where the id of a string
+ * is its position in the file:
+ *
+ * <pre>
+ * int    length of the string
+ * byte[] UTF-8 string
+ * </pre>
+ *
+ * Ids are never reused or reassigned, so a string once interned stays valid
+ * for every file referring to it.
+ *
+ * Like the {@link VocabArena}, the table keeps the strings outside the Java
+ * heap, in direct <code>ByteBuffer</code> chunks laid out as in the file. The
+ * heap only holds, for every string, where it is in the chunks and its hash, and
+ * an open addressing index of the hashes, all in primitive arrays. A string is
+ * decoded when it is looked up.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class StringTable {
+    private static AppIO appIO = AppIO.getInstance();
+    private static Charset charset = java.nio.charset.StandardCharsets.UTF_8;
+
+    /**
+     * approximate bytes used by a String object and its backing array, excluding
+     * the characters themselves
+     */
+    private static final int STRING_OVERHEAD = 40;
+
+    /**
+     * size of every direct buffer holding the strings, unless a single string is
+     * bigger than this
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /**
+     * the table is persisted to this file
+     */
+    private File tableFile;
+
+    /**
+     * the strings, each preceded by its length, off the heap
+     */
+    private ArrayList<ByteBuffer> chunks;
+
+    /**
+     * id to the chunk of the string in the high half and its position in the low
+     * half
+     */
+    private long[] offsets;
+
+    /**
+     * id to the hash of the string
+     */
+    private int[] hashes;
+
+    /**
+     * number of strings in the table
+     */
+    private int count;
+
+    /**
+     * hash of a string to its id plus one, 0 for an empty slot. Its length is a
+     * power of two, and it is kept at most half full.
+     */
+    private int[] slots;
+
+    /**
+     * bytes of direct memory allocated for the chunks
+     */
+    private long offHeapBytes;
+
+    /**
+     * stream appending the newly interned strings to the tableFile
+     */
+    private DataOutputStream out;
+
+    /**
+     * the file under out, to force the appended strings to the disk
+     */
+    private FileOutputStream fileOut;
+
+    /**
+     * whether strings were appended since the tableFile was last forced to the
+     * disk
+     */
+    private boolean unsynced;
+
+    /**
+     * total UTF-8 bytes of all the strings in the table
+     */
+    private long uniqueBytes;
+
+    /**
+     * The instance variable containing the one and only object of StringTable
+     */
+    private static StringTable instanceVar = null;
+
+    /**
+     * StringTable follows Singleton design pattern
+     *
+     * @return the instance of this StringTable
+     */
+    public static synchronized StringTable getInstance() {
+        if (instanceVar == null)
+            instanceVar = new StringTable();
+
+        return instanceVar;
+    }
+
+    /**
+     * Private constructor to restrict instantiating by foreign functions
+     */
+    private StringTable() {
+        this.tableFile = new File("strings");
+        this.chunks = new ArrayList<>();
+        this.offsets = new long[1024];
+        this.hashes = new int[1024];
+        this.slots = new int[2048];
+
+        if (this.tableFile.isFile()) {
+            this.read();
+        }
+    }
+
+    /**
+     * Read all the strings from the tableFile. A partially written string at the
+     * end of the file (for example after a crash) is ignored, and overwritten by
+     * the next interned string.
+     */
+    private void read() {
+        long fileLength = this.tableFile.length();
+        long validLength = 0;
+
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(this.tableFile)))) {
+            while (true) {
+                int length = dis.readInt();
+
+                // a length past the end of the file is a torn string, not one to allocate for
+                if (length > fileLength - validLength - 4) {
+                    break;
+                }
+
+                if (length < 0) {
+                    throw new IOException("Negative string length in " + this.tableFile);
+                }
+
+                byte[] bytes = new byte[length];
+                dis.readFully(bytes);
+
+                this.add(bytes);
+                validLength = validLength + 4 + length;
+            }
+        }
+
+        catch (EOFException e) {
+            // reached the end of the table
+        }
+
+        catch (IOException e) {
+            appIO.printf(
+                    "%n%n[%s] Unable to read strings from \"%s\". Please make sure file isn't corrupted and Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), appIO.fetchCanonical(this.tableFile));
+        }
+
+        // drop a torn tail so that the next string is appended at the right place
+        if (validLength < this.tableFile.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(this.tableFile, "rw")) {
+                raf.setLength(validLength);
+            }
+
+            catch (IOException e) {
+                appIO.printf("%n%n[%s] Unable to repair \"%s\"", ColorText.text("FAIL", Color.RED),
+                        appIO.fetchCanonical(this.tableFile));
+            }
+        }
+    }
+
+    /**
+     * Add a string to the in-memory table
+     *
+     * @param bytes the string in UTF-8
+     * @return the id of the string
+     */
+    private int add(byte[] bytes) {
+        int id = this.count;
+
+        if (id == this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, id * 2);
+            this.hashes = Arrays.copyOf(this.hashes, id * 2);
+        }
+
+        ByteBuffer chunk = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+
+        if (chunk == null || chunk.remaining() < 4 + bytes.length) {
+            chunk = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, 4 + bytes.length));
+            this.chunks.add(chunk);
+            this.offHeapBytes = this.offHeapBytes + chunk.capacity();
+        }
+
+        this.offsets[id] = ((long) (this.chunks.size() - 1) << 32) | chunk.position();
+        this.hashes[id] = hash(bytes);
+        chunk.putInt(bytes.length);
+        chunk.put(bytes);
+
+        this.count++;
+        this.uniqueBytes = this.uniqueBytes + bytes.length;
+
+        if (this.count * 2 > this.slots.length) {
+            this.slots = new int[this.slots.length * 2];
+
+            for (int i = 0; i < this.count; i++) {
+                this.place(i);
+            }
+        }
+
+        else {
+            this.place(id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Put an id in the first free slot for its hash
+     *
+     * @param id the id
+     */
+    private void place(int id) {
+        int mask = this.slots.length - 1;
+        int slot = this.hashes[id] & mask;
+
+        while (this.slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        this.slots[slot] = id + 1;
+    }
+
+    /**
+     * Find the id of a string
+     *
+     * @param bytes the string in UTF-8
+     * @param hash  the hash of bytes
+     * @return the id, or <code>-1</code> if the string isn't in the table
+     */
+    private int find(byte[] bytes, int hash) {
+        int mask = this.slots.length - 1;
+
+        for (int slot = hash & mask; this.slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = this.slots[slot] - 1;
+
+            if (this.hashes[id] == hash && this.equals(id, bytes)) {
+                return id;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Compare a string of the table with another
+     *
+     * @param id    the id of the string
+     * @param bytes the other string in UTF-8
+     * @return <code>true</code> if they are the same
+     */
+    private boolean equals(int id, byte[] bytes) {
+        ByteBuffer chunk = this.chunks.get((int) (this.offsets[id] >>> 32));
+        int position = (int) this.offsets[id];
+
+        if (chunk.getInt(position) != bytes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(position + 4 + i) != bytes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = Arrays.hashCode(bytes);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Get the id of the string, adding it to the table if it is not there yet.
+     * Newly added strings reach the disk on the next {@link #flush()}.
+     *
+     * @param s the string
+     * @return the id of the string, or <code>-1</code> if the string couldn't be
+     *         persisted
+     */
+    public synchronized int intern(String s) {
+        byte[] bytes = s.getBytes(charset);
+        int id = this.find(bytes, hash(bytes));
+
+        if (id >= 0) {
+            return id;
+        }
+
+        try {
+            if (this.out == null) {
+                this.fileOut = new FileOutputStream(this.tableFile, true);
+                this.out = new DataOutputStream(new BufferedOutputStream(this.fileOut));
+            }
+
+            this.out.writeInt(bytes.length);
+            this.out.write(bytes);
+            this.unsynced = true;
+        }
+
+        catch (FileNotFoundException e) {
+            appIO.printf("%n%n[%s] Cannot find \"%s\". Please try again later", ColorText.text("FAIL", Color.RED),
+                    appIO.fetchCanonical(this.tableFile));
+            return -1;
+        }
+
+        catch (IOException e) {
+            appIO.printf(
+                    "%n%n[%s] Unable to save strings to \"%s\". Please make sure Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), appIO.fetchCanonical(this.tableFile));
+            return -1;
+        }
+
+        return this.add(bytes);
+    }
+
+    /**
+     * Get the string with the given id, decoded from the chunks
+     *
+     * @param id the id of the string
+     * @return the string, or <code>null</code> if there's no such id
+     */
+    public synchronized String lookup(int id) {
+        if (id < 0 || id >= this.count) {
+            return null;
+        }
+
+        ByteBuffer chunk = this.chunks.get((int) (this.offsets[id] >>> 32));
+        int position = (int) this.offsets[id];
+        byte[] bytes = new byte[chunk.getInt(position)];
+
+        chunk.get(position + 4, bytes);
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Get the length of the string with the given id, without decoding it
+     *
+     * @param id the id of the string
+     * @return the number of UTF-8 bytes of the string, or <code>-1</code> if
+     *         there's no such id
+     */
+    public synchronized int length(int id) {
+        if (id < 0 || id >= this.count) {
+            return -1;
+        }
+
+        return this.chunks.get((int) (this.offsets[id] >>> 32)).getInt((int) this.offsets[id]);
+    }
+
+    /**
+     * Write the newly interned strings to the disk, forcing them to it if
+     * "powerdict.fsync" is set. A vocab file referring to the strings is only
+     * written after this, so that a crash cannot leave it with unknown ids.
+     *
+     * @return <code>true</code> if successfully written, <code>false</code>
+     *         otherwise
+     */
+    public synchronized boolean flush() {
+        if (this.out == null) {
+            return true;
+        }
+
+        DiskEvent event = new DiskEvent();
+        event.begin();
+
+        try {
+            this.out.flush();
+
+            if (this.unsynced && RecordFile.isFsync()) {
+                this.fileOut.getFD().sync();
+            }
+
+            this.unsynced = false;
+            event.emitFlush(this.tableFile);
+            return true;
+        }
+
+        catch (IOException e) {
+            appIO.printf(
+                    "%n%n[%s] Unable to save strings to \"%s\". Please make sure Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), appIO.fetchCanonical(this.tableFile));
+            return false;
+        }
+    }
+
+    /**
+     * Convert strings into their ids
+     *
+     * @param values the strings
+     * @return the ids, or <code>null</code> if any string couldn't be interned
+     */
+    public int[] internAll(String[] values) {
+        int[] result = new int[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            result[i] = this.intern(values[i]);
+
+            if (result[i] < 0) {
+                return null;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Convert ids back into their strings
+     *
+     * @param values the ids
+     * @return the strings, or <code>null</code> if any id is unknown
+     */
+    public String[] lookupAll(int[] values) {
+        String[] result = new String[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            result[i] = this.lookup(values[i]);
+
+            if (result[i] == null) {
+                return null;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Check that ids are known, without converting them
+     *
+     * @param values the ids, may be <code>null</code>
+     * @return <code>true</code> if every id is known, <code>false</code> otherwise
+     */
+    public synchronized boolean containsAll(int[] values) {
+        if (values == null) {
+            return true;
+        }
+
+        for (int id : values) {
+            if (id < 0 || id >= this.count) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Number of strings in the table
+     *
+     * @return the number of unique strings
+     */
+    public synchronized int size() {
+        return this.count;
+    }
+
+    /**
+     * Total length of the strings in the table
+     *
+     * @return the number of UTF-8 bytes of all the unique strings
+     */
+    public synchronized long getUniqueBytes() {
+        return this.uniqueBytes;
+    }
+
+    /**
+     * Print how much space the table saves over storing every string separately
+     *
+     * @param references      number of times the strings of the table are
+     *                        referred to by the cached words
+     * @param referencedBytes total UTF-8 bytes of the referred strings, counting
+     *                        repeats
+     */
+    public synchronized void printSavings(long references, long referencedBytes) {
+        // on disk: ids in the history files plus the length-prefixed table
+        long diskWithout = referencedBytes;
+        long diskWith = 4 * references + 4L * this.count + this.uniqueBytes;
+
+        // in memory: one String object per reference, or one id per reference plus
+        // the primitive arrays of the table, the strings themselves being off the heap
+        long heapWithout = STRING_OVERHEAD * references + referencedBytes;
+        long heapWith = 4 * references + this.getHeapBytes();
+
+        appIO.printf("%n%n%s%n", ColorText.text("String table -", Color.MAGENTA));
+        appIO.printf("%n- Unique strings           : %d", this.count);
+        appIO.printf("%n- References from history  : %d", references);
+        appIO.printf("%n- Disk bytes without table : %d", diskWithout);
+        appIO.printf("%n- Disk bytes with table    : %d", diskWith);
+        appIO.printf("%n- Heap bytes without table : %d", heapWithout);
+        appIO.printf("%n- Heap bytes with table    : %d", heapWith);
+        appIO.printf("%n- Heap bytes of the table  : %d", this.getHeapBytes());
+        appIO.printf("%n- Off-heap bytes of table  : %d", this.offHeapBytes);
+    }
+
+    /**
+     * Bytes of heap held by the table itself, its primitive arrays
+     *
+     * @return the number of bytes
+     */
+    public synchronized long getHeapBytes() {
+        return 8L * this.offsets.length + 4L * this.hashes.length + 4L * this.slots.length;
+    }
+
+    /**
+     * Split synonyms into the tokens stored in the table
+     *
+     * @param synonyms comma separated synonyms, as held by {@link Vocab}
+     * @return the tokens
+     */
+    public static String[] tokenize(String synonyms) {
+        return synonyms.split(", ", -1);
+    }
+
+    /**
+     * Join the tokens back into comma separated synonyms
+     *
+     * @param tokens the tokens
+     * @return comma separated synonyms, as held by {@link Vocab}
+     */
+    public static String join(String[] tokens) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+
+            sb.append(tokens[i]);
+        }
+
+        return sb.toString();
+    }
+}
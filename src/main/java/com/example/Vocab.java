@@ -1,20 +1,33 @@
 package com.example;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Stores the vocab word, and provides methods to serialize/deserialize Vocab
  * objects
  *
+ * The definitions, their parts of speech and the synonyms are kept in their
+ * compact form, as ids of the {@link StringTable}, when the vocab is read from
+ * the disk or the {@link VocabArena}. They are decoded into strings only when
+ * first asked for, so that callers who only need the word or the counts don't
+ * pay for it. The decoding done by each accessor is measured, see
+ * {@link #printDecodeStats()}.
+ *
+ * The definitions are stored grouped by {@link PartOfSpeech}, in the order of
+ * the enum, along with the number of definitions in each group. The senses of
+ * one part of speech are then a block of ids that can be decoded on its own.
+ *
  * @author Bhavyai Gupta
  * @version 1.0.0
  * @since June 27, 2021
@@ -23,15 +36,203 @@ public class Vocab implements Serializable {
     // generated via serialver
     private static final long serialVersionUID = 1071553591311788248L;
 
+    /**
+     * The ways the contents of a vocab are accessed, for measuring the decoding
+     */
+    public enum Access {
+        COUNTS, DEFINITIONS, PARTS_OF_SPEECH, SYNONYMS
+    }
+
     // actual fields to be serialized/deserialized
     public String word;
-    public String[] definition;
-    public String synonyms;
+
+    // decoded lazily from the ids below, use the getters
+    private String[] definition;
+    private String[] partOfSpeech;
+    private String synonyms;
+
+    // the compact form, ids of the StringTable
+    private transient int[] definitionIds;
+    private transient int[] partOfSpeechIds;
+    private transient int[] synonymIds;
+
+    // number of definitions of each PartOfSpeech, by ordinal, null if unknown
+    private int[] partOfSpeechCounts;
+
+    // time (millis since epoch) the vocab was fetched from its provider, 0 if unknown
+    public long fetchedAt;
+
+    // name of the dictionary provider the vocab came from, not persisted
+    public transient String source;
+
+    // set while the synonyms are still being fetched or if they could not be, such a vocab is not cached
+    public transient boolean incomplete;
 
     // no need to declare static fields as transient
     static private String basepath = "history";
     static private String fileExtension = ".ser";
+    static private String encodedExtension = ".peer";
     static private AppIO appIO = AppIO.getInstance();
+    static private Metrics metrics = Metrics.getInstance();
+
+    // per access pattern: calls, calls that had to decode, and nanoseconds spent decoding
+    static private AtomicLongArray accessCalls = new AtomicLongArray(Access.values().length);
+    static private AtomicLongArray accessDecodes = new AtomicLongArray(Access.values().length);
+    static private AtomicLongArray accessNanos = new AtomicLongArray(Access.values().length);
+
+    /**
+     * The serialized form of Vocab. Earlier versions stored the text in
+     * "definition" and "synonyms". Now the text is stored once in the
+     * {@link StringTable}, and only the ids of the definitions, of their parts of
+     * speech and of the synonym tokens are serialized in "definitionIds",
+     * "partOfSpeechIds" and "synonymIds". Files in either form can be read.
+     * "fetchedAt" and the parts of speech are missing from older files, and the
+     * definitions of files without "partOfSpeechCounts" are grouped when read.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("word", String.class), new ObjectStreamField("definition", String[].class),
+            new ObjectStreamField("synonyms", String.class), new ObjectStreamField("definitionIds", int[].class),
+            new ObjectStreamField("synonymIds", int[].class), new ObjectStreamField("fetchedAt", long.class),
+            new ObjectStreamField("partOfSpeech", String[].class),
+            new ObjectStreamField("partOfSpeechIds", int[].class),
+            new ObjectStreamField("partOfSpeechCounts", int[].class) };
+
+    /**
+     * Construct an empty vocab, to be filled by deserialization
+     */
+    public Vocab() {
+    }
+
+    /**
+     * Construct a vocab from the definitions returned by a dictionary provider
+     *
+     * @param word        the word
+     * @param definitions the definitions along with their parts of speech
+     * @param synonyms    the comma separated synonyms, may be <code>null</code>
+     */
+    public Vocab(String word, WordnikDef[] definitions, String synonyms) {
+        this.word = word;
+        this.definition = new String[definitions.length];
+        this.partOfSpeech = new String[definitions.length];
+        this.synonyms = synonyms;
+
+        for (int i = 0; i < definitions.length; i++) {
+            this.definition[i] = definitions[i].text;
+            this.partOfSpeech[i] = (definitions[i].partOfSpeech == null) ? "" : definitions[i].partOfSpeech;
+        }
+
+        this.group();
+    }
+
+    /**
+     * Construct a vocab from its compact form, without decoding anything
+     *
+     * @param word            the word
+     * @param fetchedAt       time the vocab was fetched from its provider
+     * @param definitionIds   ids of the definitions
+     * @param partOfSpeechIds ids of the parts of speech, may be <code>null</code>
+     * @param synonymIds      ids of the synonym tokens, may be <code>null</code>
+     * @param counts          number of definitions of each part of speech, may
+     *                        be <code>null</code>
+     * @return the vocab
+     */
+    static Vocab fromIds(String word, long fetchedAt, int[] definitionIds, int[] partOfSpeechIds, int[] synonymIds,
+            int[] counts) {
+        Vocab vocab = new Vocab();
+
+        vocab.word = word;
+        vocab.fetchedAt = fetchedAt;
+        vocab.definitionIds = definitionIds;
+        vocab.partOfSpeechIds = partOfSpeechIds;
+        vocab.synonymIds = synonymIds;
+        vocab.partOfSpeechCounts = counts;
+
+        return vocab;
+    }
+
+    /**
+     * Order the definitions by part of speech, keeping their order within each
+     * part of speech, and count the definitions of each. Works on the ids
+     * without decoding the definitions. Definitions without parts of speech are
+     * left as they are.
+     */
+    private void group() {
+        String[] labels = (this.partOfSpeech != null) ? this.partOfSpeech
+                : (this.partOfSpeechIds != null) ? StringTable.getInstance().lookupAll(this.partOfSpeechIds) : null;
+
+        if (labels == null) {
+            return;
+        }
+
+        int[] counts = new int[PartOfSpeech.values().length];
+        int[] groups = new int[labels.length];
+
+        for (int i = 0; i < labels.length; i++) {
+            groups[i] = PartOfSpeech.of(labels[i]).ordinal();
+            counts[groups[i]]++;
+        }
+
+        // where the next definition of each group goes
+        int[] next = new int[counts.length];
+
+        for (int g = 1; g < counts.length; g++) {
+            next[g] = next[g - 1] + counts[g - 1];
+        }
+
+        int[] position = new int[labels.length];
+
+        for (int i = 0; i < labels.length; i++) {
+            position[i] = next[groups[i]]++;
+        }
+
+        this.definition = permute(this.definition, position);
+        this.partOfSpeech = permute(this.partOfSpeech, position);
+        this.definitionIds = permute(this.definitionIds, position);
+        this.partOfSpeechIds = permute(this.partOfSpeechIds, position);
+        this.partOfSpeechCounts = counts;
+    }
+
+    /**
+     * Move every element to its new position
+     *
+     * @param values   the values, may be <code>null</code>
+     * @param position the new position of each element
+     * @return the moved values, or <code>null</code> if there were none
+     */
+    private static String[] permute(String[] values, int[] position) {
+        if (values == null) {
+            return null;
+        }
+
+        String[] result = new String[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            result[position[i]] = values[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Move every element to its new position
+     *
+     * @param values   the values, may be <code>null</code>
+     * @param position the new position of each element
+     * @return the moved values, or <code>null</code> if there were none
+     */
+    private static int[] permute(int[] values, int[] position) {
+        if (values == null) {
+            return null;
+        }
+
+        int[] result = new int[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            result[position[i]] = values[i];
+        }
+
+        return result;
+    }
 
     /**
      * deserialize the word from the file "filename"
@@ -42,20 +243,28 @@ public class Vocab implements Serializable {
      */
     public static Vocab read(String filename) {
         Vocab vocab = null;
+        long start = System.nanoTime();
 
         // create the to-be filename: basepath/filename.ser
         File f = new File(basepath + File.separator + filename + fileExtension);
 
-        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(f)))) {
-            // read the object from the file
-            Object obj = ois.readObject();
+        try {
+            byte[] payload = RecordFile.read(f);
+
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+                // read the object from the checked payload of the file
+                Object obj = ois.readObject();
 
-            if (obj instanceof Vocab) {
-                vocab = (Vocab) obj;
+                if (obj instanceof Vocab) {
+                    vocab = (Vocab) obj;
+                }
             }
+
+            metrics.bytesRead(payload.length);
+            metrics.record(Metrics.Stage.VOCAB_READ, start);
         }
 
-        catch (FileNotFoundException e) {
+        catch (FileNotFoundException | NoSuchFileException e) {
             appIO.printf("%n%n[%s] Cannot find \"%s\". Please try again later", ColorText.text("FAIL", Color.RED),
                     appIO.fetchCanonical(f));
         }
@@ -84,14 +293,23 @@ public class Vocab implements Serializable {
      */
     public static boolean write(Vocab vocab, String filename) {
         boolean flag = false;
+        long start = System.nanoTime();
 
         // create the to-be filename: basepath/filename.ser
         File f = new File(basepath + File.separator + filename + fileExtension);
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
             oos.writeObject(vocab);
             oos.flush();
+
+            // replaced atomically, a crash leaves either the old or the new results
+            RecordFile.write(f, bytes.toByteArray());
             flag = true;
+
+            metrics.bytesWritten(bytes.size());
+            metrics.record(Metrics.Stage.VOCAB_WRITE, start);
         }
 
         catch (FileNotFoundException e) {
@@ -124,25 +342,464 @@ public class Vocab implements Serializable {
             flag = true;
         }
 
+        // the response to peers encoded from it, if any, is stale now
+        getEncodedFile(filename).delete();
+
         return flag;
     }
 
     /**
-     * Method to print the word, its definitions, and all the synonyms
+     * Check if a cache of a vocab, or the response to peers encoded from it, is
+     * on the disk under a name, whether history refers to it or not
+     *
+     * @param filename the name of the file, without its extension
+     * @return <code>true</code> if either file exists, <code>false</code>
+     *         otherwise
      */
-    public void print() {
-        appIO.printf("%n%n%n%s%n%n%s%n", ColorText.text("Word -", Color.MAGENTA), this.word);
+    static boolean exists(String filename) {
+        return new File(basepath + File.separator + filename + fileExtension).exists()
+                || getEncodedFile(filename).exists();
+    }
+
+    /**
+     * Check a vocab read from a line of JSON, such as a line of an export or of
+     * the local dictionary. Gson lets <code>[null]</code> and <code>[]</code>
+     * through, which cannot be printed or stored.
+     *
+     * @param entry the vocab read, may be <code>null</code>
+     * @return <code>true</code> if it has a word and definitions, with no
+     *         <code>null</code> among the definitions and parts of speech,
+     *         <code>false</code> otherwise
+     */
+    static boolean isWellFormed(Vocab entry) {
+        return entry != null && entry.word != null && entry.getDefinitions() != null
+                && entry.getDefinitions().length > 0 && !hasNull(entry.getDefinitions())
+                && !hasNull(entry.getPartsOfSpeech());
+    }
+
+    /**
+     * Check for the nulls of an array such as <code>[null]</code> in a line
+     *
+     * @param values the array, may be <code>null</code>
+     * @return <code>true</code> if an element is <code>null</code>,
+     *         <code>false</code> otherwise
+     */
+    private static boolean hasNull(String[] values) {
+        return values != null && Arrays.asList(values).contains(null);
+    }
+
+    /**
+     * The file holding the response to peers encoded from the cache of a vocab,
+     * see {@link PeerServer}
+     *
+     * @param filename the name of the file the vocab is cached in
+     * @return the file, which may not exist
+     */
+    static File getEncodedFile(String filename) {
+        return new File(basepath + File.separator + filename + encodedExtension);
+    }
+
+    /**
+     * The definitions of the word
+     *
+     * @return the definitions
+     */
+    public String[] getDefinitions() {
+        long start = System.nanoTime();
+
+        if (this.definition == null && this.definitionIds != null) {
+            this.definition = StringTable.getInstance().lookupAll(this.definitionIds);
+            recordAccess(Access.DEFINITIONS, start, true);
+        }
+
+        else {
+            recordAccess(Access.DEFINITIONS, start, false);
+        }
+
+        return this.definition;
+    }
+
+    /**
+     * The definitions of one part of speech. Only that block of definitions is
+     * decoded.
+     *
+     * @param pos the part of speech
+     * @return the definitions, empty if the word has no such sense or its parts of
+     *         speech are unknown
+     */
+    public String[] getDefinitions(PartOfSpeech pos) {
+        long start = System.nanoTime();
+
+        if (this.partOfSpeechCounts == null) {
+            return new String[0];
+        }
+
+        int from = 0;
+
+        for (int g = 0; g < pos.ordinal(); g++) {
+            from = from + this.partOfSpeechCounts[g];
+        }
+
+        int to = from + this.partOfSpeechCounts[pos.ordinal()];
+
+        if (this.definition != null) {
+            recordAccess(Access.DEFINITIONS, start, false);
+            return Arrays.copyOfRange(this.definition, from, to);
+        }
+
+        String[] block = StringTable.getInstance().lookupAll(Arrays.copyOfRange(this.definitionIds, from, to));
+        recordAccess(Access.DEFINITIONS, start, true);
+
+        return block;
+    }
+
+    /**
+     * The parts of speech the word has definitions for, one bit per
+     * {@link PartOfSpeech}
+     *
+     * @return the mask, 0 if the parts of speech are unknown
+     */
+    public int getPartOfSpeechMask() {
+        long start = System.nanoTime();
+        int mask = 0;
+
+        if (this.partOfSpeechCounts != null) {
+            for (PartOfSpeech pos : PartOfSpeech.values()) {
+                if (this.partOfSpeechCounts[pos.ordinal()] > 0) {
+                    mask = mask | pos.bit();
+                }
+            }
+        }
+
+        recordAccess(Access.COUNTS, start, false);
+        return mask;
+    }
 
-        if (this.definition.length > 0) {
-            appIO.printf("%n%n%s%n", ColorText.text("Definitions -", Color.MAGENTA));
+    /**
+     * Number of definitions of each part of speech, by ordinal
+     *
+     * @return the counts, or <code>null</code> if the parts of speech are unknown
+     */
+    int[] getPartOfSpeechCounts() {
+        return this.partOfSpeechCounts;
+    }
 
-            for (int i = 0; i < this.definition.length; i++) {
-                appIO.printf("%n%d. %s", (i + 1), this.definition[i]);
+    /**
+     * The part of speech of each definition, at the same position as in
+     * {@link #getDefinitions()}. An unknown part of speech is an empty string.
+     *
+     * @return the parts of speech, or <code>null</code> if they were not stored
+     */
+    public String[] getPartsOfSpeech() {
+        long start = System.nanoTime();
+
+        if (this.partOfSpeech == null && this.partOfSpeechIds != null) {
+            this.partOfSpeech = StringTable.getInstance().lookupAll(this.partOfSpeechIds);
+            recordAccess(Access.PARTS_OF_SPEECH, start, true);
+        }
+
+        else {
+            recordAccess(Access.PARTS_OF_SPEECH, start, false);
+        }
+
+        return this.partOfSpeech;
+    }
+
+    /**
+     * The definitions along with their parts of speech, as a dictionary provider
+     * returns them
+     *
+     * @return the definitions
+     */
+    WordnikDef[] toWordnikDefs() {
+        String[] definitions = this.getDefinitions();
+        String[] partsOfSpeech = this.getPartsOfSpeech();
+        WordnikDef[] result = new WordnikDef[definitions.length];
+
+        for (int i = 0; i < definitions.length; i++) {
+            result[i] = new WordnikDef();
+            result[i].text = definitions[i];
+
+            if (partsOfSpeech != null && i < partsOfSpeech.length) {
+                result[i].partOfSpeech = partsOfSpeech[i];
             }
         }
 
-        if (this.synonyms.length() > 0) {
-            appIO.printf("%n%n%n%s%n%n%s", ColorText.text("Synonyms -", Color.MAGENTA), this.synonyms);
+        return result;
+    }
+
+    /**
+     * The comma separated synonyms of the word
+     *
+     * @return the synonyms, or <code>null</code> if there are none
+     */
+    public String getSynonyms() {
+        long start = System.nanoTime();
+
+        if (this.synonyms == null && this.synonymIds != null) {
+            String[] tokens = StringTable.getInstance().lookupAll(this.synonymIds);
+            this.synonyms = (tokens == null) ? null : StringTable.join(tokens);
+            recordAccess(Access.SYNONYMS, start, true);
+        }
+
+        else {
+            recordAccess(Access.SYNONYMS, start, false);
+        }
+
+        return this.synonyms;
+    }
+
+    /**
+     * Number of definitions of the word, without decoding them
+     *
+     * @return the number of definitions
+     */
+    public int getDefinitionCount() {
+        long start = System.nanoTime();
+        int count = (this.definitionIds != null) ? this.definitionIds.length
+                : (this.definition == null) ? 0 : this.definition.length;
+
+        recordAccess(Access.COUNTS, start, false);
+        return count;
+    }
+
+    /**
+     * Number of synonyms of the word, without decoding them
+     *
+     * @return the number of synonyms
+     */
+    public int getSynonymCount() {
+        long start = System.nanoTime();
+        int count = (this.synonymIds != null) ? this.synonymIds.length
+                : (this.synonyms == null) ? 0 : StringTable.tokenize(this.synonyms).length;
+
+        recordAccess(Access.COUNTS, start, false);
+        return count;
+    }
+
+    /**
+     * Add every string of the vocab to the {@link StringTable}, so that it can be
+     * stored as ids
+     *
+     * @return <code>true</code> if every string has an id, <code>false</code> if
+     *         there are no definitions or some string couldn't be added
+     */
+    boolean encode() {
+        return this.getDefinitionIds() != null && (this.partOfSpeech == null || this.getPartOfSpeechIds() != null)
+                && (this.synonyms == null || this.getSynonymIds() != null);
+    }
+
+    /**
+     * The ids the vocab was stored with, without adding anything to the
+     * {@link StringTable}
+     *
+     * @return the ids of the definitions, parts of speech and synonym tokens, the
+     *         last two possibly <code>null</code>, or <code>null</code> if the
+     *         vocab holds plain text
+     */
+    int[][] getStoredIds() {
+        if (this.definitionIds == null) {
+            return null;
+        }
+
+        return new int[][] { this.definitionIds, this.partOfSpeechIds, this.synonymIds };
+    }
+
+    /**
+     * The ids of the definitions, adding them to the {@link StringTable} if needed
+     *
+     * @return the ids, or <code>null</code> if there are no definitions or they
+     *         couldn't be added to the table
+     */
+    int[] getDefinitionIds() {
+        if (this.definitionIds == null && this.definition != null) {
+            this.definitionIds = StringTable.getInstance().internAll(this.definition);
+        }
+
+        return this.definitionIds;
+    }
+
+    /**
+     * The ids of the parts of speech, adding them to the {@link StringTable} if
+     * needed
+     *
+     * @return the ids, or <code>null</code> if there are no parts of speech or
+     *         they couldn't be added to the table
+     */
+    int[] getPartOfSpeechIds() {
+        if (this.partOfSpeechIds == null && this.partOfSpeech != null) {
+            this.partOfSpeechIds = StringTable.getInstance().internAll(this.partOfSpeech);
+        }
+
+        return this.partOfSpeechIds;
+    }
+
+    /**
+     * The ids of the synonym tokens, adding them to the {@link StringTable} if
+     * needed
+     *
+     * @return the ids, or <code>null</code> if there are no synonyms or they
+     *         couldn't be added to the table
+     */
+    int[] getSynonymIds() {
+        if (this.synonymIds == null && this.synonyms != null) {
+            this.synonymIds = StringTable.getInstance().internAll(StringTable.tokenize(this.synonyms));
+        }
+
+        return this.synonymIds;
+    }
+
+    /**
+     * Count a call to an accessor
+     *
+     * @param access  the accessor
+     * @param start   System.nanoTime() when the call started
+     * @param decoded <code>true</code> if the call had to decode
+     */
+    private static void recordAccess(Access access, long start, boolean decoded) {
+        accessCalls.incrementAndGet(access.ordinal());
+
+        if (decoded) {
+            accessDecodes.incrementAndGet(access.ordinal());
+            accessNanos.addAndGet(access.ordinal(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Print, for each way of accessing the vocabs, how often it had to decode
+     * and how long the decoding took
+     */
+    public static void printDecodeStats() {
+        appIO.printf("%n%n%s%n", ColorText.text("Vocab decoding -", Color.MAGENTA));
+
+        for (Access access : Access.values()) {
+            int i = access.ordinal();
+
+            appIO.printf("%n- %-16s: %d calls, %d decoded, %d us decoding", access, accessCalls.get(i),
+                    accessDecodes.get(i), accessNanos.get(i) / 1000);
+        }
+    }
+
+    /**
+     * Serialize the definitions, parts of speech and synonyms as ids of the
+     * {@link StringTable}, without decoding them. Falls back to the plain text if
+     * the strings couldn't be added to the table.
+     *
+     * @param oos the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        StringTable table = StringTable.getInstance();
+
+        // the ids must be on disk before any file refers to them
+        boolean idsSaved = this.encode() && table.flush();
+
+        ObjectOutputStream.PutField fields = oos.putFields();
+        fields.put("word", this.word);
+        fields.put("fetchedAt", this.fetchedAt);
+        fields.put("partOfSpeechCounts", this.partOfSpeechCounts);
+
+        if (idsSaved) {
+            fields.put("definitionIds", this.definitionIds);
+            fields.put("partOfSpeechIds", this.partOfSpeechIds);
+            fields.put("synonymIds", this.synonymIds);
+        }
+
+        else {
+            fields.put("definition", this.getDefinitions());
+            fields.put("partOfSpeech", this.getPartsOfSpeech());
+            fields.put("synonyms", this.getSynonyms());
+        }
+
+        oos.writeFields();
+    }
+
+    /**
+     * Deserialize a vocab written either as ids of the {@link StringTable} or as
+     * plain text. The ids are checked, but not decoded.
+     *
+     * @param ois the stream to read from
+     * @throws IOException            if the stream cannot be read or refers to
+     *                                unknown ids
+     * @throws ClassNotFoundException if a class of a serialized field cannot be
+     *                                found
+     */
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = ois.readFields();
+        StringTable table = StringTable.getInstance();
+
+        this.word = (String) fields.get("word", null);
+        this.definition = (String[]) fields.get("definition", null);
+        this.partOfSpeech = (String[]) fields.get("partOfSpeech", null);
+        this.synonyms = (String) fields.get("synonyms", null);
+        this.fetchedAt = fields.get("fetchedAt", 0L);
+
+        this.definitionIds = (int[]) fields.get("definitionIds", null);
+        this.partOfSpeechIds = (int[]) fields.get("partOfSpeechIds", null);
+        this.synonymIds = (int[]) fields.get("synonymIds", null);
+        this.partOfSpeechCounts = (int[]) fields.get("partOfSpeechCounts", null);
+
+        if (!table.containsAll(this.definitionIds) || !table.containsAll(this.partOfSpeechIds)
+                || !table.containsAll(this.synonymIds)) {
+            throw new IOException("Unknown string id");
         }
+
+        if (this.definition == null && this.definitionIds == null) {
+            throw new IOException("No definitions");
+        }
+
+        if (this.partOfSpeechCounts != null && this.partOfSpeechCounts.length != PartOfSpeech.values().length) {
+            throw new IOException("Unknown parts of speech");
+        }
+
+        if (this.partOfSpeechCounts == null) {
+            this.group();
+        }
+    }
+
+    /**
+     * Method to print the word, its definitions, and all the synonyms. The
+     * output is built first and written at once, see {@link AppIO#block()}, and
+     * the headers are colored right into it.
+     */
+    public void print() {
+        long start = System.nanoTime();
+
+        try (AppIO.Block out = appIO.block()) {
+            ColorText.append(out.printf("%n%n%n").getBuffer(), "Word -", Color.MAGENTA);
+            out.printf("%n%n%s%n", this.word);
+
+            String[] definitions = this.getDefinitions();
+            String[] partsOfSpeech = this.getPartsOfSpeech();
+
+            if (definitions.length > 0) {
+                ColorText.append(out.printf("%n%n").getBuffer(), "Definitions -", Color.MAGENTA);
+                out.printf("%n");
+
+                for (int i = 0; i < definitions.length; i++) {
+                    if (partsOfSpeech != null && i < partsOfSpeech.length && !partsOfSpeech[i].isEmpty()) {
+                        out.printf("%n%d. (%s) %s", (i + 1), partsOfSpeech[i], definitions[i]);
+                    }
+
+                    else {
+                        out.printf("%n%d. %s", (i + 1), definitions[i]);
+                    }
+                }
+            }
+
+            String synonyms = this.getSynonyms();
+
+            if (this.incomplete) {
+                ColorText.append(out.printf("%n%n%n").getBuffer(), "Synonyms -", Color.MAGENTA);
+                out.printf("%n%n%s", "(not fetched yet, search again later)");
+            }
+
+            else if (synonyms != null && synonyms.length() > 0) {
+                ColorText.append(out.printf("%n%n%n").getBuffer(), "Synonyms -", Color.MAGENTA);
+                out.printf("%n%n%s", synonyms);
+            }
+        }
+
+        metrics.record(Metrics.Stage.RENDER, start);
     }
 }
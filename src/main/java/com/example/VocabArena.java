@@ -0,0 +1,335 @@
+package com.example;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Keeps the definitions and synonyms of recently used words outside the Java
+ * heap.
+ *
+ * Every cached {@link Vocab} is encoded into direct <code>ByteBuffer</code>
+ * chunks as the {@link StringTable} ids of its definitions and synonym tokens,
+ * and only a <code>long</code> handle is kept on the heap. The strings are
+ * materialized again only when the word is asked for, so a large cache doesn't
+ * turn into millions of small objects for the garbage collector to trace.
+ *
+ * A record is laid out as:
+ *
+ * <pre>
+ * long   time the vocab was fetched from its provider
+ * int    number of definitions
+ * int[]  ids of the definitions
+ * int    number of parts of speech, -1 if they are not known
+ * int[]  ids of the parts of speech
+ * int    number of groups of definitions, -1 if they are not known
+ * int[]  number of definitions of each part of speech
+ * int    number of synonym tokens, -1 if there are no synonyms
+ * int[]  ids of the synonym tokens
+ * </pre>
+ *
+ * A vocab taken out of the arena holds the ids, and only looks up the strings
+ * when they are asked for.
+ *
+ * The arena is append only. Removed records are only reclaimed when the arena
+ * fills up and is reset as a whole.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class VocabArena {
+    private static AppIO appIO = AppIO.getInstance();
+
+    /**
+     * size of every direct buffer allocated by the arena, unless a single record
+     * is bigger than this
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /**
+     * approximate bytes used by a String object and its backing array, excluding
+     * the characters themselves
+     */
+    private static final int STRING_OVERHEAD = 40;
+
+    /**
+     * approximate bytes used by an array object, excluding its elements
+     */
+    private static final int ARRAY_OVERHEAD = 16;
+
+    /**
+     * maximum number of bytes the arena may allocate off the heap
+     */
+    private long capacity;
+
+    /**
+     * the direct buffers holding the records
+     */
+    private ArrayList<ByteBuffer> chunks;
+
+    /**
+     * word to handle of its record, where a handle is the chunk number in the
+     * upper 32 bits and the offset inside the chunk in the lower 32 bits
+     */
+    private HashMap<String, Long> handles;
+
+    // statistics
+    private long allocated;
+    private long used;
+    private long onHeapEstimate;
+    private long resets;
+
+    /**
+     * Construct an empty arena
+     *
+     * @param capacity maximum number of bytes the arena may allocate off the heap
+     */
+    public VocabArena(long capacity) {
+        this.capacity = capacity;
+        this.chunks = new ArrayList<>();
+        this.handles = new HashMap<>();
+    }
+
+    /**
+     * Copy the definitions and synonyms of the vocab into the arena. If the arena
+     * is full, it is reset before storing the vocab.
+     *
+     * @param vocab the vocab to be stored
+     * @return <code>true</code> if the vocab is stored, <code>false</code> if it
+     *         can never fit in the arena or its strings couldn't be interned
+     */
+    public synchronized boolean put(Vocab vocab) {
+        if (!vocab.encode()) {
+            return false;
+        }
+
+        int[] definitions = vocab.getDefinitionIds();
+        int[] partsOfSpeech = vocab.getPartOfSpeechIds();
+        int[] synonyms = vocab.getSynonymIds();
+        int[] counts = vocab.getPartOfSpeechCounts();
+
+        int length = 8 + 4 * (4 + definitions.length + (partsOfSpeech == null ? 0 : partsOfSpeech.length)
+                + (counts == null ? 0 : counts.length) + (synonyms == null ? 0 : synonyms.length));
+
+        if (length > this.capacity) {
+            return false;
+        }
+
+        ByteBuffer chunk = this.reserve(length);
+
+        // the record always starts where the chunk's unused area starts
+        long handle = (((long) (this.chunks.size() - 1)) << 32) | chunk.position();
+
+        chunk.putLong(vocab.fetchedAt);
+        putIds(chunk, definitions);
+        putIds(chunk, partsOfSpeech);
+        putIds(chunk, counts);
+        putIds(chunk, synonyms);
+
+        this.handles.put(vocab.word, handle);
+        this.used = this.used + length;
+        this.onHeapEstimate = this.onHeapEstimate + estimateOnHeap(definitions, partsOfSpeech, synonyms);
+
+        return true;
+    }
+
+    /**
+     * Materialize the cached vocab of the word
+     *
+     * @param word the word to look for
+     * @return an object of <code>Vocab</code> if the word is cached,
+     *         <code>null</code> otherwise
+     */
+    public synchronized Vocab get(String word) {
+        Long handle = this.handles.get(word);
+
+        if (handle == null) {
+            return null;
+        }
+
+        ByteBuffer record = this.chunks.get((int) (handle >>> 32)).duplicate();
+        record.position((int) (handle & 0xFFFFFFFFL));
+
+        long fetchedAt = record.getLong();
+        int[] definitions = readIds(record);
+        int[] partsOfSpeech = readIds(record);
+        int[] counts = readIds(record);
+        int[] synonyms = readIds(record);
+
+        return Vocab.fromIds(word, fetchedAt, definitions, partsOfSpeech, synonyms, counts);
+    }
+
+    /**
+     * Check if the word is cached in the arena
+     *
+     * @param word the word to look for
+     * @return <code>true</code> if the word is cached, <code>false</code>
+     *         otherwise
+     */
+    public synchronized boolean contains(String word) {
+        return this.handles.containsKey(word);
+    }
+
+    /**
+     * Forget the cached vocab of the word. The space it used is reclaimed on the
+     * next reset.
+     *
+     * @param word the word to forget
+     */
+    public synchronized void remove(String word) {
+        this.handles.remove(word);
+    }
+
+    /**
+     * Forget all the cached words and release the direct buffers
+     */
+    public synchronized void clear() {
+        this.handles.clear();
+        this.chunks.clear();
+        this.allocated = 0;
+        this.used = 0;
+        this.onHeapEstimate = 0;
+    }
+
+    /**
+     * Print the off-heap usage of the arena next to the estimated heap usage of
+     * the same words as <code>Vocab</code> objects, and the heap the
+     * {@link StringTable} needs to decode the ids, along with the current heap and
+     * garbage collector figures of the JVM
+     */
+    public synchronized void printStats() {
+        appIO.printf("%n%n%s%n", ColorText.text("Off-heap cache -", Color.MAGENTA));
+        appIO.printf("%n- Cached words             : %d", this.handles.size());
+        appIO.printf("%n- Off-heap bytes allocated : %d", this.allocated);
+        appIO.printf("%n- Off-heap bytes used      : %d", this.used);
+        appIO.printf("%n- Same words on heap (est.): %d", this.onHeapEstimate);
+        appIO.printf("%n- String table on heap     : %d", StringTable.getInstance().getHeapBytes());
+        appIO.printf("%n- Resets since start       : %d", this.resets);
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+
+        appIO.printf("%n%n%s%n", ColorText.text("JVM -", Color.MAGENTA));
+        appIO.printf("%n- Heap used      : %d", heap.getUsed());
+        appIO.printf("%n- Heap committed : %d", heap.getCommitted());
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            appIO.printf("%n- %s : %d collections, %d ms", gc.getName(), gc.getCollectionCount(),
+                    gc.getCollectionTime());
+        }
+    }
+
+    /**
+     * Find room for a record of the given length, allocating a new chunk or
+     * resetting the arena if needed
+     *
+     * @param length the length of the record in bytes
+     * @return the chunk positioned where the record should be written
+     */
+    private ByteBuffer reserve(int length) {
+        ByteBuffer chunk = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+
+        if (chunk != null && chunk.remaining() >= length) {
+            return chunk;
+        }
+
+        int size = Math.max(CHUNK_SIZE, length);
+
+        // start afresh if the new chunk would exceed the capacity
+        if (this.allocated + size > this.capacity) {
+            if (!this.chunks.isEmpty()) {
+                this.clear();
+                this.resets++;
+            }
+
+            size = (int) Math.min(size, this.capacity);
+        }
+
+        chunk = ByteBuffer.allocateDirect(size);
+        this.chunks.add(chunk);
+        this.allocated = this.allocated + size;
+
+        return chunk;
+    }
+
+    /**
+     * Write ids preceded by their number at the current position of the buffer
+     *
+     * @param buffer the buffer to write to
+     * @param ids    the ids, may be <code>null</code>
+     */
+    private static void putIds(ByteBuffer buffer, int[] ids) {
+        if (ids == null) {
+            buffer.putInt(-1);
+            return;
+        }
+
+        buffer.putInt(ids.length);
+
+        for (int id : ids) {
+            buffer.putInt(id);
+        }
+    }
+
+    /**
+     * Read ids preceded by their number at the current position of the buffer
+     *
+     * @param buffer the buffer to read from
+     * @return the ids, or <code>null</code> if none were written
+     */
+    private static int[] readIds(ByteBuffer buffer) {
+        int count = buffer.getInt();
+
+        if (count < 0) {
+            return null;
+        }
+
+        int[] ids = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            ids[i] = buffer.getInt();
+        }
+
+        return ids;
+    }
+
+    /**
+     * Estimate the heap footprint of the definitions, parts of speech and
+     * synonyms of a vocab, once decoded
+     *
+     * @param definitions   ids of the definitions
+     * @param partsOfSpeech ids of the parts of speech, may be <code>null</code>
+     * @param synonyms      ids of the synonym tokens, may be <code>null</code>
+     * @return the approximate number of bytes
+     */
+    private static long estimateOnHeap(int[] definitions, int[] partsOfSpeech, int[] synonyms) {
+        StringTable table = StringTable.getInstance();
+        long size = ARRAY_OVERHEAD + 4L * definitions.length;
+
+        for (int id : definitions) {
+            size = size + STRING_OVERHEAD + table.length(id);
+        }
+
+        if (partsOfSpeech != null) {
+            size = size + ARRAY_OVERHEAD + 4L * partsOfSpeech.length;
+
+            for (int id : partsOfSpeech) {
+                size = size + STRING_OVERHEAD + table.length(id);
+            }
+        }
+
+        // the synonyms are joined into a single string
+        if (synonyms != null) {
+            size = size + STRING_OVERHEAD;
+
+            for (int id : synonyms) {
+                size = size + table.length(id) + 2;
+            }
+        }
+
+        return size;
+    }
+}
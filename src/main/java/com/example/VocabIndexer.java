@@ -1,16 +1,36 @@
 package com.example;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Stores the history of successful search of words and file name of their
@@ -21,6 +41,12 @@ import java.util.Iterator;
  * @since June 21, 2021
  */
 public class VocabIndexer {
+    /**
+     * shown before the results of a word found in history or the bundle, and
+     * looked for by {@link AccessLogReplay} to tell hits from misses
+     */
+    static final String CACHED_RESULTS = "showing cached results";
+
     private AppIO appIO;
 
     /**
@@ -33,6 +59,89 @@ public class VocabIndexer {
      */
     private File indexFile;
 
+    /**
+     * held for as long as the process runs, so that a single process at a time
+     * changes history and sweeps its files
+     */
+    private FileLock storeLock;
+
+    /**
+     * changes made to index since it was last written to indexFile
+     */
+    private IndexJournal journal;
+
+    /**
+     * changes in the journal after which index is written as a whole
+     */
+    private int checkpointRecords;
+
+    /**
+     * off-heap copy of the words searched in this session, to avoid reading the
+     * history files again
+     */
+    private VocabArena arena;
+
+    /**
+     * parts of speech of the words in history, to filter them without reading
+     * their cached results
+     */
+    private PosIndex posIndex;
+
+    /**
+     * read-only words shipped from another host, asked before the providers, or
+     * <code>null</code> if no bundle is mounted
+     */
+    private DictionaryBundle bundle;
+
+    /**
+     * answers the other nodes for the words this node owns, or <code>null</code>
+     * if peer mode is off
+     */
+    private PeerServer peerServer;
+
+    /**
+     * the dictionary providers asked for words that are not in history
+     */
+    private ProviderChain providers;
+
+    /**
+     * milliseconds a search may take before showing whatever it has
+     */
+    private long searchDeadlineMillis;
+
+    /**
+     * milliseconds after which a cached word is fetched again, 0 to never do so
+     */
+    private long ttlMillis;
+
+    /**
+     * words being fetched again in the background
+     */
+    private Set<String> refreshing;
+
+    /**
+     * files of cleared history still being deleted in the background, whose
+     * names are not handed out again until then
+     */
+    private Set<String> deleting;
+
+    /**
+     * searches running at the moment
+     */
+    private AtomicInteger searching;
+
+    /**
+     * deletes the files in history that are no longer referred to
+     */
+    private HistoryCompactor compactor;
+
+    private Metrics metrics;
+
+    /**
+     * log of the searches, <code>null</code> unless "powerdict.accesslog" is set
+     */
+    private AccessLog accessLog;
+
     /**
      * The instance variable containing the one and only object of VocabIndexer
      */
@@ -41,42 +150,84 @@ public class VocabIndexer {
     /**
      * VocabIndexer follows Singleton design pattern
      *
-     * @return the instance of this VocabIndexer
+     * @return the instance of this VocabIndexer, or <code>null</code> if history
+     *         is in use by another process
      */
-    public static VocabIndexer getInstance() {
-        if (instanceVar == null)
-            instanceVar = new VocabIndexer();
+    public static synchronized VocabIndexer getInstance() {
+        try {
+            if (instanceVar == null)
+                instanceVar = new VocabIndexer();
+
+            return instanceVar;
+        }
 
-        return instanceVar;
+        catch (IOException e) {
+            AppIO.getInstance().printf(e.getMessage());
+            return null;
+        }
     }
 
     /**
      * Private constructor to restrict instantiating by foreign functions
+     *
+     * @throws IOException if history is in use by another process
      */
-    private VocabIndexer() {
+    private VocabIndexer() throws IOException {
         this.appIO = AppIO.getInstance();
+        this.metrics = Metrics.getInstance();
+        this.storeLock = this.lockStore(new File("index.lock"));
         this.index = new HashMap<>();
         String defaultPath = "index";
         this.indexFile = new File(defaultPath);
+        this.arena = new VocabArena(AppConfig.getLong("powerdict.arena.capacity", 64L << 20));
+        this.providers = new ProviderChain();
+        this.searchDeadlineMillis = AppConfig.getLong("powerdict.search.deadline", 5000);
+        this.ttlMillis = AppConfig.getLong("powerdict.cache.ttl", 0);
+        this.refreshing = ConcurrentHashMap.newKeySet();
+        this.deleting = ConcurrentHashMap.newKeySet();
+        this.searching = new AtomicInteger();
+        this.posIndex = new PosIndex(new File("posindex"));
+        this.journal = new IndexJournal(new File("index.journal"));
+        this.checkpointRecords = Math.max(1, AppConfig.getInt("powerdict.journal.checkpoint", 1000));
 
         File historyFolder = new File("history");
         historyFolder.mkdirs();
 
         // if the indexFile can be read, read it to store the indexFile in the memory
         if (this.indexFile.isFile() && this.indexFile.canRead()) {
-            this.read();
+            boolean recovered = false;
+
+            // a torn or corrupted index is rebuilt from the cached results themselves
+            if (!this.read()) {
+                recovered = this.recover(historyFolder);
+            }
+
+            boolean posIndexRead = this.posIndex.read();
+            this.replayJournal();
+
+            // history written before the parts of speech were indexed, or by a crashed run
+            if (!posIndexRead || !this.posIndex.matches(this.index.keySet())) {
+                this.rebuildPosIndex();
+            }
+
+            if (recovered) {
+                this.checkpoint();
+            }
         }
 
         // if for permissions the indexFile cannot be read
         else if ((this.indexFile.isFile() == true) && (this.indexFile.canRead() == false)) {
+            this.journal = null;
             this.appIO.printf("%n%n[%s] \"%s\" file cannot be read", ColorText.text("FAIL", Color.RED),
                     this.appIO.fetchCanonical(this.indexFile));
         }
 
         // if the indexFile does not exist, create it
         else {
+            this.replayJournal();
+
             try {
-                if (this.write() == false) {
+                if (this.checkpoint() == false) {
                     throw new IOException("Cannot create a new file");
                 }
             }
@@ -87,6 +238,540 @@ public class VocabIndexer {
                         ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(this.indexFile));
             }
         }
+
+        // changes still waiting for their batch to be forced to the disk
+        if (this.journal != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this.journal::sync));
+        }
+
+        this.compactor = new HistoryCompactor(this, historyFolder);
+        this.compactor.start();
+
+        String accessLogPath = AppConfig.get("powerdict.accesslog", "");
+
+        if (!accessLogPath.isEmpty()) {
+            this.accessLog = new AccessLog(new File(accessLogPath));
+            Runtime.getRuntime().addShutdownHook(new Thread(this.accessLog::close));
+        }
+
+        String bundlePath = AppConfig.get("powerdict.bundle", "");
+
+        if (!bundlePath.isEmpty()) {
+            this.mountBundle(new File(bundlePath));
+        }
+
+        String self = AppConfig.get("powerdict.peer.self", "");
+
+        if (!self.isEmpty()) {
+            this.startPeerServer(self);
+        }
+    }
+
+    /**
+     * Listen for the other nodes of the ring, see {@link PeerProvider}
+     *
+     * @param self this node, as host:port
+     */
+    private void startPeerServer(String self) {
+        int separator = self.lastIndexOf(':');
+
+        try {
+            InetSocketAddress address = new InetSocketAddress(self.substring(0, separator),
+                    Integer.parseInt(self.substring(separator + 1)));
+
+            this.peerServer = new PeerServer(address, this::lookupForPeer, this::encodedForPeer);
+        }
+
+        catch (IOException | RuntimeException e) {
+            this.appIO.printf("%n%n[%s] Unable to listen for peers on \"%s\". Please check \"powerdict.peer.self\"",
+                    ColorText.text("FAIL", Color.RED), self);
+        }
+    }
+
+    /**
+     * Look up a word this node owns for another node, quietly. The word is
+     * answered from history when possible, and added to it otherwise, so that
+     * the next node asking for it is answered from history too.
+     *
+     * @param word the word
+     * @return the vocab, or <code>null</code> if it's unknown or didn't arrive in
+     *         time
+     */
+    private Vocab lookupForPeer(String word) {
+        return this.appIO.withOutput(Writer.nullWriter(), () -> {
+            String filename;
+
+            synchronized (this) {
+                filename = this.index.get(word);
+            }
+
+            if (filename != null) {
+                return this.loadCached(word, filename);
+            }
+
+            Vocab bundled = (this.bundle != null) ? this.bundle.get(word) : null;
+
+            if (bundled != null) {
+                return bundled;
+            }
+
+            Deadline deadline = Deadline.after(this.searchDeadlineMillis);
+            ProviderChain.Lookup lookup = this.providers.lookup(word, deadline);
+
+            // whatever arrives late still makes it to history
+            lookup.getComplete().thenAccept(this::addCompleted);
+
+            Vocab vocab = this.await(lookup.getComplete(), deadline);
+
+            // other nodes would keep the results without their synonyms
+            return (vocab == null || vocab.incomplete) ? null : vocab;
+        });
+    }
+
+    /**
+     * The response to another node for a word in history. It is encoded once,
+     * when the word is first asked for, and kept next to the cached results of
+     * the word, which delete it when they are replaced or removed.
+     *
+     * @param word the word
+     * @return the file holding the response, or <code>null</code> if the word is
+     *         not in history or the response cannot be written
+     */
+    private Path encodedForPeer(String word) {
+        String filename;
+
+        synchronized (this) {
+            filename = this.index.get(word);
+        }
+
+        if (filename == null) {
+            return null;
+        }
+
+        File encoded = Vocab.getEncodedFile(filename);
+
+        if (encoded.isFile()) {
+            return encoded.toPath();
+        }
+
+        Vocab vocab = this.appIO.withOutput(Writer.nullWriter(), () -> this.loadCached(word, filename));
+
+        if (vocab == null) {
+            return null;
+        }
+
+        try {
+            RecordFile.write(encoded, this.peerServer.encode(vocab));
+            return encoded.toPath();
+        }
+
+        catch (IOException e) {
+            // answered from the vocab instead
+            return null;
+        }
+    }
+
+    /**
+     * Mount a bundle built by {@link DictionaryBundle#build(Map, File)}
+     *
+     * @param bundleFile the bundle
+     */
+    private void mountBundle(File bundleFile) {
+        try {
+            this.bundle = new DictionaryBundle(bundleFile);
+        }
+
+        catch (IOException e) {
+            this.appIO.printf(
+                    "%n%n[%s] Unable to mount the bundle \"%s\". Please make sure it was built by Power-Dict",
+                    ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(bundleFile));
+        }
+    }
+
+    /**
+     * Build a bundle of the words in history, to be mounted on other hosts with
+     * "powerdict.bundle"
+     *
+     * @param target the bundle to write
+     * @return <code>true</code> if the bundle was built, <code>false</code>
+     *         otherwise
+     */
+    public boolean buildBundle(File target) {
+        try {
+            DictionaryBundle.build(this.getIndexSnapshot(), target);
+            return true;
+        }
+
+        catch (IOException e) {
+            this.appIO.printf(
+                    "%n%n[%s] Unable to build the bundle \"%s\". Please make sure Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(target));
+            return false;
+        }
+    }
+
+    /**
+     * Take the lock on history. The menu, the daemon, an import, an export and a
+     * bundle build each work on history from a process of their own, and would
+     * otherwise delete the files of one another as orphans and truncate one
+     * another's journal. The lock is a file of its own, as the index is replaced
+     * rather than written in place.
+     *
+     * @param lockFile the file to lock
+     * @return the lock, released when the process exits
+     * @throws IOException if another process holds the lock, or the file cannot
+     *                     be locked
+     */
+    private FileLock lockStore(File lockFile) throws IOException {
+        FileLock lock = null;
+
+        try {
+            FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+
+            try {
+                lock = channel.tryLock();
+            }
+
+            catch (OverlappingFileLockException e) {
+                // held by this process already
+            }
+
+            if (lock == null) {
+                channel.close();
+            }
+        }
+
+        catch (IOException e) {
+            throw new IOException(String.format(
+                    "%n%n[%s] \"%s\" file could not be locked. Please make sure Power-Dict has appropriate permissions",
+                    ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(lockFile)), e);
+        }
+
+        if (lock == null) {
+            throw new IOException(String.format(
+                    "%n%n[%s] History is in use by another Power-Dict process. Please close it, or stop the daemon with --stop-daemon",
+                    ColorText.text("FAIL", Color.RED)));
+        }
+
+        return lock;
+    }
+
+    /**
+     * Check if this process still holds the lock on history
+     *
+     * @return <code>true</code> if it does, <code>false</code> otherwise
+     */
+    boolean ownsStore() {
+        return this.storeLock != null && this.storeLock.isValid();
+    }
+
+    /**
+     * Hand history over to another process: stop the history compactor, force
+     * the journal to the disk and release the lock. Nothing is saved to history
+     * by this process afterwards.
+     */
+    synchronized void releaseStore() {
+        this.compactor.stop();
+        this.sync();
+
+        try {
+            if (this.ownsStore()) {
+                this.storeLock.channel().close();
+            }
+        }
+
+        catch (IOException e) {
+            // the lock goes with the process anyway
+        }
+    }
+
+    /**
+     * Apply the changes in the journal on top of the index read from indexFile.
+     * If the journal cannot be opened, every change writes the whole index
+     * instead.
+     */
+    private void replayJournal() {
+        try {
+            long dropped = this.journal.replay(record -> {
+                if (record.getOp() == IndexJournal.Op.PUT) {
+                    this.index.put(record.getWord(), record.getFilename());
+                    this.posIndex.put(record.getWord(), record.getMask());
+                }
+
+                else if (record.getOp() == IndexJournal.Op.CLEAR) {
+                    this.index.clear();
+                    this.posIndex.clear();
+                }
+
+                else {
+                    this.index.remove(record.getWord());
+                    this.posIndex.remove(record.getWord());
+                }
+            });
+
+            if (dropped > 0) {
+                this.appIO.printf("%n%n[%s] Dropped %d bytes of an incomplete change to history",
+                        ColorText.text("INFO", Color.BLUE), dropped);
+            }
+        }
+
+        catch (IOException e) {
+            this.appIO.printf(
+                    "%n%n[%s] Unable to open the journal of history. Every change will save the whole history",
+                    ColorText.text("FAIL", Color.RED));
+            this.journal = null;
+        }
+    }
+
+    /**
+     * Rebuild the index by reading every cached result in the history folder in
+     * parallel. When a word is cached more than once, the newest result wins.
+     *
+     * @param historyFolder the folder the results are cached in
+     * @return <code>true</code> if the folder could be listed, <code>false</code>
+     *         otherwise
+     */
+    private boolean recover(File historyFolder) {
+        long start = System.nanoTime();
+        String extension = ".ser";
+        File[] files = historyFolder.listFiles((folder, name) -> name.endsWith(extension));
+
+        if (files == null) {
+            return false;
+        }
+
+        // unreadable results are left out quietly, rather than failing once each
+        Map<String, Map.Entry<String, Vocab>> newest = Arrays.stream(files).parallel()
+                .map(f -> f.getName().substring(0, f.getName().length() - extension.length()))
+                .map(filename -> Map.entry(filename, Optional.ofNullable(
+                        this.appIO.withOutput(Writer.nullWriter(), () -> Vocab.read(filename)))))
+                .filter(e -> e.getValue().isPresent())
+                .collect(Collectors.toConcurrentMap(e -> e.getValue().get().word,
+                        e -> Map.entry(e.getKey(), e.getValue().get()),
+                        (a, b) -> (a.getValue().fetchedAt >= b.getValue().fetchedAt) ? a : b));
+
+        this.index.clear();
+        this.posIndex.clear();
+
+        for (Map.Entry<String, Map.Entry<String, Vocab>> e : newest.entrySet()) {
+            this.index.put(e.getKey(), e.getValue().getKey());
+            this.posIndex.put(e.getKey(), e.getValue().getValue().getPartOfSpeechMask());
+        }
+
+        this.appIO.printf("%n%n[%s] Recovered %d words of history from %d cached results in %d ms",
+                ColorText.text("INFO", Color.BLUE), this.index.size(), files.length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        return true;
+    }
+
+    /**
+     * Write the index as a whole, and empty the journal of the changes it now
+     * contains
+     *
+     * @return <code>true</code> if successfully written, <code>false</code>
+     *         otherwise
+     */
+    synchronized boolean checkpoint() {
+        // history may belong to another process by now
+        if (!this.ownsStore() || !this.write()) {
+            return false;
+        }
+
+        if (this.journal != null) {
+            try {
+                this.journal.reset();
+            }
+
+            catch (IOException e) {
+                // the changes are in the index as well, replaying them again is harmless
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Fold the journal into the index, if it holds any change
+     *
+     * @return <code>true</code> if the journal was folded, <code>false</code> if
+     *         there was nothing to fold or the index couldn't be written
+     */
+    synchronized boolean foldJournal() {
+        if (this.journal == null || this.journal.getRecords() == 0) {
+            return false;
+        }
+
+        return this.checkpoint();
+    }
+
+    /**
+     * A copy of the history, to go through it without holding the lock
+     *
+     * @return word to the file it is cached in
+     */
+    synchronized HashMap<String, String> getIndexSnapshot() {
+        return new HashMap<>(this.index);
+    }
+
+    /**
+     * Check if a word is in history
+     *
+     * @param word the word
+     * @return <code>true</code> if the word is in history, <code>false</code>
+     *         otherwise
+     */
+    synchronized boolean contains(String word) {
+        return this.index.containsKey(word);
+    }
+
+    /**
+     * Record words whose results have been cached by an import. A word added to
+     * history meanwhile keeps its own results, and the imported ones are
+     * deleted. The journal isn't folded here, the import does it once at the
+     * end.
+     *
+     * @param records the words along with their files and parts of speech
+     * @return the number of words added to history
+     */
+    synchronized int commitImported(List<IndexJournal.Record> records) {
+        int committed = 0;
+        ArrayList<String> duplicates = new ArrayList<>();
+
+        for (IndexJournal.Record record : records) {
+            if (this.index.containsKey(record.getWord())) {
+                duplicates.add(record.getFilename());
+                continue;
+            }
+
+            this.index.put(record.getWord(), record.getFilename());
+            this.posIndex.put(record.getWord(), record.getMask());
+            committed++;
+
+            if (this.journal != null) {
+                try {
+                    this.journal.append(record);
+                }
+
+                catch (IOException e) {
+                    // still in the index, which the import saves as a whole at the end
+                }
+            }
+        }
+
+        // the duplicates are only deleted once the words committed before them are on the disk
+        if (this.sync()) {
+            for (String filename : duplicates) {
+                Vocab.remove(filename);
+            }
+        }
+
+        return committed;
+    }
+
+    /**
+     * The files history refers to, without their extension
+     *
+     * @return a copy of the file names
+     */
+    synchronized Set<String> getCachedFiles() {
+        return new HashSet<>(this.index.values());
+    }
+
+    /**
+     * Check if history refers to a file
+     *
+     * @param filename the name of the file, without its extension
+     * @return <code>true</code> if a word is cached in it, <code>false</code>
+     *         otherwise
+     */
+    synchronized boolean refersTo(String filename) {
+        return this.index.containsValue(filename);
+    }
+
+    /**
+     * Check if a name may be handed out to new cached results, history aside.
+     * A file of cleared history still waiting to be deleted in the background,
+     * or an orphan waiting for the history compactor, would be deleted in place
+     * of the new file.
+     *
+     * @param filename the name of the file, without its extension
+     * @return <code>true</code> if no file is left under the name and none is to
+     *         be deleted, <code>false</code> otherwise
+     */
+    boolean isFreeName(String filename) {
+        return !this.deleting.contains(filename) && !Vocab.exists(filename);
+    }
+
+    /**
+     * Check if any search is running
+     *
+     * @return <code>true</code> if a search is running, <code>false</code>
+     *         otherwise
+     */
+    boolean isSearching() {
+        return this.searching.get() > 0;
+    }
+
+    /**
+     * Record a change to the index in the journal, writing the index as a whole
+     * once the journal has grown past "powerdict.journal.checkpoint" changes
+     *
+     * @param record the change
+     * @return <code>true</code> if the change was saved, <code>false</code>
+     *         otherwise
+     */
+    private boolean log(IndexJournal.Record record) {
+        if (!this.ownsStore()) {
+            return false;
+        }
+
+        if (this.journal == null) {
+            return this.write();
+        }
+
+        try {
+            this.journal.append(record);
+        }
+
+        catch (IOException e) {
+            return this.checkpoint();
+        }
+
+        if (this.journal.getRecords() >= this.checkpointRecords) {
+            return this.checkpoint();
+        }
+
+        return true;
+    }
+
+    /**
+     * Force the changes recorded in the journal to the disk. Cached results a
+     * change stops referring to are only deleted after this, so that a crash
+     * never leaves history referring to a deleted file.
+     *
+     * @return <code>true</code> if every change is on the disk,
+     *         <code>false</code> otherwise
+     */
+    private boolean sync() {
+        return (this.journal == null) || this.journal.sync();
+    }
+
+    /**
+     * Read the parts of speech of every word in history again from its cached
+     * results
+     */
+    private void rebuildPosIndex() {
+        this.posIndex.clear();
+
+        for (Map.Entry<String, String> e : this.index.entrySet()) {
+            Vocab vocab = Vocab.read(e.getValue());
+
+            this.posIndex.put(e.getKey(), (vocab == null) ? 0 : vocab.getPartOfSpeechMask());
+        }
+
+        this.posIndex.write();
     }
 
     /**
@@ -100,7 +785,7 @@ public class VocabIndexer {
         boolean flag = false;
 
         try (ObjectInputStream ois = new ObjectInputStream(
-                new BufferedInputStream(new FileInputStream(this.indexFile)))) {
+                new ByteArrayInputStream(RecordFile.read(this.indexFile)))) {
             // clean the old index (although not required as we are assigning a new object)
             this.index.clear();
 
@@ -114,7 +799,7 @@ public class VocabIndexer {
             }
         }
 
-        catch (FileNotFoundException e) {
+        catch (FileNotFoundException | NoSuchFileException e) {
             this.appIO.printf("%n%n[%s] Cannot find \"%s\". Please try again later",
                     ColorText.text("FAIL", Color.RED), this.appIO.fetchCanonical(this.indexFile));
         }
@@ -141,13 +826,19 @@ public class VocabIndexer {
      */
     private boolean write() {
         boolean flag = false;
+        long start = System.nanoTime();
 
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new BufferedOutputStream(new FileOutputStream(this.indexFile)))) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
 
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
             oos.writeObject(this.index);
             oos.flush();
-            flag = true;
+
+            RecordFile.write(this.indexFile, bytes.toByteArray());
+            flag = this.posIndex.write();
+
+            this.metrics.bytesWritten(bytes.size());
+            this.metrics.record(Metrics.Stage.INDEX_WRITE, start);
         }
 
         catch (FileNotFoundException e) {
@@ -168,37 +859,243 @@ public class VocabIndexer {
      * Searches the word from the history and displays the cached result. If the
      * word is not found in cache, it goes online to retrieve the results
      *
+     * A search going online takes at most "powerdict.search.deadline"
+     * milliseconds. If only the definitions have arrived by then, they are shown
+     * on their own, and the word is added to the history once the synonyms arrive
+     * in the background.
+     *
+     * Cached results older than "powerdict.cache.ttl" milliseconds are shown, and
+     * fetched again in the background.
+     *
      * @param word the word whose meaning and synonyms is to be searched
      */
     public void search(String word) {
-        Vocab vocab;
+        long start = System.nanoTime();
 
-        // if the word is in history, show cached results
-        if (this.index.containsKey(word)) {
-            vocab = Vocab.read(this.index.get(word));
+        SearchEvent event = new SearchEvent();
+        event.begin();
 
-            this.appIO.printf("%n[%s] %s", ColorText.text("INFO", Color.BLUE), "showing cached results");
-            vocab.print();
-        }
+        AccessLog.Outcome outcome = AccessLog.Outcome.MISS;
 
-        // if the word is not in history, search online
-        else {
-            vocab = new Vocab();
+        // lets the history compactor stay out of the way of searches
+        this.searching.incrementAndGet();
 
-            vocab.word = word;
-            vocab.definition = Wordnik.getDefinitions(word);
+        try {
+            Vocab vocab;
+            String filename;
 
-            // if the definitions was successful, then only search for synonyms
-            if (vocab.definition != null) {
-                vocab.synonyms = Wordnik.getSynonyms(word);
+            // searches may run concurrently in the daemon, so only hold the lock while
+            // looking at the history, not while going online
+            synchronized (this) {
+                filename = this.index.get(word);
+            }
+
+            // words of the bundle are as good as cached, unless history has them too
+            Vocab bundled = (filename == null && this.bundle != null) ? this.bundle.get(word) : null;
+
+            // if the word is in history, show cached results
+            if (filename != null) {
+                vocab = this.loadCached(word, filename);
+
+                if (vocab == null) {
+                    return;
+                }
 
-                this.appIO.printf("%n[%s] %s", ColorText.text("INFO", Color.BLUE), "showing online results");
+                this.metrics.cacheHit();
+                CacheEvent.emit(word, "history");
+                outcome = AccessLog.Outcome.HISTORY;
+                event.outcome = "history";
+                this.printTagged("%n", "INFO", Color.BLUE, "%s", CACHED_RESULTS);
                 vocab.print();
 
-                // add the word to history and cache the results
-                this.add(vocab);
+                if (this.ttlMillis > 0 && System.currentTimeMillis() - vocab.fetchedAt > this.ttlMillis) {
+                    this.refresh(word);
+                }
+            }
+
+            else if (bundled != null) {
+                this.metrics.cacheHit();
+                CacheEvent.emit(word, "bundle");
+                outcome = AccessLog.Outcome.BUNDLE;
+                event.outcome = "bundle";
+                this.printTagged("%n", "INFO", Color.BLUE, "%s from bundle", CACHED_RESULTS);
+                bundled.print();
+            }
+
+            // if the word is not in history, ask the dictionary providers
+            else {
+                this.metrics.cacheMiss();
+                CacheEvent.emit(word, null);
+
+                Deadline deadline = Deadline.after(this.searchDeadlineMillis);
+                ProviderChain.Lookup lookup = this.providers.lookup(word, deadline);
+                CompletableFuture<Vocab> complete = lookup.getComplete();
+
+                this.await(complete, deadline);
+
+                // out of time, show what has arrived and let the rest complete in the background
+                if (!complete.isDone()) {
+                    complete.thenAccept(this::addCompleted);
+                    vocab = lookup.getDefinitions().getNow(null);
+
+                    if (vocab != null) {
+                        event.outcome = "partial";
+                        this.printTagged("%n", "INFO", Color.BLUE, "showing partial results from %s", vocab.source);
+                        vocab.print();
+                    }
+
+                    else {
+                        this.printTagged("%n%n", "FAIL", Color.RED,
+                                "No results within %d ms. The word will be in history once the results arrive",
+                                this.searchDeadlineMillis);
+                    }
+                }
+
+                else {
+                    // the lookup may have completed after the wait timed out, so its result is taken from it
+                    vocab = complete.getNow(null);
+
+                    // if the definitions was successful, then only show and cache the results
+                    if (vocab != null) {
+                        event.outcome = "online";
+                        this.printTagged("%n", "INFO", Color.BLUE, "showing results from %s", vocab.source);
+                        vocab.print();
+
+                        // add the word to history and cache the results, once the synonyms are there too, unless a
+                        // search running at the same time added it already
+                        this.addCompleted(vocab);
+                    }
+                }
+            }
+        }
+
+        finally {
+            this.searching.decrementAndGet();
+            this.metrics.record(Metrics.Stage.SEARCH, start);
+
+            if (this.accessLog != null) {
+                this.accessLog.record(word, outcome, System.nanoTime() - start);
+            }
+
+            if (event.shouldCommit()) {
+                event.word = word;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Print a note of the search, such as "[INFO] showing results from wordnik",
+     * with the tag colored right into the output
+     *
+     * @param lead  the line breaks before the note
+     * @param tag   the tag, such as "INFO"
+     * @param color the color of the tag
+     * @param fmt   A format string as described in Format string syntax.
+     * @param args  Arguments referenced by the format specifiers in the format
+     *              string.
+     */
+    private void printTagged(String lead, String tag, Color color, String fmt, Object... args) {
+        try (AppIO.Block out = this.appIO.block()) {
+            ColorText.append(out.printf(lead).append("[").getBuffer(), tag, color);
+            out.append("] ").printf(fmt, args);
+        }
+    }
+
+    /**
+     * Get the cached results of a word in history, preferring the copy held in
+     * memory over the one on disk
+     *
+     * @param word     the word
+     * @param filename the file its results are cached in
+     * @return the vocab, or <code>null</code> if the file cannot be read
+     */
+    private Vocab loadCached(String word, String filename) {
+        Vocab vocab = this.arena.get(word);
+
+        if (vocab == null) {
+            vocab = Vocab.read(filename);
+
+            if (vocab != null) {
+                this.arena.put(vocab);
             }
         }
+
+        return vocab;
+    }
+
+    /**
+     * Wait for a future until the deadline
+     *
+     * @param future   the future to wait for
+     * @param deadline the deadline of the search
+     * @return the result, or <code>null</code> if the deadline passed first or the
+     *         future failed
+     */
+    private Vocab await(CompletableFuture<Vocab> future, Deadline deadline) {
+        try {
+            return future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        catch (TimeoutException | ExecutionException e) {
+            return null;
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Fetch a cached word again in the background, and replace the cached
+     * results once it arrives. Wordnik revalidates the responses it stored for
+     * the word, so a word that hasn't changed costs little more than the headers.
+     *
+     * @param word the word to fetch again
+     */
+    private void refresh(String word) {
+        if (!this.refreshing.add(word)) {
+            return;
+        }
+
+        // the search has already shown its results, the refresh stays quiet
+        ProviderChain.Lookup lookup = this.appIO.withOutput(Writer.nullWriter(),
+                () -> this.providers.lookup(word, Deadline.after(this.searchDeadlineMillis)));
+
+        lookup.getComplete().whenComplete((vocab, error) -> {
+            this.refreshing.remove(word);
+
+            if (vocab != null && !vocab.incomplete) {
+                this.replace(vocab);
+            }
+        });
+    }
+
+    /**
+     * Replace the cached results of a word still in history
+     *
+     * @param vocab the fresh vocab
+     */
+    private synchronized void replace(Vocab vocab) {
+        String filename = this.index.get(vocab.word);
+
+        if (filename != null && this.add(vocab) && this.sync()) {
+            Vocab.remove(filename);
+        }
+    }
+
+    /**
+     * Add a vocab once it has been fetched completely, unless another search
+     * added the word meanwhile. A vocab whose synonyms could not be fetched is
+     * left for a later search.
+     *
+     * @param vocab the vocab, or <code>null</code> if no provider knew the word
+     */
+    private synchronized void addCompleted(Vocab vocab) {
+        if (vocab != null && !vocab.incomplete && !this.index.containsKey(vocab.word)) {
+            this.add(vocab);
+        }
     }
 
     /**
@@ -209,18 +1106,28 @@ public class VocabIndexer {
      * @return <code>true</code> if insertion is successful, <code>false</code>
      *         otherwise
      */
-    private boolean add(Vocab vocab) {
+    private synchronized boolean add(Vocab vocab) {
+        // a background lookup completing after history was handed over is not cached
+        if (!this.ownsStore()) {
+            return false;
+        }
+
         // get a unique name for storing vocab
         String filename = this.getUniqueName();
 
-        // cache the vocab word using the unique filename
-        Vocab.write(vocab, filename);
+        // cache the vocab word using the unique filename, before history refers to it
+        if (!Vocab.write(vocab, filename)) {
+            return false;
+        }
 
         // update the history (in VocabIndexer) in memory
         this.index.put(vocab.word, filename);
+        this.arena.put(vocab);
+        this.posIndex.put(vocab.word, vocab.getPartOfSpeechMask());
 
-        // save the VocabIndexer on disk
-        return this.write();
+        // save the change to history on disk
+        return this.log(new IndexJournal.Record(IndexJournal.Op.PUT, vocab.word, filename,
+                vocab.getPartOfSpeechMask()));
     }
 
     /**
@@ -230,114 +1137,294 @@ public class VocabIndexer {
      * @return <code>true</code> is removal is successful, <code>false</code>
      *         otherwise
      */
-    public boolean remove(String word) {
-        // if deleting the cache is successful
-        if (Vocab.remove(this.index.get(word))) {
-            // then delete the history
-            this.index.remove(word);
+    public synchronized boolean remove(String word) {
+        String filename = this.index.get(word);
 
-            // save the history
-            return this.write();
+        // if the word is not in history, there's nothing to remove
+        if (filename == null) {
+            return false;
         }
 
-        // else return false
-        else {
+        // delete the history first
+        this.index.remove(word);
+        Integer mask = this.posIndex.remove(word);
+
+        // then delete the cache, once the removal is on the disk. A crash before that brings the word back with
+        // its results, and a file left behind is swept by the history compactor. If the removal can't be saved,
+        // the word is put back, and history saved as a whole over the removal that may have reached the journal
+        if (!this.log(new IndexJournal.Record(IndexJournal.Op.REMOVE, word, "", 0)) || !this.sync()) {
+            this.index.put(word, filename);
+
+            if (mask != null) {
+                this.posIndex.put(word, mask);
+            }
+
+            this.checkpoint();
+
             return false;
         }
+
+        this.arena.remove(word);
+
+        return Vocab.remove(filename);
     }
 
     /**
      * Clear the history and clear all cached data (kind of a reset)
      *
+     * History is cleared at once, by a single record in the journal. The cached
+     * results are deleted afterwards in the background, see
+     * {@link HistoryCompactor#deleteAll(Collection)}, once the record is on the
+     * disk. Their names are not handed out again until they are deleted.
+     *
      * @return <code>true</code> is clear is successful, <code>false</code>
      *         otherwise
      */
-    public boolean removeAll() {
-        // flagAll to track overall deletion
-        boolean flagAll = false;
+    public synchronized boolean removeAll() {
+        // if there is no history, just return true
+        if (this.index.isEmpty()) {
+            return true;
+        }
 
-        // get the Iterator over all the stored words
-        Iterator<String> i = this.index.keySet().iterator();
+        // swap the whole history out rather than removing the words one by one
+        HashMap<String, String> removed = this.index;
+        HashMap<String, Integer> removedMasks = this.posIndex.clear();
+        this.index = new HashMap<>();
 
-        // if there is no history, just return true
-        if (!i.hasNext()) {
-            flagAll = true;
-            return flagAll;
+        // the files are only deleted once the clear is on the disk. If it can't be
+        // saved, history is put back, and saved as a whole over the clear that may
+        // have reached the journal, so that later changes aren't saved on top of a
+        // clear the disk doesn't have
+        if (!this.log(new IndexJournal.Record(IndexJournal.Op.CLEAR, "", "", 0)) || !this.sync()) {
+            this.index = removed;
+            this.posIndex.restore(removedMasks);
+            this.checkpoint();
+
+            return false;
         }
 
-        while (i.hasNext()) {
-            String word_to_remove = i.next();
-            String cache_to_remove = this.index.get(word_to_remove);
+        this.arena.clear();
 
-            // flag to track individual deletion
-            boolean flag = false;
+        this.deleting.addAll(removed.values());
+        this.compactor.deleteAll(removed.values())
+                .whenComplete((deleted, error) -> this.deleting.removeAll(removed.values()));
+        this.appIO.printf("%n%n[%s] Deleting %d cached results in the background",
+                ColorText.text("INFO", Color.BLUE), removed.size());
+
+        return true;
+    }
 
-            // removing vocab from cache
-            flag = Vocab.remove(cache_to_remove);
+    /**
+     * Print all the words stored by the Power-Dict, and how long it took. The
+     * list is written a chunk at a time rather than a word at a time, see
+     * {@link AppIO#block()}.
+     */
+    public void printAll() {
+        ArrayList<String> words;
 
-            if (flag) {
-                // removing vocab from history
-                i.remove();
+        // the words are printed without holding up the searches
+        synchronized (this) {
+            words = new ArrayList<>(this.index.keySet());
+        }
+
+        if (words.isEmpty()) {
+            this.appIO.printf("%n%s", ColorText.text("No history available", Color.MAGENTA));
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try (AppIO.Block out = this.appIO.block()) {
+            ColorText.append(out.printf("%n").getBuffer(), "History -", Color.MAGENTA);
+            out.printf("%n");
+
+            for (String word : words) {
+                out.append(System.lineSeparator()).append("- ").append(word);
             }
+        }
 
-            // updating the master flagAll
-            flagAll = flagAll || flag;
+        this.appIO.printf("%n%n[%s] Listed %d words in %d ms", ColorText.text("INFO", Color.BLUE), words.size(),
+                (System.nanoTime() - start) / 1000000);
+    }
+
+    /**
+     * Print the words in history having definitions of a part of speech. Only the
+     * parts of speech index is looked at, no cached result is read.
+     *
+     * @param pos the part of speech
+     */
+    public void printWordsWith(PartOfSpeech pos) {
+        ArrayList<String> words = this.posIndex.wordsWith(pos);
+
+        if (words.isEmpty()) {
+            this.appIO.printf("%n%s", ColorText.text("No word in history has " + pos + " senses", Color.MAGENTA));
+            return;
         }
 
-        this.write();
+        try (AppIO.Block out = this.appIO.block()) {
+            ColorText.append(out.printf("%n").getBuffer(), "Words with " + pos + " senses -", Color.MAGENTA);
+            out.printf("%n");
 
-        return flagAll;
+            for (String word : words) {
+                out.append(System.lineSeparator()).append("- ").append(word);
+            }
+        }
     }
 
     /**
-     * Print all the words stored by the Power-Dict.
+     * Print the definitions of a word in history for one part of speech. Only
+     * those definitions are decoded.
+     *
+     * @param word the word
+     * @param pos  the part of speech
+     * @return <code>true</code> if the word is in history, <code>false</code>
+     *         otherwise
      */
-    public void printAll() {
-        // get the Iterator over all the keys (all the words stored)
-        Iterator<String> i = this.index.keySet().iterator();
+    public boolean printSenses(String word, PartOfSpeech pos) {
+        String filename;
+
+        synchronized (this) {
+            filename = this.index.get(word);
+        }
+
+        Vocab vocab = (filename == null) ? null : this.loadCached(word, filename);
+
+        if (vocab == null) {
+            return false;
+        }
+
+        String[] senses = vocab.getDefinitions(pos);
+
+        try (AppIO.Block out = this.appIO.block()) {
+            ColorText.append(out.printf("%n%n%n").getBuffer(), "Word -", Color.MAGENTA);
+            out.printf("%n%n%s%n", word);
 
-        if (i.hasNext()) {
-            this.appIO.printf("%n%s%n", ColorText.text("History -", Color.MAGENTA));
+            if (senses.length == 0) {
+                ColorText.append(out.printf("%n").getBuffer(), "No " + pos + " senses", Color.MAGENTA);
+            }
 
-            while (i.hasNext()) {
-                String word = i.next();
+            else {
+                ColorText.append(out.printf("%n%n").getBuffer(), pos + " senses -", Color.MAGENTA);
+                out.printf("%n");
 
-                this.appIO.printf("%n- %s", word);
+                for (int i = 0; i < senses.length; i++) {
+                    out.printf("%n%d. %s", (i + 1), senses[i]);
+                }
             }
         }
 
-        else {
-            this.appIO.printf("%n%s", ColorText.text("No history available", Color.MAGENTA));
+        return true;
+    }
+
+    /**
+     * Print the statistics of the cached words. Only the names of the files in
+     * history are taken under the lock, so that searches go on meanwhile.
+     */
+    public void printStats() {
+        int words;
+        List<String> filenames;
+
+        synchronized (this) {
+            words = this.index.size();
+            filenames = new ArrayList<>(this.index.values());
+        }
+
+        this.appIO.printf("%n%s%n", ColorText.text("Statistics -", Color.MAGENTA));
+        this.appIO.printf("%n- Words in history : %d", words);
+
+        this.arena.printStats();
+        this.posIndex.printStats();
+        this.compactor.printStats();
+
+        if (this.bundle != null) {
+            this.bundle.printStats();
+        }
+
+        if (this.peerServer != null) {
+            this.peerServer.printStats();
         }
+        HttpResponseCache.getInstance().printStats();
+        Vocab.printDecodeStats();
+        this.printStringTableSavings(filenames);
+        this.providers.printStats();
+        Wordnik.getBreaker().printStats();
+        Wordnik.getLimiter().printStats();
+        this.metrics.printStats();
     }
 
     /**
-     * Generates and returns a random string
+     * Measure the strings referred to by the files in history, and print how much
+     * the {@link StringTable} saves by storing each of them once. Only the ids
+     * stored in the files are counted, nothing is added to the table, and files
+     * still holding plain text are left out.
+     *
+     * @param filenames the files in history
+     */
+    private void printStringTableSavings(List<String> filenames) {
+        StringTable table = StringTable.getInstance();
+        long references = 0;
+        long referencedBytes = 0;
+
+        for (String filename : filenames) {
+            // removed since the names were taken, nothing worth telling
+            Vocab vocab = this.appIO.withOutput(Writer.nullWriter(), () -> Vocab.read(filename));
+            int[][] stored = (vocab == null) ? null : vocab.getStoredIds();
+
+            if (stored == null) {
+                continue;
+            }
+
+            for (int[] ids : stored) {
+                if (ids == null) {
+                    continue;
+                }
+
+                for (int id : ids) {
+                    references++;
+                    referencedBytes = referencedBytes + table.length(id);
+                }
+            }
+        }
+
+        table.printSavings(references, referencedBytes);
+    }
+
+    /**
+     * Generates and returns a random string not used by history yet, nor by a
+     * file left on the disk, see {@link #isFreeName(String)}
      *
      * @return a string of length six containing [A-Z]
      */
     private String getUniqueName() {
-        boolean isUnique = false;
+        String uniqueName;
+
+        // check if the string generated is not already contained
+        do {
+            uniqueName = randomName();
+        } while (this.index.containsValue(uniqueName) || !this.isFreeName(uniqueName));
+
+        return uniqueName;
+    }
+
+    /**
+     * Generates and returns a random string
+     *
+     * @return a string of length six containing [A-Z]
+     */
+    static String randomName() {
         StringBuilder uniqueName = new StringBuilder();
 
         int min = (int) 'A';
         int max = (int) 'Z';
         char random;
 
-        while (isUnique != true) {
-            // loop to generate a six letter string
-            for (int i = 0; i < 6; i++) {
-                // get a random character from 'A' to 'Z'
-                random = (char) (Math.random() * (max - min + 1) + min);
+        // loop to generate a six letter string
+        for (int i = 0; i < 6; i++) {
+            // get a random character from 'A' to 'Z'
+            random = (char) (Math.random() * (max - min + 1) + min);
 
-                // append the character to the string
-                uniqueName.append(String.valueOf(random));
-            }
-
-            // check if the string generated is not already contained
-            if (this.index.containsValue(uniqueName.toString()) == false) {
-                isUnique = true;
-            }
+            // append the character to the string
+            uniqueName.append(String.valueOf(random));
         }
 
         return uniqueName.toString();
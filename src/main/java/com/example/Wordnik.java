@@ -4,9 +4,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.nio.charset.Charset;
+import java.util.function.Function;
 import java.net.URL;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
@@ -23,8 +26,16 @@ import com.google.gson.Gson;
  */
 public class Wordnik {
     private static AppIO appIO = AppIO.getInstance();
-    private static String baseURL = "https://api.wordnik.com/v4/word.json/";
+    private static String baseURL = withSlash(AppConfig.get("powerdict.wordnik.url",
+            "https://api.wordnik.com/v4/word.json/"));
     private static Charset charset = java.nio.charset.StandardCharsets.UTF_8;
+    private static Gson gson = new Gson();
+    private static Metrics metrics = Metrics.getInstance();
+    private static int connectTimeout = AppConfig.getInt("powerdict.wordnik.connectTimeout", 5000);
+    private static int readTimeout = AppConfig.getInt("powerdict.wordnik.readTimeout", 10000);
+    private static CircuitBreaker breaker = new CircuitBreaker("Wordnik");
+    private static ConcurrencyLimiter limiter = new ConcurrencyLimiter("Wordnik");
+    private static HttpResponseCache responseCache = HttpResponseCache.getInstance();
 
     // definition specific
     private static String definitionSearchType = "definitions";
@@ -47,11 +58,21 @@ public class Wordnik {
     }
 
     /**
-     * Wrapper method to get the wordnik API key from ManageKey
+     * End a base URL with a slash, so that the word can be appended to it
+     *
+     * @param url the base URL
+     * @return the base URL ending with a slash
+     */
+    private static String withSlash(String url) {
+        return url.endsWith("/") ? url : url + "/";
+    }
+
+    /**
+     * Wrapper method to get a wordnik API key from the pool of ManageKey
      *
      * @return the API key or null
      */
-    private static String getApiKey() {
+    private static ApiKey getApiKey() {
         ManageKey mk = ManageKey.getInstance();
 
         // if ManageKey couldn't read the keys File, return null so that its methods are
@@ -60,8 +81,20 @@ public class Wordnik {
             return null;
         }
 
-        // get the apikey for enum wordnik_v4
-        String apiKey = mk.retrieveApiKey(SupportedApi.wordnik_v4);
+        // get an apikey for enum wordnik_v4
+        ApiKey apiKey = mk.acquireApiKey(SupportedApi.wordnik_v4);
+
+        if (apiKey == null) {
+            if (mk.hasApiKey(SupportedApi.wordnik_v4)) {
+                appIO.printf("%n%n[%s] All Wordnik API keys are out of quota or benched. Please try again later",
+                        ColorText.text("FAIL", Color.RED));
+            }
+
+            else {
+                appIO.printf("%n%n[%s] Could not find API key associated with Wordnik",
+                        ColorText.text("FAIL", Color.RED));
+            }
+        }
 
         return apiKey;
     }
@@ -69,13 +102,12 @@ public class Wordnik {
     /**
      * Create the URL to fetch definitions from wordnik
      *
+     * @param word   the word for which definitions are requested
+     * @param apiKey the API key to send, may be <code>null</code>
      * @return URL for sending definition
      */
-    private static URL createDefinitionQuery(String word) {
-        String apiKey = getApiKey();
-
+    private static URL createDefinitionQuery(String word, ApiKey apiKey) {
         if (apiKey == null) {
-            appIO.printf("%n%n[%s] Could not find API key associated with Wordnik", ColorText.text("FAIL", Color.RED));
             return null;
         }
 
@@ -84,7 +116,7 @@ public class Wordnik {
         String parameters = String.format(
                 "limit=%d&includeRelated=%s&sourceDictionaries=%s&useCanonical=%s&includeTags=%s&api_key=%s",
                 resultLimit, Boolean.toString(includeRelated), sourceDictionaries,
-                Boolean.toString(definitionUseCanonical), Boolean.toString(includeTags), apiKey);
+                Boolean.toString(definitionUseCanonical), Boolean.toString(includeTags), apiKey.getKey());
 
         try {
             // creating the URL based on above strings
@@ -101,20 +133,19 @@ public class Wordnik {
     /**
      * Create the URL to fetch synonyms from wordnik
      *
+     * @param word   the word for which synonyms are requested
+     * @param apiKey the API key to send, may be <code>null</code>
      * @return URL for sending synonym
      */
-    private static URL createSynonymQuery(String word) {
-        String apiKey = getApiKey();
-
+    private static URL createSynonymQuery(String word, ApiKey apiKey) {
         if (apiKey == null) {
-            appIO.printf("%n%n[%s] Could not find API key associated with Wordnik", ColorText.text("FAIL", Color.RED));
             return null;
         }
 
         String query = String.format("%s/%s", URLEncoder.encode(word, charset), synonymSearchType);
 
         String parameters = String.format("useCanonical=%s&relationshipTypes=%s&limitPerRelationshipType=%d&api_key=%s",
-                Boolean.toString(synonymUseCanonical), relationshipTypes, limitPerRelationshipType, apiKey);
+                Boolean.toString(synonymUseCanonical), relationshipTypes, limitPerRelationshipType, apiKey.getKey());
 
         try {
             // creating the URL based on above strings
@@ -129,27 +160,120 @@ public class Wordnik {
     }
 
     /**
-     * Fetches the GET response using the urlquery
+     * Open a GET request
      *
-     * @param urlquery the URL formed for definitions or synonyms
-     * @return if successful, the String representing the response, otherwise
-     *         <code>null</code>
+     * @param urlquery the URL
+     * @param cached   the stored response to revalidate, or <code>null</code> to
+     *                 ask for the whole response
+     * @return the connection, not yet sent
+     * @throws IOException if the connection cannot be opened
      */
-    private static String getResponse(URL urlquery) {
+    private static HttpURLConnection openConnection(URL urlquery, HttpResponseCache.Entry cached)
+            throws IOException {
+        // create a connection HTTPURLConnection object
+        HttpURLConnection connection = (HttpURLConnection) urlquery.openConnection();
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("Content", "application/json");
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+
+        if (cached != null && cached.getEtag() != null) {
+            connection.setRequestProperty("If-None-Match", cached.getEtag());
+        }
+
+        if (cached != null && cached.getLastModified() != null) {
+            connection.setRequestProperty("If-Modified-Since", cached.getLastModified());
+        }
+
+        return connection;
+    }
+
+    /**
+     * Fetches the GET response of the query. The call waits for a slot of the
+     * adaptive concurrency limiter, then goes through the circuit breaker, and
+     * fails fast while the breaker is open. The API key is only taken once both
+     * let the call through, so that a call that is never sent doesn't spend the
+     * quota of a key.
+     *
+     * The call doesn't wait for a slot past the deadline of the search. Once the
+     * deadline has passed, the search has already shown what it had, and the call
+     * is completing it in the background, so it waits as long as any other call.
+     *
+     * A response stored earlier in the {@link HttpResponseCache} is revalidated
+     * with a conditional request, and its body is reused if Wordnik answers 304
+     * Not Modified. If the stored body can't be read by then, the request is sent
+     * once more without the conditions.
+     *
+     * @param query    forms the URL for definitions or synonyms with the API key
+     * @param deadline the deadline of the search
+     * @return if successful, the String representing the response, an empty
+     *         string if Wordnik doesn't know the word, otherwise <code>null</code>
+     */
+    private static String getResponse(Function<ApiKey, URL> query, Deadline deadline) {
+        boolean acquired = deadline.isExpired() ? limiter.acquire() : limiter.acquire(deadline.remainingMillis());
+
+        if (!acquired) {
+            appIO.printf("%n%n[%s] Too many requests to Wordnik in progress. Please try again later",
+                    ColorText.text("FAIL", Color.RED));
+            return null;
+        }
+
+        if (!breaker.tryAcquire()) {
+            limiter.cancel();
+            printUnavailable();
+            return null;
+        }
+
+        ApiKey apiKey = getApiKey();
+        URL urlquery = query.apply(apiKey);
+
+        if (urlquery == null) {
+            // urlquery can be null due to API key related issues
+            breaker.cancel();
+            limiter.cancel();
+            return null;
+        }
+
+        long start = System.nanoTime();
+
+        FetchEvent event = new FetchEvent();
+        event.begin();
+
+        // only network errors, rate limiting and server errors count against Wordnik
+        boolean failure = true;
+
+        // rate limiting and timeouts mean too many requests are in flight
+        boolean overload = false;
+
         try {
-            if (urlquery == null) {
-                // urlquery can be null due to API key related issues
-                return null;
-            }
+            // only download the response again if it changed since it was stored
+            HttpResponseCache.Entry cached = responseCache.get(urlquery);
+            HttpURLConnection connection = openConnection(urlquery, cached);
 
-            // create a connection HTTPURLConnection object
-            HttpURLConnection connection = (HttpURLConnection) urlquery.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Content", "application/json");
+            int status = connection.getResponseCode();
+            metrics.httpStatus(status);
+            event.status = status;
+
+            if (status == 304 && cached != null) {
+                String body = responseCache.readBody(cached);
+
+                if (body != null) {
+                    failure = false;
+                    return body;
+                }
+
+                // the stored body was lost meanwhile, so the whole response is downloaded after all
+                connection.disconnect();
+                connection = openConnection(urlquery, null);
+
+                status = connection.getResponseCode();
+                metrics.httpStatus(status);
+                event.status = status;
+            }
 
             // if the connection got some valid response
-            if (connection.getResponseCode() == 200) {
-                InputStream in = urlquery.openConnection().getInputStream();
+            if (status == 200) {
+                InputStream in = connection.getInputStream();
 
                 // read all the response
                 // --------------------------------------------------------------------------------
@@ -165,24 +289,34 @@ public class Wordnik {
                 br.close();
                 // --------------------------------------------------------------------------------
 
+                responseCache.put(urlquery, connection.getHeaderField("ETag"),
+                        connection.getHeaderField("Last-Modified"), response.toString());
+                metrics.bytesRead(response.length());
+                event.bytes = response.length();
+
+                failure = false;
                 return response.toString();
             }
 
+            failure = (status == 429 || status >= 500);
+            overload = (status == 429);
+
             // bad request
-            else if (connection.getResponseCode() == 400) {
+            if (status == 400) {
                 appIO.printf("%n%n[%s] Bad request. Please try again later", ColorText.text("FAIL", Color.RED));
                 return null;
             }
 
             // API key is invalid
-            else if (connection.getResponseCode() == 401) {
+            else if (status == 401) {
+                ManageKey.getInstance().reportRejected(apiKey, 401);
                 appIO.printf("%n%n[%s] Invalid credentials. Please check if the Wordnik API key is valid",
                         ColorText.text("FAIL", Color.RED));
                 return null;
             }
 
             // definitions/synonyms not found
-            else if (connection.getResponseCode() == 404) {
+            else if (status == 404) {
                 if (urlquery.toString().indexOf("definitions") > 0) {
                     appIO.printf("%n%n[%s] No definitions found", ColorText.text("INFO", Color.BLUE));
                 }
@@ -195,86 +329,152 @@ public class Wordnik {
                     appIO.printf(String.format("%n%n[%s] No synonyms found", ColorText.text("FAIL", Color.RED)));
                 }
 
-                return null;
+                return "";
             }
 
             // too many requests
-            else if (connection.getResponseCode() == 429) {
+            else if (status == 429) {
+                ManageKey.getInstance().reportRejected(apiKey, 429);
                 appIO.printf("Too many requests. Please try again later");
                 return null;
             }
 
             // response code unencountered until now
             else {
-                System.err.println("Response = " + connection.getResponseCode());
+                System.err.println("Response = " + status);
                 return null;
             }
         }
 
         catch (ProtocolException e) {
+            metrics.httpStatus(-1);
             appIO.printf("%n%n[%s] Only GET requests allowed. Please make sure Power-Dict's code hasn't been modified",
                     ColorText.text("FAIL", Color.RED));
             return null;
         }
 
         catch (UnknownHostException e) {
+            metrics.httpStatus(-1);
             appIO.printf("%n%n[%s] Please make sure you are connected to the internet",
                     ColorText.text("FAIL", Color.RED));
             return null;
         }
 
+        catch (SocketTimeoutException e) {
+            metrics.httpStatus(-1);
+            overload = true;
+            appIO.printf("%n%n[%s] Wordnik took too long to respond. Please try again later",
+                    ColorText.text("FAIL", Color.RED));
+            return null;
+        }
+
         catch (IOException e) {
+            metrics.httpStatus(-1);
             appIO.printf(e.getMessage());
             return null;
         }
+
+        finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.record(Metrics.Stage.HTTP, start);
+
+            if (event.shouldCommit()) {
+                // the path ends with the word and the endpoint
+                String[] path = urlquery.getPath().split("/");
+                event.word = URLDecoder.decode(path[path.length - 2], charset);
+                event.endpoint = path[path.length - 1];
+                event.commit();
+            }
+
+            if (failure) {
+                breaker.onFailure(elapsed);
+            }
+
+            else {
+                breaker.onSuccess(elapsed);
+            }
+
+            limiter.release(elapsed, overload);
+        }
     }
 
     /**
-     * Returns an array of definitions for the <code>word</code> if successfully
-     * found
+     * Tell the user that Wordnik is skipped because its circuit breaker is open
+     */
+    private static void printUnavailable() {
+        appIO.printf("%n%n[%s] Wordnik is not responding, not trying again for %d s",
+                ColorText.text("FAIL", Color.RED), (breaker.getRemainingOpenMillis() + 999) / 1000);
+    }
+
+    /**
+     * The circuit breaker guarding the calls to Wordnik
      *
-     * @param word the word for which definitions are requested
-     * @return arrays of strings if found, <code>null</code> otherwise
+     * @return the circuit breaker
      */
-    public static String[] getDefinitions(String word) {
-        String response = getResponse(createDefinitionQuery(word.toLowerCase()));
+    public static CircuitBreaker getBreaker() {
+        return breaker;
+    }
 
-        if (response == null) {
+    /**
+     * The adaptive limit on concurrent calls to Wordnik
+     *
+     * @return the concurrency limiter
+     */
+    public static ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Returns the definitions for the <code>word</code> if successfully found. The
+     * definitions are returned as sent by Wordnik, along with their parts of
+     * speech, and are only turned into strings when they are used.
+     *
+     * @param word     the word for which definitions are requested
+     * @param deadline the deadline of the search
+     * @return array of definitions if found, <code>null</code> otherwise
+     */
+    public static WordnikDef[] getDefinitions(String word, Deadline deadline) {
+        String response = getResponse(apiKey -> createDefinitionQuery(word.toLowerCase(), apiKey), deadline);
+
+        if (response == null || response.isEmpty()) {
             // no need to print this line as relevant errors are already displayed
             // appIO.printf("%n%n[%s] Could not fetch definitions for %s",
             // ColorText.text("FAIL", Color.RED), word);
             return null;
         }
 
-        // formatting the response
-        // --------------------------------------------------------------------------------
-        Gson g = new Gson();
+        return parseDefinitions(response);
+    }
+
+    /**
+     * Parse the response of the definitions endpoint
+     *
+     * @param response the body of the response
+     * @return array of definitions
+     */
+    static WordnikDef[] parseDefinitions(String response) {
+        long start = System.nanoTime();
 
         // the response contains definitions in a well-defined structure (replicated in
         // WordnikDef class). Passing array of objects of WordnikDef
         // to Gson
-        WordnikDef def[] = g.fromJson(response.toString(), WordnikDef[].class);
+        WordnikDef[] definitions = gson.fromJson(response, WordnikDef[].class);
 
-        // as many definitions as the number of results
-        String defString[] = new String[def.length];
-
-        for (int i = 0; i < def.length; i++) {
-            defString[i] = def[i].text;
-        }
-        // --------------------------------------------------------------------------------
-
-        return defString;
+        metrics.record(Metrics.Stage.PARSE, start);
+        return definitions;
     }
 
     /**
      * Returns a comma separated string of synonyms for the <code>word</code> if
      * successfully found
      *
-     * @param word the word for which synonyms are requested
-     * @return string if found, <code>null</code> otherwise
+     * @param word     the word for which synonyms are requested
+     * @param deadline the deadline of the search
+     * @return string if found, an empty string if there are none, and
+     *         <code>null</code> if they could not be fetched
      */
-    public static String getSynonyms(String word) {
-        String response = getResponse(createSynonymQuery(word.toLowerCase()));
+    public static String getSynonyms(String word, Deadline deadline) {
+        String response = getResponse(apiKey -> createSynonymQuery(word.toLowerCase(), apiKey), deadline);
 
         if (response == null) {
             // no need to print this line as relevant errors are already displayed
@@ -283,14 +483,30 @@ public class Wordnik {
             return null;
         }
 
+        if (response.isEmpty()) {
+            return "";
+        }
+
+        return parseSynonyms(response);
+    }
+
+    /**
+     * Parse the response of the relatedWords endpoint into a comma separated
+     * string of synonyms
+     *
+     * @param response the body of the response
+     * @return the synonyms
+     */
+    static String parseSynonyms(String response) {
+        long start = System.nanoTime();
+
         // formatting the response
         // --------------------------------------------------------------------------------
-        Gson g = new Gson();
 
         // the response contains definitions in a well-defined structure (replicated
         // in WordnikSyn class). Passing array of objects of WordnikSyn
         // to Gson
-        WordnikSyn syn[] = g.fromJson(response.toString(), WordnikSyn[].class);
+        WordnikSyn syn[] = gson.fromJson(response, WordnikSyn[].class);
 
         StringBuilder synString = new StringBuilder();
 
@@ -305,6 +521,7 @@ public class Wordnik {
         }
         // --------------------------------------------------------------------------------
 
+        metrics.record(Metrics.Stage.PARSE, start);
         return synString.toString();
     }
 }
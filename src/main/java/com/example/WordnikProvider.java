@@ -0,0 +1,51 @@
+package com.example;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link DictionaryProvider} backed by the Wordnik REST API. The blocking calls
+ * of {@link Wordnik} are run on a pool of background threads.
+ *
+ * @author Bhavyai Gupta
+ * @version 1.0.0
+ * @since October 18, 2026
+ */
+public class WordnikProvider implements DictionaryProvider {
+    private AppIO appIO;
+
+    /**
+     * threads waiting on the Wordnik REST API
+     */
+    private ExecutorService executor;
+
+    /**
+     * Construct the provider with its own pool of threads
+     */
+    public WordnikProvider() {
+        this.appIO = AppIO.getInstance();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "wordnik");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "wordnik";
+    }
+
+    @Override
+    public CompletableFuture<WordnikDef[]> fetchDefinitions(String word, Deadline deadline) {
+        return CompletableFuture.supplyAsync(this.appIO.withCurrentOutput(() -> Wordnik.getDefinitions(word, deadline)),
+                this.executor);
+    }
+
+    @Override
+    public CompletableFuture<String> fetchSynonyms(String word, Deadline deadline) {
+        return CompletableFuture.supplyAsync(this.appIO.withCurrentOutput(() -> Wordnik.getSynonyms(word, deadline)),
+                this.executor);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+/**
+ * Unit test for AccessLog.
+ */
+public class AccessLogTest {
+    @Test
+    public void readsBackWhatWasRecorded() throws IOException {
+        File logFile = new File(Files.createTempDirectory("powerdict").toFile(), "access.log");
+        long before = System.currentTimeMillis();
+
+        AccessLog log = new AccessLog(logFile);
+        log.record("  Serendipity ", AccessLog.Outcome.HISTORY, 1_500_000);
+        log.record("run", AccessLog.Outcome.MISS, 250_000_000);
+        log.record("café", AccessLog.Outcome.BUNDLE, 0);
+        log.close();
+
+        try (AccessLog.Reader reader = new AccessLog.Reader(logFile)) {
+            AccessLog.Entry first = reader.next();
+            assertEquals("serendipity", first.getWord());
+            assertEquals(AccessLog.Outcome.HISTORY, first.getOutcome());
+            assertEquals(1500, first.getLatencyMicros());
+            assertTrue(first.getTimeMillis() >= before - 2);
+
+            // logged when it was asked for, before the first search completed
+            AccessLog.Entry second = reader.next();
+            assertEquals(AccessLog.Outcome.MISS, second.getOutcome());
+            assertFalse(second.getOutcome().isHit());
+            assertTrue(second.getTimeMillis() < first.getTimeMillis());
+
+            assertEquals("café", reader.next().getWord());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void rotatesInTheBackground() throws IOException {
+        File logFile = new File(Files.createTempDirectory("powerdict").toFile(), "access.log");
+
+        System.setProperty("powerdict.accesslog.maxBytes", "65536");
+        System.setProperty("powerdict.accesslog.keep", "2");
+
+        try {
+            AccessLog log = new AccessLog(logFile);
+
+            // about 20 bytes a record, spread over 4 blocks of 64 KB
+            for (int i = 0; i < 12_000; i++) {
+                log.record("word" + i, AccessLog.Outcome.MISS, 1000);
+            }
+
+            log.close();
+        }
+
+        finally {
+            System.clearProperty("powerdict.accesslog.maxBytes");
+            System.clearProperty("powerdict.accesslog.keep");
+        }
+
+        assertTrue(logFile.isFile());
+        assertTrue(AccessLog.rotated(logFile, 1).isFile());
+        assertTrue(AccessLog.rotated(logFile, 2).isFile());
+        assertFalse(AccessLog.rotated(logFile, 3).exists());
+        assertTrue(logFile.length() <= 65536);
+
+        try (AccessLog.Reader reader = new AccessLog.Reader(AccessLog.rotated(logFile, 1))) {
+            assertTrue(reader.next().getWord().startsWith("word"));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for CircuitBreaker.
+ */
+public class CircuitBreakerTest {
+    @Before
+    public void configure() {
+        System.setProperty("powerdict.breaker.window", "4");
+        System.setProperty("powerdict.breaker.minimumCalls", "2");
+        System.setProperty("powerdict.breaker.failureRate", "50");
+        System.setProperty("powerdict.breaker.slowCall", "1000");
+        System.setProperty("powerdict.breaker.open", "50");
+        System.setProperty("powerdict.breaker.probes", "1");
+    }
+
+    @After
+    public void reset() {
+        for (String name : new String[] { "window", "minimumCalls", "failureRate", "slowCall", "open", "probes" }) {
+            System.clearProperty("powerdict.breaker." + name);
+        }
+    }
+
+    @Test
+    public void opensWhenFailureRateIsReached() {
+        CircuitBreaker breaker = new CircuitBreaker("Test");
+
+        breaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void opensWhenCallsAreSlow() {
+        CircuitBreaker breaker = new CircuitBreaker("Test");
+
+        breaker.onSuccess(2000L * 1000000);
+        breaker.onSuccess(2000L * 1000000);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void closesAfterSuccessfulProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("Test");
+
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        Thread.sleep(60);
+
+        // only one probe is let through while half open
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void reopensAfterFailedProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("Test");
+
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        Thread.sleep(60);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure(0);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void cancelledProbeIsGivenBack() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("Test");
+
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        Thread.sleep(60);
+
+        // a probe that was never sent doesn't use up the half open breaker
+        assertTrue(breaker.tryAcquire());
+        breaker.cancel();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
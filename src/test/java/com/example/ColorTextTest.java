@@ -0,0 +1,40 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Unit test for ColorText.
+ */
+public class ColorTextTest {
+    @Test
+    public void buildsEveryEscapeSequence() {
+        assertEquals("\033[0;31m", ColorText.getANSI(Color.RED, TextMode.NORMAL, false));
+        assertEquals("\033[1;104m", ColorText.getANSI(Color.BRIGHT_BLUE, TextMode.BOLD, true));
+        assertEquals("\033[9;47m", ColorText.getANSI(Color.WHITE, TextMode.STRIKETHROUGH, true));
+
+        // precomputed, not built again
+        assertSame(ColorText.getANSI(Color.GRAY, TextMode.FAINT, false),
+                ColorText.getANSI(Color.GRAY, TextMode.FAINT, false));
+
+        // text is not a format string
+        assertEquals("\033[0;32m100%\033[0m", ColorText.text("100%", Color.GREEN));
+    }
+
+    @Test
+    public void appendsTheSameAsText() {
+        String expected = ColorText.text("INFO", Color.BLUE, TextMode.UNDERLINE, true);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        ColorText.put(buffer, "INFO".getBytes(StandardCharsets.US_ASCII), Color.BLUE, TextMode.UNDERLINE, true);
+
+        assertEquals(expected, ColorText.append(new StringBuilder(), "INFO", Color.BLUE, TextMode.UNDERLINE, true)
+                .toString());
+        assertEquals(expected, new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+    }
+}
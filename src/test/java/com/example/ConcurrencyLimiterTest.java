@@ -0,0 +1,82 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit test for ConcurrencyLimiter.
+ */
+public class ConcurrencyLimiterTest {
+    @After
+    public void reset() {
+        System.clearProperty("powerdict.limiter.maxQueue");
+        System.clearProperty("powerdict.limiter.queueTimeout");
+    }
+
+    @Test
+    public void growsWhileLatencyIsSteady() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("Test");
+        int initial = limiter.getLimit();
+
+        // keep every slot busy, so that the limit is put to the test
+        for (int round = 0; round < 20; round++) {
+            int slots = limiter.getLimit();
+
+            for (int i = 0; i < slots; i++) {
+                assertTrue(limiter.acquire());
+            }
+
+            for (int i = 0; i < slots; i++) {
+                limiter.release(10000000L, false);
+            }
+        }
+
+        assertTrue(limiter.getLimit() > initial);
+    }
+
+    @Test
+    public void doesNotGrowWhenUnused() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("Test");
+        int initial = limiter.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.acquire());
+            limiter.release(10000000L, false);
+        }
+
+        assertEquals(initial, limiter.getLimit());
+    }
+
+    @Test
+    public void shrinksOnOverload() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("Test");
+        int initial = limiter.getLimit();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire());
+            limiter.release(10000000L, true);
+        }
+
+        assertTrue(limiter.getLimit() < initial);
+    }
+
+    @Test
+    public void shedsBeyondTheLimit() {
+        System.setProperty("powerdict.limiter.maxQueue", "0");
+
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("Test");
+
+        for (int i = 0; i < limiter.getLimit(); i++) {
+            assertTrue(limiter.acquire());
+        }
+
+        assertFalse(limiter.acquire());
+
+        limiter.cancel();
+        assertTrue(limiter.acquire());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for DictionaryBundle.
+ */
+public class DictionaryBundleTest {
+    private static final int WORDS = 1000;
+
+    private HashMap<String, String> index;
+    private File bundleFile;
+
+    @Before
+    public void create() throws IOException {
+        new File("history").mkdirs();
+        this.index = new HashMap<>();
+        this.bundleFile = File.createTempFile("words", ".bundle");
+
+        for (int i = 0; i < WORDS; i++) {
+            WordnikDef definition = new WordnikDef();
+            definition.text = "meaning of word" + i;
+            definition.partOfSpeech = (i % 2 == 0) ? "noun" : "verb";
+
+            Vocab vocab = new Vocab("word" + i, new WordnikDef[] { definition }, (i % 3 == 0) ? null : "synonym" + i);
+            vocab.fetchedAt = i;
+
+            Vocab.write(vocab, "BUNDLE" + i);
+            this.index.put("word" + i, "BUNDLE" + i);
+        }
+    }
+
+    @After
+    public void delete() {
+        for (String filename : this.index.values()) {
+            Vocab.remove(filename);
+        }
+
+        this.bundleFile.delete();
+    }
+
+    @Test
+    public void resolvesEveryWordAndNoOther() throws IOException {
+        assertEquals(WORDS, DictionaryBundle.build(this.index, this.bundleFile));
+
+        DictionaryBundle bundle = new DictionaryBundle(this.bundleFile);
+        assertEquals(WORDS, bundle.size());
+
+        for (int i = 0; i < WORDS; i++) {
+            Vocab vocab = bundle.get("word" + i);
+
+            assertEquals("word" + i, vocab.word);
+            assertEquals(i, vocab.fetchedAt);
+            assertEquals("meaning of word" + i, vocab.getDefinitions()[0]);
+            assertEquals((i % 2 == 0) ? "noun" : "verb", vocab.getPartsOfSpeech()[0]);
+            assertEquals((i % 3 == 0) ? null : "synonym" + i, vocab.getSynonyms());
+        }
+
+        // absent words land in some slot too, and are told apart by the word of the record
+        for (int i = 0; i < WORDS; i++) {
+            assertNull(bundle.get("absent" + i));
+        }
+
+        assertNull(bundle.get("word" + WORDS));
+    }
+
+    @Test
+    public void emptyBundleKnowsNothing() throws IOException {
+        assertEquals(0, DictionaryBundle.build(new HashMap<>(), this.bundleFile));
+        assertNull(new DictionaryBundle(this.bundleFile).get("word0"));
+    }
+
+    @Test
+    public void rejectsTruncatedBundle() throws IOException {
+        DictionaryBundle.build(this.index, this.bundleFile);
+        long length = this.bundleFile.length();
+
+        // cut in the last record, in the middle of the records, and in the slots
+        for (long cut : new long[] { length - 1, length / 2, 20 }) {
+            File truncated = File.createTempFile("truncated", ".bundle");
+
+            try {
+                Files.copy(this.bundleFile.toPath(), truncated.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+
+                try (RandomAccessFile file = new RandomAccessFile(truncated, "rw")) {
+                    file.setLength(cut);
+                }
+
+                new DictionaryBundle(truncated);
+                fail("Mounted a bundle truncated to " + cut + " of " + length + " bytes");
+            }
+
+            catch (IOException e) {
+                // rejected
+            }
+
+            finally {
+                truncated.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit test for the Flight Recorder events of Power-Dict.
+ */
+public class FlightRecorderEventsTest {
+    @Test
+    public void recordsDiskAndCacheEvents() throws IOException {
+        File record = File.createTempFile("powerdict", ".vocab");
+        Path dump = Files.createTempFile("powerdict", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(DiskEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(CacheEvent.class);
+            recording.start();
+
+            RecordFile.write(record, new byte[100]);
+            RecordFile.read(record);
+            CacheEvent.emit("serendipity", "history");
+            CacheEvent.emit("unheard", null);
+
+            recording.stop();
+            recording.dump(dump);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            List<RecordedEvent> disk = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("powerdict.Disk")).collect(Collectors.toList());
+            List<RecordedEvent> cache = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("powerdict.Cache")).collect(Collectors.toList());
+
+            assertEquals(2, disk.size());
+            assertEquals("write", disk.get(0).getString("operation"));
+            assertEquals(100 + RecordFile.HEADER_LENGTH, disk.get(0).getLong("bytes"));
+            assertEquals("read", disk.get(1).getString("operation"));
+            assertEquals(record.getPath(), disk.get(1).getString("path"));
+
+            assertEquals(2, cache.size());
+            assertTrue(cache.get(0).getBoolean("hit"));
+            assertEquals("history", cache.get(0).getString("source"));
+            assertFalse(cache.get(1).getBoolean("hit"));
+        }
+
+        finally {
+            Files.deleteIfExists(record.toPath());
+            Files.deleteIfExists(dump);
+        }
+    }
+}
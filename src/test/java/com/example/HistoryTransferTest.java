@@ -0,0 +1,103 @@
+package com.example;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for HistoryTransfer.
+ */
+public class HistoryTransferTest {
+    private VocabIndexer vi;
+    private File source;
+    private File exported;
+
+    @Before
+    public void create() throws IOException {
+        this.vi = VocabIndexer.getInstance();
+        this.vi.removeAll();
+        this.source = File.createTempFile("import", ".ndjson");
+        this.exported = File.createTempFile("export", ".ndjson");
+    }
+
+    @After
+    public void delete() {
+        this.vi.removeAll();
+        this.source.delete();
+        this.exported.delete();
+    }
+
+    @Test
+    public void roundTripsHistory() throws IOException {
+        List<String> lines = Arrays.asList(
+                "{\"word\":\"lucid\",\"definition\":[\"Easily understood.\",\"Translucent.\"],\"partOfSpeech\":[\"adjective\",\"adjective\"],\"synonyms\":\"clear, plain\",\"fetchedAt\":1634567890123}",
+                "{\"word\":\"ferry\",\"definition\":[\"A boat.\",\"To carry.\"],\"partOfSpeech\":[\"noun\",\"verb\"],\"fetchedAt\":1634567890456}",
+                "",
+                "{\"word\":\"lucid\",\"definition\":[\"Repeated.\"],\"partOfSpeech\":[\"adjective\"]}",
+                "{not json",
+                "{\"word\":\"nulled\",\"definition\":[null],\"partOfSpeech\":[\"noun\"]}",
+                "{\"word\":\"untyped\",\"definition\":[\"Something.\"],\"partOfSpeech\":[null]}",
+                "{\"definition\":[\"No word.\"]}");
+        Files.write(this.source.toPath(), lines, StandardCharsets.UTF_8);
+
+        String imported = this.transfer(() -> new HistoryTransfer(this.vi).importFrom(this.source));
+
+        assertTrue(imported.contains("Imported 2 words"));
+        assertTrue(imported.contains("Already in history : 1"));
+        assertTrue(imported.contains("Malformed lines    : 4"));
+        assertTrue(this.vi.contains("lucid"));
+        assertTrue(this.vi.contains("ferry"));
+        assertFalse(this.vi.contains("nulled"));
+        assertFalse(this.vi.contains("untyped"));
+
+        // importing the same file again only finds duplicates
+        assertTrue(this.transfer(() -> new HistoryTransfer(this.vi).importFrom(this.source))
+                .contains("Already in history : 3"));
+
+        assertTrue(this.transfer(() -> new HistoryTransfer(this.vi).exportTo(this.exported))
+                .contains("Exported 2 of 2 words"));
+        assertEquals(2, Files.readAllLines(this.exported.toPath(), StandardCharsets.UTF_8).size());
+
+        // the export brings back the same history after clearing it
+        assertTrue(this.vi.removeAll());
+        assertFalse(this.vi.contains("lucid"));
+        assertTrue(this.transfer(() -> new HistoryTransfer(this.vi).importFrom(this.exported))
+                .contains("Imported 2 words"));
+
+        Vocab lucid = Vocab.read(this.vi.getIndexSnapshot().get("lucid"));
+        Vocab ferry = Vocab.read(this.vi.getIndexSnapshot().get("ferry"));
+
+        assertArrayEquals(new String[] { "Easily understood.", "Translucent." }, lucid.getDefinitions());
+        assertEquals("clear, plain", lucid.getSynonyms());
+        assertEquals(1634567890123L, lucid.fetchedAt);
+        assertArrayEquals(new String[] { "A boat.", "To carry." }, ferry.getDefinitions());
+        assertArrayEquals(new String[] { "noun", "verb" }, ferry.getPartsOfSpeech());
+    }
+
+    /**
+     * Run an export or an import, and capture what it prints
+     *
+     * @param transfer the export or the import
+     * @return the output
+     */
+    private String transfer(Supplier<Boolean> transfer) {
+        StringWriter output = new StringWriter();
+
+        assertTrue(AppIO.getInstance().withOutput(output, transfer));
+        return output.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for IndexJournal.
+ */
+public class IndexJournalTest {
+    private File journalFile;
+
+    @Before
+    public void create() throws IOException {
+        this.journalFile = File.createTempFile("index", ".journal");
+    }
+
+    @After
+    public void delete() {
+        this.journalFile.delete();
+    }
+
+    @Test
+    public void replaysRecordsInOrder() throws IOException {
+        IndexJournal journal = new IndexJournal(this.journalFile);
+        journal.replay(record -> {
+        });
+        journal.append(new IndexJournal.Record(IndexJournal.Op.PUT, "light", "ABCDEF", 5));
+        journal.append(new IndexJournal.Record(IndexJournal.Op.REMOVE, "light", "", 0));
+        journal.sync();
+
+        ArrayList<IndexJournal.Record> records = new ArrayList<>();
+        assertEquals(0, new IndexJournal(this.journalFile).replay(records::add));
+
+        assertEquals(2, records.size());
+        assertEquals(IndexJournal.Op.PUT, records.get(0).getOp());
+        assertEquals("ABCDEF", records.get(0).getFilename());
+        assertEquals(5, records.get(0).getMask());
+        assertEquals(IndexJournal.Op.REMOVE, records.get(1).getOp());
+    }
+
+    @Test
+    public void cutsOffTornTail() throws IOException {
+        IndexJournal journal = new IndexJournal(this.journalFile);
+        journal.replay(record -> {
+        });
+        journal.append(new IndexJournal.Record(IndexJournal.Op.PUT, "quick", "GHIJKL", 1));
+        journal.sync();
+
+        long intact = this.journalFile.length();
+
+        // a record whose length says more than was written before the crash
+        try (FileOutputStream out = new FileOutputStream(this.journalFile, true)) {
+            out.write(new byte[] { 0, 0, 0, 40, 1, 2, 3 });
+        }
+
+        ArrayList<IndexJournal.Record> records = new ArrayList<>();
+        assertEquals(7, new IndexJournal(this.journalFile).replay(records::add));
+
+        assertEquals(1, records.size());
+        assertEquals(intact, this.journalFile.length());
+    }
+}
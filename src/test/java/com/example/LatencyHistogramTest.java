@@ -0,0 +1,42 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void bucketsStayWithinTheirPrecision() {
+        for (long micros = 0; micros < 10_000_000; micros = micros * 3 / 2 + 1) {
+            long highest = LatencyHistogram.highestIn(LatencyHistogram.index(micros));
+
+            assertTrue(highest >= micros);
+            assertTrue(highest - micros <= micros / 16);
+        }
+    }
+
+    @Test
+    public void reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // 1 ms to 1000 ms, once each
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMaxMicros());
+        assertEquals(500_500, snapshot.getMeanMicros());
+        assertTrue(Math.abs(snapshot.getP50Micros() - 500_000) <= 500_000 / 16);
+        assertTrue(Math.abs(snapshot.getP99Micros() - 990_000) <= 990_000 / 16);
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for ManageKey and ApiKey.
+ */
+public class ManageKeyTest {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private Path folder;
+    private File keysFile;
+
+    @Before
+    public void create() throws IOException {
+        this.folder = Files.createTempDirectory("keys");
+        this.keysFile = this.folder.resolve("keys").toFile();
+    }
+
+    @After
+    public void delete() throws IOException {
+        System.clearProperty("powerdict.keys.strategy");
+        System.clearProperty("powerdict.keys.benchRateLimited");
+
+        for (File file : this.folder.toFile().listFiles()) {
+            file.delete();
+        }
+
+        Files.deleteIfExists(this.folder);
+    }
+
+    @Test
+    public void roundRobinTakesTurns() throws IOException {
+        ManageKey keys = this.keysWith("a", "b", "c");
+
+        assertEquals("abcabc", acquire(keys, 6));
+    }
+
+    @Test
+    public void leastUsedPicksTheIdlestKey() throws IOException {
+        System.setProperty("powerdict.keys.strategy", "least-used");
+        ManageKey keys = this.keysWith("a");
+
+        assertEquals("aaa", acquire(keys, 3));
+
+        // b catches up with a, and the first of them is taken on a tie
+        keys.addKey(SupportedApi.wordnik_v4, "b", 0);
+        assertEquals("bbbab", acquire(keys, 5));
+    }
+
+    @Test
+    public void exhaustedKeysAreSkipped() throws IOException {
+        ManageKey keys = new ManageKey(this.keysFile);
+        keys.addKey(SupportedApi.wordnik_v4, "a", 2);
+        keys.addKey(SupportedApi.wordnik_v4, "b", 3);
+
+        assertEquals("ababb", acquire(keys, 5));
+        assertNull(keys.acquireApiKey(SupportedApi.wordnik_v4));
+    }
+
+    @Test
+    public void rejectedKeysAreBenched() throws IOException, InterruptedException {
+        System.setProperty("powerdict.keys.benchRateLimited", "50");
+        ManageKey keys = this.keysWith("a", "b");
+
+        // other errors are not the fault of the key
+        keys.reportRejected(keys.acquireApiKey(SupportedApi.wordnik_v4), 500);
+        assertEquals("ba", acquire(keys, 2));
+
+        keys.reportRejected(keys.acquireApiKey(SupportedApi.wordnik_v4), 401);
+        assertEquals("aaa", acquire(keys, 3));
+
+        keys.reportRejected(keys.acquireApiKey(SupportedApi.wordnik_v4), 429);
+        assertNull(keys.acquireApiKey(SupportedApi.wordnik_v4));
+
+        // a rate limited key comes back soon, an invalid one doesn't
+        Thread.sleep(100);
+        assertEquals("aa", acquire(keys, 2));
+    }
+
+    @Test
+    public void usageRollsOverWithTheDay() {
+        ApiKey key = new ApiKey("a", 2);
+        long midnight = 20000 * MILLIS_PER_DAY;
+
+        key.use(midnight - 2);
+        key.use(midnight - 1);
+        assertFalse(key.isAvailable(midnight - 1));
+
+        assertTrue(key.isAvailable(midnight));
+        assertEquals(0, key.getUsedToday(midnight));
+        assertEquals(2, key.getUsedTotal());
+
+        // a key without a quota is never out of it
+        ApiKey unlimited = new ApiKey("b", 0);
+
+        for (int i = 0; i < 1000; i++) {
+            unlimited.use(midnight);
+        }
+
+        assertTrue(unlimited.isAvailable(midnight));
+    }
+
+    @Test
+    public void usageSurvivesReloadingTheKeys() throws IOException {
+        ManageKey keys = new ManageKey(this.keysFile);
+        keys.addKey(SupportedApi.wordnik_v4, "a", 3);
+        assertEquals("aa", acquire(keys, 2));
+        keys.saveIfDirty();
+
+        ManageKey reloaded = new ManageKey(this.keysFile);
+        ApiKey key = reloaded.acquireApiKey(SupportedApi.wordnik_v4);
+
+        assertEquals(3, key.getUsedToday(System.currentTimeMillis()));
+        assertEquals(3, key.getUsedTotal());
+        assertNull(reloaded.acquireApiKey(SupportedApi.wordnik_v4));
+    }
+
+    /**
+     * Keys without a quota, stored in the keys file of the test
+     *
+     * @param names the keys
+     * @return the keys
+     * @throws IOException if the keys file cannot be written
+     */
+    private ManageKey keysWith(String... names) throws IOException {
+        ManageKey keys = new ManageKey(this.keysFile);
+
+        for (String name : names) {
+            keys.addKey(SupportedApi.wordnik_v4, name, 0);
+        }
+
+        return keys;
+    }
+
+    /**
+     * Acquire keys one after the other
+     *
+     * @param keys  the keys
+     * @param count the number of keys to acquire
+     * @return the keys acquired, one after the other
+     */
+    private static String acquire(ManageKey keys, int count) {
+        StringBuilder acquired = new StringBuilder();
+
+        for (int i = 0; i < count; i++) {
+            acquired.append(keys.acquireApiKey(SupportedApi.wordnik_v4).getKey());
+        }
+
+        return acquired.toString();
+    }
+}
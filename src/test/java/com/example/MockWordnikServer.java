@@ -0,0 +1,252 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the Wordnik API, so that the real {@link Wordnik} client
+ * can be tested and load tested without a key or the internet. Point
+ * Power-Dict at it with "powerdict.wordnik.url".
+ *
+ * The responses are the fixtures in src/test/resources/wordnik, one folder per
+ * word holding "definitions.json" and "relatedWords.json". Other words are not
+ * found, unless {@link #answerAnyWord(boolean)} is set. Every response carries
+ * an ETag, and a request sending it back is answered with 304 Not Modified.
+ *
+ * Latency and faults are injected at random, and can be changed while the
+ * server runs:
+ *
+ * <pre>
+ * latency(min, max)         milliseconds each response is delayed by
+ * errorRate(r)              share of requests answered 500
+ * notFoundRate(r)           share of requests answered 404
+ * tooManyRequestsRate(r)    share of requests answered 429
+ * </pre>
+ *
+ * It can also run on its own, for load tests of a running Power-Dict:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.MockWordnikServer 8089 [minLatency maxLatency]
+ * </pre>
+ */
+public class MockWordnikServer implements AutoCloseable {
+    private static final String PATH = "/v4/word.json/";
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private volatile long minLatencyMillis;
+    private volatile long maxLatencyMillis;
+    private volatile double errorRate;
+    private volatile double notFoundRate;
+    private volatile double tooManyRequestsRate;
+    private volatile boolean anyWord;
+
+    /**
+     * responses sent, by status
+     */
+    private ConcurrentHashMap<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Start a server on a free port of the loopback interface
+     *
+     * @throws IOException if the server cannot listen
+     */
+    public MockWordnikServer() throws IOException {
+        this(0);
+    }
+
+    /**
+     * Start a server on a port of the loopback interface
+     *
+     * @param port the port, 0 for any free port
+     * @throws IOException if the server cannot listen
+     */
+    public MockWordnikServer(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "mock-wordnik");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+    }
+
+    /**
+     * The base URL to set "powerdict.wordnik.url" to
+     *
+     * @return the base URL
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + this.server.getAddress().getPort() + PATH;
+    }
+
+    public MockWordnikServer latency(long minMillis, long maxMillis) {
+        this.minLatencyMillis = minMillis;
+        this.maxLatencyMillis = Math.max(minMillis, maxMillis);
+        return this;
+    }
+
+    public MockWordnikServer errorRate(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    public MockWordnikServer notFoundRate(double rate) {
+        this.notFoundRate = rate;
+        return this;
+    }
+
+    public MockWordnikServer tooManyRequestsRate(double rate) {
+        this.tooManyRequestsRate = rate;
+        return this;
+    }
+
+    /**
+     * Answer words without a fixture with the fixture of "serendipity", so that
+     * a load test isn't limited to the few recorded words
+     *
+     * @param anyWord <code>true</code> to answer any word
+     * @return this server
+     */
+    public MockWordnikServer answerAnyWord(boolean anyWord) {
+        this.anyWord = anyWord;
+        return this;
+    }
+
+    /**
+     * The number of responses sent with a status
+     *
+     * @param status the HTTP status
+     * @return the number of responses
+     */
+    public long getCount(int status) {
+        AtomicLong count = this.statuses.get(status);
+        return (count == null) ? 0 : count.get();
+    }
+
+    /**
+     * Stop the server at once
+     */
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] parts = exchange.getRequestURI().getPath().substring(PATH.length()).split("/");
+            String query = exchange.getRequestURI().getQuery();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            long latency = this.minLatencyMillis
+                    + ((this.maxLatencyMillis > this.minLatencyMillis)
+                            ? random.nextLong(this.maxLatencyMillis - this.minLatencyMillis + 1)
+                            : 0);
+
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+
+            if (query == null || !query.contains("api_key=")) {
+                this.send(exchange, 401, "{\"message\":\"unauthorized\"}");
+                return;
+            }
+
+            double roll = random.nextDouble();
+
+            if (roll < this.tooManyRequestsRate) {
+                this.send(exchange, 429, "{\"message\":\"API rate limit exceeded\"}");
+                return;
+            }
+
+            if (roll < this.tooManyRequestsRate + this.errorRate) {
+                this.send(exchange, 500, "{\"message\":\"Internal server error\"}");
+                return;
+            }
+
+            String body = (parts.length == 2 && roll >= this.tooManyRequestsRate + this.errorRate + this.notFoundRate)
+                    ? this.fixture(parts[0], parts[1])
+                    : null;
+
+            if (body == null) {
+                this.send(exchange, 404, "{\"statusCode\":404,\"error\":\"Not Found\",\"message\":\"Not found\"}");
+                return;
+            }
+
+            String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                this.count(304);
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            this.send(exchange, 200, body);
+        }
+
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The recorded response of an endpoint for a word
+     *
+     * @return the body, or <code>null</code> if there is no fixture
+     */
+    private String fixture(String word, String endpoint) throws IOException {
+        String path = "wordnik/" + word + "/" + endpoint + ".json";
+
+        if (this.anyWord && MockWordnikServer.class.getClassLoader().getResource(path) == null) {
+            path = "wordnik/serendipity/" + endpoint + ".json";
+        }
+
+        try (InputStream in = MockWordnikServer.class.getClassLoader().getResourceAsStream(path)) {
+            return (in == null) ? null : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        this.count(status);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void count(int status) {
+        this.statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+    }
+
+    public static void main(String[] args) throws IOException {
+        MockWordnikServer server = new MockWordnikServer(args.length > 0 ? Integer.parseInt(args[0]) : 8089);
+
+        if (args.length > 2) {
+            server.latency(Long.parseLong(args[1]), Long.parseLong(args[2]));
+        }
+
+        server.answerAnyWord(true);
+        System.out.println("Mock Wordnik listening on " + server.getUrl());
+    }
+}
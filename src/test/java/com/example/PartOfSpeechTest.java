@@ -0,0 +1,40 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for PartOfSpeech.
+ */
+public class PartOfSpeechTest {
+    @Test
+    public void groupsWordnikLabels() {
+        assertEquals(PartOfSpeech.VERB, PartOfSpeech.of("verb-transitive"));
+        assertEquals(PartOfSpeech.NOUN, PartOfSpeech.of("proper-noun-plural"));
+        assertEquals(PartOfSpeech.PRONOUN, PartOfSpeech.of("pronoun"));
+        assertEquals(PartOfSpeech.ADJECTIVE, PartOfSpeech.of("adjective"));
+        assertEquals(PartOfSpeech.OTHER, PartOfSpeech.of("idiom"));
+        assertEquals(PartOfSpeech.OTHER, PartOfSpeech.of(null));
+    }
+
+    @Test
+    public void parsesAbbreviations() {
+        assertEquals(PartOfSpeech.ADJECTIVE, PartOfSpeech.parse("adj"));
+        assertEquals(PartOfSpeech.VERB, PartOfSpeech.parse(" Verb "));
+        assertNull(PartOfSpeech.parse("xyz"));
+        assertNull(PartOfSpeech.parse(""));
+    }
+
+    @Test
+    public void masksHoldOneBitPerPartOfSpeech() {
+        int mask = PartOfSpeech.NOUN.bit() | PartOfSpeech.ADJECTIVE.bit();
+
+        assertTrue(PartOfSpeech.ADJECTIVE.in(mask));
+        assertTrue(PartOfSpeech.NOUN.in(mask));
+        assertFalse(PartOfSpeech.VERB.in(mask));
+    }
+}
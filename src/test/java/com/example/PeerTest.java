@@ -0,0 +1,206 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit test for HashRing, PeerServer and PeerProvider.
+ */
+public class PeerTest {
+    @Test
+    public void ringSpreadsWordsAndMovesFewOfThem() {
+        HashRing three = new HashRing(Arrays.asList("a:1", "b:1", "c:1"), 64);
+        HashRing four = new HashRing(Arrays.asList("a:1", "b:1", "c:1", "d:1"), 64);
+        HashMap<String, Integer> owned = new HashMap<>();
+        int moved = 0;
+
+        for (int i = 0; i < 3000; i++) {
+            String word = "word" + i;
+            String owner = three.owner(word);
+
+            owned.merge(owner, 1, Integer::sum);
+
+            // a word only ever moves to the new node
+            if (!owner.equals(four.owner(word))) {
+                assertEquals("d:1", four.owner(word));
+                moved++;
+            }
+        }
+
+        for (int count : owned.values()) {
+            assertTrue(count > 500);
+        }
+
+        assertTrue(moved > 300 && moved < 1200);
+    }
+
+    @Test
+    public void nodesFetchEachWordOnce() throws IOException {
+        int nodes = 3;
+        AtomicInteger upstream = new AtomicInteger();
+        List<PeerServer> servers = new ArrayList<>();
+        List<ConcurrentHashMap<String, Vocab>> histories = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        for (int i = 0; i < nodes; i++) {
+            ConcurrentHashMap<String, Vocab> history = new ConcurrentHashMap<>();
+
+            histories.add(history);
+            servers.add(new PeerServer(new InetSocketAddress("127.0.0.1", 0),
+                    word -> history.computeIfAbsent(word, w -> fetchOnline(w, upstream))));
+            names.add("127.0.0.1:" + servers.get(i).getPort());
+        }
+
+        HashRing ring = new HashRing(names, 64);
+
+        try {
+            for (int i = 0; i < nodes; i++) {
+                PeerProvider peers = new PeerProvider(ring, names.get(i), 2000);
+                ConcurrentHashMap<String, Vocab> history = histories.get(i);
+
+                for (int w = 0; w < 30; w++) {
+                    String word = "word" + w;
+                    DictionaryProvider.Entry entry = peers.fetchEntry(word, Deadline.after(2000)).join();
+
+                    // the chain would go online next, for the words this node owns
+                    if (entry == null) {
+                        history.computeIfAbsent(word, x -> fetchOnline(x, upstream));
+                    }
+
+                    else {
+                        assertEquals("meaning of " + word, entry.getDefinitions()[0].text);
+                        assertEquals("synonym of " + word, entry.getSynonyms());
+                    }
+                }
+            }
+        }
+
+        finally {
+            for (PeerServer server : servers) {
+                server.stop();
+            }
+        }
+
+        // without peers, every node would have gone online for every word
+        assertEquals(30, upstream.get());
+    }
+
+    @Test
+    public void encodedResponsesAreSentFromTheirFile() throws IOException {
+        AtomicInteger decoded = new AtomicInteger();
+        Path folder = Files.createTempDirectory("peer");
+        File file = folder.resolve("word.peer").toFile();
+
+        PeerServer server = new PeerServer(new InetSocketAddress("127.0.0.1", 0), word -> {
+            decoded.incrementAndGet();
+            return fetchOnline(word, new AtomicInteger());
+        }, word -> file.isFile() ? file.toPath() : null);
+
+        String name = "127.0.0.1:" + server.getPort();
+        PeerProvider peers = new PeerProvider(new HashRing(Arrays.asList(name), 1), "self", 2000);
+
+        try {
+            RecordFile.write(file, server.encode(fetchOnline("cached", new AtomicInteger())));
+
+            assertEquals("meaning of cached", peers.fetchDefinitions("hot", Deadline.after(2000)).join()[0].text);
+            assertEquals(0, decoded.get());
+
+            // without the file, the word is decoded and encoded again
+            file.delete();
+
+            assertEquals("meaning of hot", peers.fetchDefinitions("hot", Deadline.after(2000)).join()[0].text);
+            assertEquals(1, decoded.get());
+
+            // a corrupted file is never sent, and deleted
+            RecordFile.write(file, server.encode(fetchOnline("cached", new AtomicInteger())));
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            bytes[bytes.length - 2] ^= 1;
+            Files.write(file.toPath(), bytes);
+
+            assertEquals("meaning of warm", peers.fetchDefinitions("warm", Deadline.after(2000)).join()[0].text);
+            assertEquals(2, decoded.get());
+            assertFalse(file.exists());
+        }
+
+        finally {
+            server.stop();
+            Files.deleteIfExists(folder);
+        }
+    }
+
+    @Test
+    public void idleConnectionsDontStallPeers() throws IOException {
+        System.setProperty("powerdict.peer.threads", "2");
+        System.setProperty("powerdict.peer.backlog", "2");
+        System.setProperty("powerdict.peer.readTimeout", "200");
+
+        PeerServer server;
+        List<Socket> idle = new ArrayList<>();
+
+        try {
+            server = new PeerServer(new InetSocketAddress("127.0.0.1", 0),
+                    word -> fetchOnline(word, new AtomicInteger()));
+        }
+
+        finally {
+            System.clearProperty("powerdict.peer.threads");
+            System.clearProperty("powerdict.peer.backlog");
+            System.clearProperty("powerdict.peer.readTimeout");
+        }
+
+        String name = "127.0.0.1:" + server.getPort();
+        PeerProvider peers = new PeerProvider(new HashRing(Arrays.asList(name), 1), "self", 2000);
+
+        try {
+            // more connections sending nothing than the workers and the backlog take
+            for (int i = 0; i < 10; i++) {
+                idle.add(new Socket("127.0.0.1", server.getPort()));
+            }
+
+            long start = System.currentTimeMillis();
+            DictionaryProvider.Entry entry = null;
+
+            // the connections turned away are reset, until the idle ones time out
+            while (entry == null && System.currentTimeMillis() - start < 1500) {
+                entry = peers.fetchEntry("busy", Deadline.after(2000)).exceptionally(e -> null).join();
+            }
+
+            assertNotNull(entry);
+            assertEquals("synonym of busy", entry.getSynonyms());
+        }
+
+        finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+
+            server.stop();
+        }
+    }
+
+    private static Vocab fetchOnline(String word, AtomicInteger upstream) {
+        WordnikDef definition = new WordnikDef();
+        definition.text = "meaning of " + word;
+        definition.partOfSpeech = "noun";
+
+        upstream.incrementAndGet();
+        return new Vocab(word, new WordnikDef[] { definition }, "synonym of " + word);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for PowerDictDaemon and PowerDictClient.
+ */
+public class PowerDictDaemonTest {
+    private Path folder;
+    private Path socketPath;
+
+    /**
+     * set once the daemon released history, and whether the socket file was
+     * still there at that time
+     */
+    private AtomicBoolean released;
+    private AtomicBoolean releasedBeforeRemoval;
+
+    @Before
+    public void create() throws IOException {
+        this.folder = Files.createTempDirectory("daemon");
+        this.socketPath = this.folder.resolve("test.sock");
+        this.released = new AtomicBoolean();
+        this.releasedBeforeRemoval = new AtomicBoolean();
+
+        System.setProperty("powerdict.socket", this.socketPath.toString());
+        System.setProperty("powerdict.daemon.readTimeout", "200");
+    }
+
+    @After
+    public void delete() throws IOException {
+        for (String name : new String[] { "socket", "daemon.readTimeout", "daemon.idleTimeout" }) {
+            System.clearProperty("powerdict." + name);
+        }
+
+        Files.deleteIfExists(this.socketPath);
+        Files.deleteIfExists(this.folder);
+    }
+
+    @Test
+    public void answersEveryRequest() throws Exception {
+        CompletableFuture<Boolean> daemon = this.start(false, word -> AppIO.getInstance().printf("found %s", word));
+
+        assertEquals("PONG\n", PowerDictClient.send(this.socketPath, "PING"));
+        assertEquals("found hello", PowerDictClient.send(this.socketPath, "LOOKUP hello"));
+        assertTrue(PowerDictClient.send(this.socketPath, "FETCH hello").startsWith("Unknown request"));
+
+        // a daemon started by the user keeps history
+        assertEquals("REFUSED\n", PowerDictClient.send(this.socketPath, "HANDOVER"));
+        assertFalse(PowerDictClient.handOver());
+        assertTrue(PowerDictClient.isAlive(this.socketPath));
+
+        assertEquals("BYE\n", PowerDictClient.send(this.socketPath, "STOP"));
+        assertTrue(daemon.get(5, TimeUnit.SECONDS));
+        assertTrue(this.releasedBeforeRemoval.get());
+        assertFalse(Files.exists(this.socketPath));
+    }
+
+    @Test
+    public void autoDaemonHandsHistoryOver() throws Exception {
+        CompletableFuture<Boolean> daemon = this.start(true, word -> AppIO.getInstance().printf("found %s", word));
+
+        assertTrue(PowerDictClient.handOver());
+        assertTrue(daemon.get(5, TimeUnit.SECONDS));
+        assertTrue(this.releasedBeforeRemoval.get());
+        assertFalse(Files.exists(this.socketPath));
+    }
+
+    @Test
+    public void autoDaemonStopsWhenIdle() throws Exception {
+        System.setProperty("powerdict.daemon.idleTimeout", "200");
+        CompletableFuture<Boolean> daemon = this.start(true, word -> AppIO.getInstance().printf("found %s", word));
+
+        assertTrue(daemon.get(5, TimeUnit.SECONDS));
+        assertTrue(this.released.get());
+        assertFalse(Files.exists(this.socketPath));
+    }
+
+    @Test
+    public void silentClientsAreDropped() throws Exception {
+        CompletableFuture<Boolean> daemon = this.start(false, word -> AppIO.getInstance().printf("found %s", word));
+
+        try (SocketChannel silent = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            silent.connect(UnixDomainSocketAddress.of(this.socketPath));
+            long start = System.currentTimeMillis();
+
+            // the daemon closes the connection once the read timeout passes, and answers others meanwhile
+            assertEquals("PONG\n", PowerDictClient.send(this.socketPath, "PING"));
+            assertEquals(-1, silent.read(ByteBuffer.allocate(16)));
+            assertTrue(System.currentTimeMillis() - start >= 150);
+        }
+
+        finally {
+            PowerDictClient.send(this.socketPath, "STOP");
+            daemon.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void stopCompletesAcceptedLookups() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> daemon = this.start(false, word -> {
+            started.countDown();
+
+            try {
+                proceed.await();
+            }
+
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            AppIO.getInstance().printf("found %s", word);
+        });
+
+        CompletableFuture<String> lookup = CompletableFuture.supplyAsync(() -> {
+            try {
+                return PowerDictClient.send(this.socketPath, "LOOKUP slow");
+            }
+
+            catch (IOException e) {
+                return null;
+            }
+        }, PowerDictDaemonTest::inThread);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals("BYE\n", PowerDictClient.send(this.socketPath, "STOP"));
+
+        // history is kept until the lookup completes
+        Thread.sleep(100);
+        assertFalse(daemon.isDone());
+        assertFalse(this.released.get());
+
+        proceed.countDown();
+        assertEquals("found slow", lookup.get(5, TimeUnit.SECONDS));
+        assertTrue(daemon.get(5, TimeUnit.SECONDS));
+        assertTrue(this.released.get());
+    }
+
+    /**
+     * Run a daemon on the socket file of the test, and wait for it to answer
+     *
+     * @param auto   <code>true</code> for a daemon started by a client
+     * @param lookup searches a word
+     * @return the result of {@link PowerDictDaemon#run(Consumer, Runnable)}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private CompletableFuture<Boolean> start(boolean auto, Consumer<String> lookup) throws InterruptedException {
+        PowerDictDaemon daemon = new PowerDictDaemon(this.socketPath, auto);
+
+        CompletableFuture<Boolean> run = CompletableFuture.supplyAsync(() -> daemon.run(lookup, () -> {
+            this.releasedBeforeRemoval.set(Files.exists(this.socketPath));
+            this.released.set(true);
+        }), PowerDictDaemonTest::inThread);
+
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (!PowerDictClient.isAlive(this.socketPath) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        return run;
+    }
+
+    /**
+     * Run a task in a thread of its own, rather than in the common pool, which
+     * may have a single thread
+     *
+     * @param task the task
+     */
+    private static void inThread(Runnable task) {
+        new Thread(task).start();
+    }
+}
@@ -0,0 +1,205 @@
+package com.example;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for ProviderChain.
+ */
+public class ProviderChainTest {
+    @Before
+    public void onlyLocal() {
+        // a local dictionary that doesn't exist knows no word
+        System.setProperty("powerdict.providers", "local");
+        System.setProperty("powerdict.local.file", "target/no-such-dictionary.ndjson");
+    }
+
+    @After
+    public void reset() {
+        System.clearProperty("powerdict.providers");
+        System.clearProperty("powerdict.local.file");
+    }
+
+    @Test
+    public void definitionsArriveBeforeSlowSynonyms() {
+        CompletableFuture<String> synonyms = new CompletableFuture<>();
+        ProviderChain chain = new ProviderChain();
+        chain.add(new FixedProvider("a greeting", synonyms));
+
+        ProviderChain.Lookup lookup = chain.lookup("hello", Deadline.after(1000));
+
+        Vocab partial = lookup.getDefinitions().join();
+        assertTrue(partial.incomplete);
+        assertArrayEquals(new String[] { "a greeting" }, partial.getDefinitions());
+        assertArrayEquals(new String[] { "interjection" }, partial.getPartsOfSpeech());
+        assertNull(partial.getSynonyms());
+        assertFalse(lookup.getComplete().isDone());
+
+        synonyms.complete("hi, howdy");
+
+        Vocab vocab = lookup.getComplete().join();
+        assertFalse(vocab.incomplete);
+        assertEquals("hi, howdy", vocab.getSynonyms());
+        assertEquals(2, vocab.getSynonymCount());
+        assertEquals("fixed", vocab.source);
+    }
+
+    @Test
+    public void failedSynonymsLeaveTheVocabIncomplete() {
+        ProviderChain chain = new ProviderChain();
+        chain.add(new FixedProvider("a greeting", CompletableFuture.failedFuture(new IOException("timed out"))));
+
+        Vocab vocab = chain.lookup("hello", Deadline.after(1000)).getComplete().join();
+        assertTrue(vocab.incomplete);
+        assertArrayEquals(new String[] { "a greeting" }, vocab.getDefinitions());
+        assertNull(vocab.getSynonyms());
+
+        // no synonyms at all is a complete answer
+        chain = new ProviderChain();
+        chain.add(new FixedProvider("a greeting", CompletableFuture.completedFuture("")));
+
+        vocab = chain.lookup("hello", Deadline.after(1000)).getComplete().join();
+        assertFalse(vocab.incomplete);
+        assertNull(vocab.getSynonyms());
+    }
+
+    @Test
+    public void unknownWordCompletesBoth() {
+        ProviderChain chain = new ProviderChain();
+        chain.add(new FixedProvider(null, CompletableFuture.completedFuture(null)));
+
+        ProviderChain.Lookup lookup = chain.lookup("hello", Deadline.after(1000));
+
+        assertNull(lookup.getDefinitions().join());
+        assertNull(lookup.getComplete().join());
+    }
+
+    @Test
+    public void localMissFallsBackToWordnik() throws IOException {
+        File dictionary = File.createTempFile("dictionary", ".ndjson");
+        dictionary.deleteOnExit();
+        Files.write(dictionary.toPath(),
+                "{\"word\":\"serendipity\",\"definition\":[\"luck\"],\"synonyms\":\"chance\"}\n"
+                        .getBytes(StandardCharsets.UTF_8));
+        System.setProperty("powerdict.local.file", dictionary.getPath());
+
+        ProviderChain chain = new ProviderChain();
+        chain.add(new FixedProvider("wordnik", "a greeting", CompletableFuture.completedFuture("hi")));
+
+        Vocab known = chain.lookup("serendipity", Deadline.after(1000)).getComplete().join();
+        assertEquals("local", known.source);
+        assertArrayEquals(new String[] { "luck" }, known.getDefinitions());
+
+        Vocab fallback = chain.lookup("hello", Deadline.after(1000)).getComplete().join();
+        assertEquals("wordnik", fallback.source);
+        assertArrayEquals(new String[] { "a greeting" }, fallback.getDefinitions());
+        assertEquals("hi", fallback.getSynonyms());
+    }
+
+    @Test
+    public void localSkipsLinesWithNulls() throws IOException {
+        File dictionary = File.createTempFile("dictionary", ".ndjson");
+        dictionary.deleteOnExit();
+        Files.write(dictionary.toPath(), String.join("\n",
+                "{\"word\":\"nothing\",\"definition\":[null]}",
+                "{\"word\":\"nobody\",\"definition\":[\"no one\"],\"partOfSpeech\":[null]}",
+                "{\"word\":\"empty\",\"definition\":[]}",
+                "{\"word\":\"serendipity\",\"definition\":[\"luck\"],\"partOfSpeech\":[\"noun\"]}")
+                .getBytes(StandardCharsets.UTF_8));
+        System.setProperty("powerdict.local.file", dictionary.getPath());
+
+        ProviderChain chain = new ProviderChain();
+        chain.add(new FixedProvider("wordnik", "a greeting", CompletableFuture.completedFuture("hi")));
+
+        for (String word : new String[] { "nothing", "nobody", "empty" }) {
+            Vocab fallback = chain.lookup(word, Deadline.after(1000)).getComplete().join();
+            assertEquals("wordnik", fallback.source);
+            assertArrayEquals(new String[] { "a greeting" }, fallback.getDefinitions());
+        }
+
+        Vocab known = chain.lookup("serendipity", Deadline.after(1000)).getComplete().join();
+        assertEquals("local", known.source);
+        assertArrayEquals(new String[] { "noun" }, known.getPartsOfSpeech());
+    }
+
+    @Test
+    public void statsArePerProvider() {
+        ProviderChain chain = new ProviderChain();
+        chain.add(new FixedProvider("broken", null, null) {
+            @Override
+            public CompletableFuture<WordnikDef[]> fetchDefinitions(String word, Deadline deadline) {
+                return CompletableFuture.failedFuture(new IOException("connection refused"));
+            }
+        });
+        chain.add(new FixedProvider("wordnik", "a greeting", CompletableFuture.completedFuture("hi")));
+
+        assertEquals("wordnik", chain.lookup("hello", Deadline.after(1000)).getComplete().join().source);
+        assertEquals("wordnik", chain.lookup("howdy", Deadline.after(1000)).getComplete().join().source);
+
+        StringWriter out = new StringWriter();
+        AppIO.getInstance().withOutput(out, () -> {
+            chain.printStats();
+            return null;
+        });
+
+        String stats = out.toString();
+        assertTrue(stats, stats.contains("local   : 2 calls, 0 answered, 2 not found, 0 failed"));
+        assertTrue(stats, stats.contains("broken  : 2 calls, 0 answered, 0 not found, 2 failed"));
+        // definitions and synonyms are both counted
+        assertTrue(stats, stats.contains("wordnik : 4 calls, 4 answered, 0 not found, 0 failed"));
+    }
+
+    /**
+     * Provider answering every word with the same definition and synonyms
+     */
+    private static class FixedProvider implements DictionaryProvider {
+        private String name;
+        private WordnikDef[] definitions;
+        private CompletableFuture<String> synonyms;
+
+        FixedProvider(String definition, CompletableFuture<String> synonyms) {
+            this("fixed", definition, synonyms);
+        }
+
+        FixedProvider(String name, String definition, CompletableFuture<String> synonyms) {
+            this.name = name;
+
+            if (definition != null) {
+                this.definitions = new WordnikDef[] { new WordnikDef() };
+                this.definitions[0].text = definition;
+                this.definitions[0].partOfSpeech = "interjection";
+            }
+
+            this.synonyms = synonyms;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public CompletableFuture<WordnikDef[]> fetchDefinitions(String word, Deadline deadline) {
+            return CompletableFuture.completedFuture(this.definitions);
+        }
+
+        @Override
+        public CompletableFuture<String> fetchSynonyms(String word, Deadline deadline) {
+            return this.synonyms;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Unit test for StringTable.
+ */
+public class StringTableTest {
+    @Test
+    public void internsEachStringOnce() {
+        StringTable table = StringTable.getInstance();
+        int[] ids = new int[5000];
+
+        // enough strings to grow the arrays and the index a few times
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = table.intern("string table test " + i + " é");
+        }
+
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], table.intern("string table test " + i + " é"));
+            assertEquals("string table test " + i + " é", table.lookup(ids[i]));
+        }
+
+        assertEquals("string table test 7 é".getBytes(java.nio.charset.StandardCharsets.UTF_8).length,
+                table.length(ids[7]));
+        assertNull(table.lookup(table.size()));
+        assertEquals(-1, table.length(-1));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Unit test for VocabArena.
+ */
+public class VocabArenaTest {
+    @Test
+    public void putAndGetRoundTrip() {
+        VocabArena arena = new VocabArena(1 << 20);
+
+        assertTrue(arena.put(vocab("arena one", 2, "alpha, beta")));
+        assertTrue(arena.put(vocab("arena two", 3, null)));
+
+        Vocab one = arena.get("arena one");
+        assertEquals("arena one", one.word);
+        assertEquals(1000, one.fetchedAt);
+        assertArrayEquals(new String[] { "meaning 0 of arena one", "meaning 1 of arena one" }, one.getDefinitions());
+        assertArrayEquals(new String[] { "noun", "verb" }, one.getPartsOfSpeech());
+        assertEquals("alpha, beta", one.getSynonyms());
+
+        Vocab two = arena.get("arena two");
+        assertEquals(3, two.getDefinitions().length);
+        assertNull(two.getSynonyms());
+
+        assertNull(arena.get("arena three"));
+    }
+
+    @Test
+    public void removedWordsAreForgotten() {
+        VocabArena arena = new VocabArena(1 << 20);
+        arena.put(vocab("arena one", 1, "alpha"));
+        arena.put(vocab("arena two", 1, "beta"));
+
+        arena.remove("arena one");
+
+        assertFalse(arena.contains("arena one"));
+        assertNull(arena.get("arena one"));
+        assertEquals("beta", arena.get("arena two").getSynonyms());
+
+        arena.clear();
+        assertNull(arena.get("arena two"));
+    }
+
+    @Test
+    public void fullArenaIsReset() {
+        // room for a few dozen records of a single definition
+        VocabArena arena = new VocabArena(2048);
+        int words = 200;
+
+        for (int i = 0; i < words; i++) {
+            assertTrue(arena.put(vocab("arena word " + i, 1, "synonym " + i)));
+        }
+
+        // the first words went with the resets, the last one is still there
+        assertFalse(arena.contains("arena word 0"));
+        assertEquals("synonym " + (words - 1), arena.get("arena word " + (words - 1)).getSynonyms());
+
+        StringWriter out = new StringWriter();
+        AppIO.getInstance().withOutput(out, () -> {
+            arena.printStats();
+            return null;
+        });
+
+        assertFalse(out.toString(), out.toString().contains("Resets since start       : 0"));
+
+        // a record bigger than the whole arena is never stored
+        assertFalse(new VocabArena(64).put(vocab("arena big", 50, null)));
+    }
+
+    /**
+     * A vocab with the given number of definitions, alternating nouns and verbs
+     *
+     * @param word        the word
+     * @param definitions the number of definitions
+     * @param synonyms    the synonyms, may be <code>null</code>
+     * @return the vocab
+     */
+    private static Vocab vocab(String word, int definitions, String synonyms) {
+        WordnikDef[] defs = new WordnikDef[definitions];
+
+        for (int i = 0; i < definitions; i++) {
+            defs[i] = new WordnikDef();
+            defs[i].text = "meaning " + i + " of " + word;
+            defs[i].partOfSpeech = (i % 2 == 0) ? "noun" : "verb";
+        }
+
+        Vocab vocab = new Vocab(word, defs, synonyms);
+        vocab.fetchedAt = 1000;
+
+        return vocab;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * End-to-end test of the Wordnik client against MockWordnikServer.
+ */
+public class WordnikEndToEndTest {
+    private static MockWordnikServer server;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = new MockWordnikServer();
+
+        // before Wordnik and ManageKey read their settings
+        System.setProperty("powerdict.wordnik.url", server.getUrl());
+        System.setProperty("powerdict.keys.benchRateLimited", "0");
+        ManageKey.getInstance().addKey(SupportedApi.wordnik_v4, "mock-key", 0);
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void fetchesAndRevalidatesRecordedWords() {
+        WordnikDef[] definitions = Wordnik.getDefinitions("run", Deadline.after(5000));
+
+        assertEquals(100, definitions.length);
+        assertTrue(Wordnik.getSynonyms("run", Deadline.after(5000)).contains("sprint"));
+
+        // stored by the response cache, and only revalidated the second time
+        assertEquals(100, Wordnik.getDefinitions("run", Deadline.after(5000)).length);
+        assertTrue(server.getCount(304) >= 1);
+
+        assertNull(Wordnik.getDefinitions("unrecorded", Deadline.after(5000)));
+        assertTrue(server.getCount(404) >= 1);
+    }
+
+    @Test
+    public void failsCleanlyOnInjectedFaults() {
+        try {
+            server.tooManyRequestsRate(1);
+            assertNull(Wordnik.getDefinitions("serendipity", Deadline.after(5000)));
+            assertEquals(1, server.getCount(429));
+
+            server.tooManyRequestsRate(0).errorRate(1);
+            assertNull(Wordnik.getDefinitions("serendipity", Deadline.after(5000)));
+            assertEquals(1, server.getCount(500));
+        }
+
+        finally {
+            server.errorRate(0);
+        }
+
+        assertEquals(1, Wordnik.getDefinitions("serendipity", Deadline.after(5000)).length);
+    }
+}